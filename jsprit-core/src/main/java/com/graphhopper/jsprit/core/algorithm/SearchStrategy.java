@@ -132,8 +132,23 @@ public class SearchStrategy {
      * @return discoveredSolution
      * @throws java.lang.IllegalStateException if selector cannot select any solution
      */
-    @SuppressWarnings("UnusedParameters")
     public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution lastSolution = searchSolution(vrp, solutions);
+        boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
+        return new DiscoveredSolution(lastSolution, solutionAccepted, getId());
+    }
+
+    /**
+     * Runs steps 1) and 2) of run(...), i.e. selects and copies a solution, runs the modules on the copy and calculates its costs,
+     * but does not accept the new solution. Solutions are thus not modified.
+     *
+     * @param vrp       the underlying vehicle routing problem
+     * @param solutions to select from
+     * @return the new solution
+     * @throws java.lang.IllegalStateException if selector cannot select any solution
+     */
+    @SuppressWarnings("UnusedParameters")
+    public VehicleRoutingProblemSolution searchSolution(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
         VehicleRoutingProblemSolution solution = solutionSelector.selectSolution(solutions);
         if (solution == null) throw new IllegalStateException(getErrMsg());
         VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOf(solution);
@@ -142,8 +157,7 @@ public class SearchStrategy {
         }
         double costs = solutionCostCalculator.getCosts(lastSolution);
         lastSolution.setCost(costs);
-        boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
-        return new DiscoveredSolution(lastSolution, solutionAccepted, getId());
+        return lastSolution;
     }
 
     private static String getErrMsg() {
@@ -56,6 +56,17 @@ public class SearchStrategyManager {
         return Collections.unmodifiableList(weights);
     }
 
+    /**
+     * Returns the strategy with the specified id or null if there is none.
+     *
+     * @param strategyId id of the strategy
+     * @return strategy
+     */
+    public SearchStrategy getStrategy(String strategyId) {
+        Integer index = id2index.get(strategyId);
+        return index == null ? null : strategies.get(index);
+    }
+
     public double getWeight(String strategyId) {
         return weights.get(id2index.get(strategyId));
     }
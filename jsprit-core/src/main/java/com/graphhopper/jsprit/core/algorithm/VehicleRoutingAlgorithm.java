@@ -34,18 +34,25 @@ import com.graphhopper.jsprit.core.util.Solutions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
  * Algorithm that solves a {@link VehicleRoutingProblem}.
+ * <p>
+ * <p>Closing the algorithm releases the resources it owns (e.g. an executor service that has been set up internally), see
+ * addCloseHandler(...).
  *
  * @author stefan schroeder
  */
-public class VehicleRoutingAlgorithm {
+public class VehicleRoutingAlgorithm implements AutoCloseable {
 
 
 
@@ -110,8 +117,26 @@ public class VehicleRoutingAlgorithm {
 
     private VehicleRoutingProblemSolution bestEver;
 
+    private final AtomicReference<VehicleRoutingProblemSolution> publishedBest = new AtomicReference<>();
+
+    private volatile SubmissionPublisher<VehicleRoutingProblemSolution> bestSolutionPublisher;
+
+    private double publicationThreshold;
+
+    private long publicationInterval;
+
+    private VehicleRoutingProblemSolution lastPublished;
+
+    private long lastPublicationTime;
+
     private final SolutionCostCalculator objectiveFunction;
 
+    private final Queue<Runnable> closeHandlers = new ConcurrentLinkedQueue<>();
+
+    private final List<VehicleRoutingAlgorithm> speculativeAlgorithms = new ArrayList<>();
+
+    private ExecutorService speculativeExecutor;
+
     public VehicleRoutingAlgorithm(VehicleRoutingProblem problem, SearchStrategyManager searchStrategyManager) {
         this.problem = problem;
         this.searchStrategyManager = searchStrategyManager;
@@ -192,6 +217,42 @@ public class VehicleRoutingAlgorithm {
         terminationManager.addTermination(terminationCriterion);
     }
 
+    /**
+     * Enables speculative search.
+     * <p>
+     * <p>In each iteration, a randomly selected strategy of this algorithm and a randomly selected strategy of each of the specified
+     * algorithms run concurrently, each on its own copy of the selected solution. Only the best of these new solutions is passed
+     * to the acceptor, i.e. to the acceptor of this algorithm's strategy with the same id, or, if there is none, to the acceptor of the
+     * strategy selected by this algorithm. Thus, the number of solutions explored per iteration is multiplied by the number of
+     * algorithms.
+     * <p>
+     * <p>The specified algorithms must solve the same problem, but each with its own state manager, constraint manager and fleet manager
+     * since their strategies run in parallel. Their algorithm and iteration listeners are informed by this algorithm, i.e. algorithm
+     * start listeners get this algorithm (and thus its max. number of iterations) and a copy of its initial solutions. The specified
+     * algorithms never search themselves, i.e. their own acceptors and termination criteria are not used.
+     * <p>
+     * <p>Note that the objective function of the strategies is called from several threads at the same time, thus it must be
+     * thread-safe if it is shared by the algorithms.
+     *
+     * @param executor   the executor the strategies of the specified algorithms run on
+     * @param algorithms the algorithms whose strategies run in parallel to the strategies of this algorithm
+     */
+    public void setSpeculativeSearch(ExecutorService executor, Collection<VehicleRoutingAlgorithm> algorithms) {
+        this.speculativeExecutor = executor;
+        this.speculativeAlgorithms.clear();
+        this.speculativeAlgorithms.addAll(algorithms);
+    }
+
+    /**
+     * Returns the algorithms whose strategies run in parallel to the strategies of this algorithm.
+     *
+     * @return unmodifiable collection of speculative algorithms
+     * @see #setSpeculativeSearch(ExecutorService, Collection)
+     */
+    public Collection<VehicleRoutingAlgorithm> getSpeculativeAlgorithms() {
+        return Collections.unmodifiableList(speculativeAlgorithms);
+    }
+
     /**
      * Gets the {@link SearchStrategyManager}.
      *
@@ -219,6 +280,8 @@ public class VehicleRoutingAlgorithm {
         Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<>(initialSolutions);
         algorithmStarts(problem, solutions);
         bestEver = Solutions.bestOf(solutions);
+        lastPublished = null;
+        publishBestEver(false);
         if (logger.isTraceEnabled()) {
             log(solutions);
         }
@@ -228,26 +291,125 @@ public class VehicleRoutingAlgorithm {
             logger.debug("start iteration: {}", i);
             counter.incCounter();
             SearchStrategy strategy = searchStrategyManager.getRandomStrategy();
-            DiscoveredSolution discoveredSolution = strategy.run(problem, solutions);
+            DiscoveredSolution discoveredSolution = speculativeAlgorithms.isEmpty() ? strategy.run(problem, solutions) : runSpeculatively(strategy, solutions);
             if (logger.isTraceEnabled()) {
                 log(discoveredSolution);
             }
             memorizeIfBestEver(discoveredSolution);
+            publishBestEver(false);
             selectedStrategy(discoveredSolution, problem, solutions);
             if (terminationManager.isPrematureBreak(discoveredSolution)) {
                 logger.info("premature algorithm termination at iteration {}", (i + 1));
                 noIterationsThisAlgoIsRunning = (i + 1);
                 break;
             }
+            if (Thread.currentThread().isInterrupted()) {
+                logger.info("algorithm interrupted at iteration {}", (i + 1));
+                noIterationsThisAlgoIsRunning = (i + 1);
+                break;
+            }
             iterationEnds(i + 1, problem, solutions);
         }
         logger.info("iterations end at {} iterations", noIterationsThisAlgoIsRunning);
         addBestEver(solutions);
+        publishBestEver(true);
         algorithmEnds(problem, solutions);
         logger.info("took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
         return solutions;
     }
 
+    private DiscoveredSolution runSpeculatively(SearchStrategy strategy, Collection<VehicleRoutingProblemSolution> solutions) {
+        final Collection<VehicleRoutingProblemSolution> selectable = Collections.unmodifiableList(new ArrayList<>(solutions));
+        List<Future<DiscoveredSolution>> futures = new ArrayList<>(speculativeAlgorithms.size());
+        for (VehicleRoutingAlgorithm algorithm : speculativeAlgorithms) {
+            final SearchStrategy speculativeStrategy = algorithm.searchStrategyManager.getRandomStrategy();
+            futures.add(speculativeExecutor.submit(() -> new DiscoveredSolution(speculativeStrategy.searchSolution(problem, selectable), false, speculativeStrategy.getId())));
+        }
+        VehicleRoutingProblemSolution bestSolution = strategy.searchSolution(problem, selectable);
+        String bestStrategyId = strategy.getId();
+        try {
+            //ties are resolved in favour of this algorithm and then in the order of the speculative algorithms
+            for (Future<DiscoveredSolution> future : futures) {
+                DiscoveredSolution speculative = future.get();
+                if (speculative.getSolution().cost() < bestSolution.cost()) {
+                    bestSolution = speculative.getSolution();
+                    bestStrategyId = speculative.getStrategyId();
+                }
+            }
+        } catch (InterruptedException e) {
+            //stop the search, i.e. do not wait for the remaining strategies
+            for (Future<DiscoveredSolution> future : futures) future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        SearchStrategy acceptingStrategy = searchStrategyManager.getStrategy(bestStrategyId);
+        if (acceptingStrategy == null) acceptingStrategy = strategy;
+        boolean accepted = acceptingStrategy.getSolutionAcceptor().acceptSolution(solutions, bestSolution);
+        return new DiscoveredSolution(bestSolution, accepted, bestStrategyId);
+    }
+
+    /**
+     * Makes the best solution found so far available to other threads. If there is a publisher, improvements are offered to its
+     * subscribers, unless the improvement is below the publication threshold and the publication interval has not elapsed yet.
+     * Offering never blocks the search, i.e. if a subscriber does not keep up, solutions are dropped for this subscriber.
+     */
+    private void publishBestEver(boolean force) {
+        if (bestEver == null) return;
+        publishedBest.set(bestEver);
+        if (bestSolutionPublisher == null || bestEver == lastPublished) return;
+        long now = System.currentTimeMillis();
+        if (!force && lastPublished != null) {
+            double improvement = lastPublished.cost() - bestEver.cost();
+            if (improvement < publicationThreshold * Math.abs(lastPublished.cost()) && now - lastPublicationTime < publicationInterval) {
+                return;
+            }
+        }
+        synchronized (this) {
+            //the algorithm might have been closed while searching, i.e. the publisher is completed and takes no more solutions
+            if (bestSolutionPublisher.isClosed()) return;
+            bestSolutionPublisher.offer(bestEver, null);
+        }
+        lastPublished = bestEver;
+        lastPublicationTime = now;
+    }
+
+    /**
+     * Returns the best solution found so far. It can be called from any thread while the algorithm is running. The solution returned
+     * is not modified by the algorithm anymore and must not be modified by the caller either.
+     *
+     * @return the best solution found so far or null if the algorithm has not been started yet
+     */
+    public VehicleRoutingProblemSolution getBestSolution() {
+        return publishedBest.get();
+    }
+
+    /**
+     * Returns a publisher of improving solutions. Subscribers receive the best solutions found while the algorithm is running, subject
+     * to the publication threshold and interval (see setBestSolutionPublication(...)), and in any case the best solution once the
+     * algorithm ends. Solutions are delivered asynchronously, i.e. subscribers do not run on the search thread. The publisher is
+     * completed when the algorithm is closed.
+     *
+     * @return publisher of improving solutions
+     */
+    public synchronized Flow.Publisher<VehicleRoutingProblemSolution> getBestSolutionPublisher() {
+        if (bestSolutionPublisher == null) bestSolutionPublisher = new SubmissionPublisher<>();
+        return bestSolutionPublisher;
+    }
+
+    /**
+     * Throttles the publication of improving solutions. A new best solution is published if it improves the last published solution
+     * by at least minRelativeImprovement (e.g. 0.01 for 1%), or if at least minInterval_in_ms have elapsed since the last publication.
+     * By default, every improvement is published. To throttle by improvement only, set minInterval_in_ms to Long.MAX_VALUE.
+     *
+     * @param minRelativeImprovement relative improvement that is published immediately
+     * @param minInterval_in_ms      time after which any improvement is published
+     */
+    public void setBestSolutionPublication(double minRelativeImprovement, long minInterval_in_ms) {
+        this.publicationThreshold = minRelativeImprovement;
+        this.publicationInterval = minInterval_in_ms;
+    }
+
     private void addBestEver(Collection<VehicleRoutingProblemSolution> solutions) {
         if (bestEver != null) {
             solutions.add(bestEver);
@@ -304,6 +466,9 @@ public class VehicleRoutingAlgorithm {
 
     private void algorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
         algoListeners.algorithmEnds(problem, solutions);
+        for (VehicleRoutingAlgorithm algorithm : speculativeAlgorithms) {
+            algorithm.algoListeners.algorithmEnds(problem, new ArrayList<>(solutions));
+        }
     }
 
     public VehicleRoutingAlgorithmListeners getAlgorithmListeners() {
@@ -322,14 +487,23 @@ public class VehicleRoutingAlgorithm {
 
     private void iterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
         algoListeners.iterationEnds(i, problem, solutions);
+        for (VehicleRoutingAlgorithm algorithm : speculativeAlgorithms) {
+            algorithm.algoListeners.iterationEnds(i, problem, solutions);
+        }
     }
 
     private void iterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
         algoListeners.iterationStarts(i, problem, solutions);
+        for (VehicleRoutingAlgorithm algorithm : speculativeAlgorithms) {
+            algorithm.algoListeners.iterationStarts(i, problem, solutions);
+        }
     }
 
     private void algorithmStarts(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
         algoListeners.algorithmStarts(problem, this, solutions);
+        for (VehicleRoutingAlgorithm algorithm : speculativeAlgorithms) {
+            algorithm.algoListeners.algorithmStarts(problem, this, new ArrayList<>(solutions));
+        }
     }
 
     /**
@@ -355,4 +529,27 @@ public class VehicleRoutingAlgorithm {
         return objectiveFunction;
     }
 
+    /**
+     * Adds a handler that is run once when this algorithm is closed.
+     *
+     * @param closeHandler releasing a resource owned by this algorithm
+     */
+    public void addCloseHandler(Runnable closeHandler) {
+        closeHandlers.add(closeHandler);
+    }
+
+    /**
+     * Runs all close handlers and completes the publisher of best solutions. Subsequent calls have no effect. If the algorithm is
+     * closed while searching, the search goes on but solutions are not published anymore.
+     */
+    @Override
+    public void close() {
+        //handlers are removed before they are run, thus each handler runs once even if the algorithm is closed concurrently
+        Runnable closeHandler;
+        while ((closeHandler = closeHandlers.poll()) != null) closeHandler.run();
+        synchronized (this) {
+            if (bestSolutionPublisher != null) bestSolutionPublisher.close();
+        }
+    }
+
 }
@@ -30,6 +30,12 @@ import java.util.Collection;
 import java.util.Random;
 
 /**
+ * Insertion noise that can be evaluated by concurrent insertion calculators.
+ * <p>
+ * <p>The noise of an insertion only depends on the iteration (whose seed is drawn from random), the vehicle and the activities
+ * involved. Thus it neither depends on the order of evaluations nor on thread scheduling, and runs with the same random seed
+ * are reproducible.
+ * <p>
  * Created by schroeder on 16/01/15.
  */
 class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, IterationStartsListener {
@@ -42,7 +48,7 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
 
     private Random random = RandomNumberGeneration.newInstance();
 
-    private final Random[] randomArray;
+    private long iterationSeed;
 
     private final double maxCosts;
 
@@ -50,23 +56,22 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
         this.noiseLevel = noiseLevel;
         this.noiseProbability = noiseProbability;
         this.maxCosts = maxCosts;
-        randomArray = new Random[vrp.activitiesCount() + 2];
-        for (int i = 0; i < randomArray.length; i++) {
-            Random r = new Random();
-            r.setSeed(random.nextLong());
-            randomArray[i] = r;
-        }
     }
 
     @Override
     public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
         makeNoise = random.nextDouble() < noiseProbability;
+        if (makeNoise) iterationSeed = random.nextLong();
     }
 
     @Override
     public double getCosts(JobInsertionContext iFacts, AbstractActivity prevAct, AbstractActivity newAct, AbstractActivity nextAct, double prevActDepTime) {
         if (makeNoise) {
-            return noiseLevel * maxCosts * randomArray[newAct.index()].nextDouble();
+            long seed = RandomNumberGeneration.split(iterationSeed, newAct.index());
+            seed = RandomNumberGeneration.split(seed, iFacts.getNewVehicle().index());
+            seed = RandomNumberGeneration.split(seed, prevAct.index());
+            seed = RandomNumberGeneration.split(seed, nextAct == null ? -1 : nextAct.index());
+            return noiseLevel * maxCosts * RandomNumberGeneration.toDouble(seed);
         }
         return 0;
     }
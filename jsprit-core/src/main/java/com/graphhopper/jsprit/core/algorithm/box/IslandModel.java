@@ -0,0 +1,257 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.box;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * Runs a number of independent algorithms (islands) in parallel and periodically migrates solutions between them.
+ * <p>
+ * <p>Each island is created by its own {@link IslandFactory} call, i.e. it has its own state manager, constraint manager,
+ * fleet manager and random number generator, and runs on its own thread. Every migrationInterval iterations the islands
+ * publish a copy of their best solution and, once all islands have reached that iteration, each island takes over the solution
+ * of its predecessor in a ring if it is better than its worst current solution. Since islands synchronize at each migration and
+ * their random number generators are derived from a single seed, a run is reproducible for a fixed seed.
+ * <p>
+ * <p>The solutions returned contain the solutions of all islands, i.e. use {@link Solutions#bestOf(Collection)} to get the global best.
+ *
+ * @author schroeder
+ */
+public class IslandModel {
+
+    /**
+     * Creates the algorithm of an island.
+     */
+    public interface IslandFactory {
+
+        VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, Random random);
+
+    }
+
+    public static class Builder {
+
+        public static Builder newInstance(VehicleRoutingProblem vrp) {
+            return new Builder(vrp);
+        }
+
+        private final VehicleRoutingProblem vrp;
+
+        private int noIslands = Runtime.getRuntime().availableProcessors();
+
+        private int migrationInterval = 100;
+
+        private int maxIterations = -1;
+
+        private Random random = RandomNumberGeneration.newInstance();
+
+        private IslandFactory islandFactory = new IslandFactory() {
+
+            @Override
+            public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, Random random) {
+                return Jsprit.Builder.newInstance(vrp).setRandom(random).buildAlgorithm();
+            }
+
+        };
+
+        private Builder(VehicleRoutingProblem vrp) {
+            this.vrp = vrp;
+        }
+
+        public Builder setNoIslands(int noIslands) {
+            if (noIslands < 1) throw new IllegalArgumentException("number of islands must be at least 1");
+            this.noIslands = noIslands;
+            return this;
+        }
+
+        /**
+         * Sets the number of iterations between two migrations.
+         *
+         * @param migrationInterval iterations between migrations
+         * @return this builder
+         */
+        public Builder setMigrationInterval(int migrationInterval) {
+            if (migrationInterval < 1) throw new IllegalArgumentException("migration interval must be at least 1");
+            this.migrationInterval = migrationInterval;
+            return this;
+        }
+
+        /**
+         * Sets the number of iterations of each island. If not set, the iterations configured by the island factory are used.
+         *
+         * @param maxIterations iterations per island
+         * @return this builder
+         */
+        public Builder setMaxIterations(int maxIterations) {
+            this.maxIterations = maxIterations;
+            return this;
+        }
+
+        /**
+         * Sets the random number generator the seeds of the islands are drawn from.
+         *
+         * @param random random number generator
+         * @return this builder
+         */
+        public Builder setRandom(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        public Builder setIslandFactory(IslandFactory islandFactory) {
+            this.islandFactory = islandFactory;
+            return this;
+        }
+
+        public IslandModel build() {
+            return new IslandModel(this);
+        }
+
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(IslandModel.class);
+
+    private final VehicleRoutingProblem vrp;
+
+    private final int noIslands;
+
+    private final int migrationInterval;
+
+    private final int maxIterations;
+
+    private final long seed;
+
+    private final IslandFactory islandFactory;
+
+    private IslandModel(Builder builder) {
+        this.vrp = builder.vrp;
+        this.noIslands = builder.noIslands;
+        this.migrationInterval = builder.migrationInterval;
+        this.maxIterations = builder.maxIterations;
+        this.seed = builder.random.nextLong();
+        this.islandFactory = builder.islandFactory;
+    }
+
+    /**
+     * Runs all islands and returns their solutions.
+     *
+     * @return solutions of all islands
+     */
+    public Collection<VehicleRoutingProblemSolution> searchSolutions() {
+        logger.info("islands start: [noIslands={}][migrationInterval={}]", noIslands, migrationInterval);
+        final Phaser migrationBarrier = new Phaser(noIslands);
+        final VehicleRoutingProblemSolution[][] migrants = new VehicleRoutingProblemSolution[2][noIslands];
+        List<VehicleRoutingAlgorithm> algorithms = new ArrayList<>(noIslands);
+        for (int island = 0; island < noIslands; island++) {
+            VehicleRoutingAlgorithm algorithm = islandFactory.createAlgorithm(vrp, new Random(RandomNumberGeneration.split(seed, island)));
+            if (maxIterations > 0) algorithm.setMaxIterations(maxIterations);
+            algorithm.addListener(new Migration(island, migrationBarrier, migrants));
+            algorithms.add(algorithm);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(noIslands);
+        try {
+            List<Future<Collection<VehicleRoutingProblemSolution>>> futures = new ArrayList<>(noIslands);
+            for (final VehicleRoutingAlgorithm algorithm : algorithms) {
+                futures.add(executor.submit(new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+                    @Override
+                    public Collection<VehicleRoutingProblemSolution> call() {
+                        try {
+                            return algorithm.searchSolutions();
+                        } finally {
+                            migrationBarrier.arriveAndDeregister();
+                        }
+                    }
+
+                }));
+            }
+            Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<>();
+            for (Future<Collection<VehicleRoutingProblemSolution>> future : futures) {
+                solutions.addAll(future.get());
+            }
+            logger.info("islands end: [bestCost={}]", Solutions.bestOf(solutions).cost());
+            return solutions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            for (VehicleRoutingAlgorithm algorithm : algorithms) algorithm.close();
+        }
+    }
+
+    /**
+     * Exchanges solutions with the neighbouring islands. Migrants are written to alternating slots so that a fast island cannot
+     * overwrite a migrant before its slower neighbour has read it.
+     */
+    private class Migration implements IterationEndsListener {
+
+        private final int island;
+
+        private final Phaser migrationBarrier;
+
+        private final VehicleRoutingProblemSolution[][] migrants;
+
+        private int migrations;
+
+        Migration(int island, Phaser migrationBarrier, VehicleRoutingProblemSolution[][] migrants) {
+            this.island = island;
+            this.migrationBarrier = migrationBarrier;
+            this.migrants = migrants;
+        }
+
+        @Override
+        public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (noIslands < 2 || i % migrationInterval != 0 || solutions.isEmpty()) return;
+            VehicleRoutingProblemSolution[] slots = migrants[migrations++ % 2];
+            slots[island] = VehicleRoutingProblemSolution.copyOf(Solutions.bestOf(solutions));
+            migrationBarrier.arriveAndAwaitAdvance();
+            VehicleRoutingProblemSolution migrant = slots[(island + noIslands - 1) % noIslands];
+            if (migrant == null) return;
+            VehicleRoutingProblemSolution worst = worstOf(solutions);
+            if (migrant.cost() < worst.cost()) {
+                solutions.remove(worst);
+                solutions.add(VehicleRoutingProblemSolution.copyOf(migrant));
+            }
+        }
+
+        private VehicleRoutingProblemSolution worstOf(Collection<VehicleRoutingProblemSolution> solutions) {
+            VehicleRoutingProblemSolution worst = null;
+            for (VehicleRoutingProblemSolution s : solutions) {
+                if (worst == null || s.cost() > worst.cost()) worst = s;
+            }
+            return worst;
+        }
+
+    }
+
+}
@@ -36,6 +36,7 @@ import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
@@ -43,19 +44,52 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.BreakActivity
 import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
 import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
 import com.graphhopper.jsprit.core.util.NoiseMaker;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class Jsprit {
 
+    private static final Logger logger = LoggerFactory.getLogger(Jsprit.class);
+
     private final ActivityInsertionCostsCalculator activityInsertion;
 
+    /**
+     * Determines the executor service that is set up if the algorithm runs concurrently, i.e. if THREADS is larger than 1, and no
+     * executor service is set explicitly (see Builder.setExecutorService(...), whose executor service is never shut down by the
+     * algorithm).
+     */
+    public enum ExecutorStrategy {
+
+        /**
+         * A fixed thread pool with THREADS threads is created per algorithm. It is shut down when the algorithm ends or
+         * is closed.
+         */
+        FIXED_THREAD_POOL,
+
+        /**
+         * The common ForkJoinPool is shared by all algorithms, thus no threads are created per algorithm.
+         */
+        COMMON_POOL,
+
+        /**
+         * A new virtual thread is started per task. Requires a JVM that supports virtual threads, otherwise the common
+         * ForkJoinPool is used.
+         */
+        VIRTUAL_THREADS
+
+    }
+
     public enum Construction {
 
         BEST_INSERTION("best_insertion"), REGRET_INSERTION("regret_insertion");
@@ -83,7 +117,8 @@ public class Jsprit {
         CLUSTER_BEST("cluster_best"),
         CLUSTER_REGRET("cluster_regret"),
         STRING_BEST("string_best"),
-        STRING_REGRET("string_regret");
+        STRING_REGRET("string_regret"),
+        STRING_BLINK("string_blink");
 
         final String strategyName;
 
@@ -125,7 +160,19 @@ public class Jsprit {
         STRING_K_MIN("string_kmin"),
         STRING_K_MAX("string_kmax"),
         STRING_L_MIN("string_lmin"),
-        STRING_L_MAX("string_lmax");
+        STRING_L_MAX("string_lmax"),
+        STRING_BLINK_RATE("string_blink_rate"),
+        VEHICLE_CLASSES("vehicle_classes"),
+        LOWER_BOUND_PRUNING("lower_bound_pruning"),
+        SPECULATIVE_INSERTION("speculative_insertion"),
+        SPECULATIVE_STRATEGIES("speculative_strategies"),
+        NEIGHBORHOOD_SIZE("neighborhood_size"),
+        SPATIAL_NEIGHBORHOODS_MIN_JOBS("spatial_neighborhoods_min_jobs"),
+        SPATIAL_NEIGHBORHOODS_FOR_SHIPMENTS("spatial_neighborhoods_for_shipments"),
+        LAZY_NEIGHBORHOODS("lazy_neighborhoods"),
+        MAX_CACHED_NEIGHBORS("max_cached_neighbors"),
+        ADAPTIVE_RUIN_SHARE("ruin.adaptive"),
+        RUIN_MAX_JOBS("ruin.max_jobs");
 
 
         final String paraName;
@@ -152,6 +199,8 @@ public class Jsprit {
 
         private Integer noThreads;
 
+        private ExecutorStrategy executorStrategy = ExecutorStrategy.FIXED_THREAD_POOL;
+
         private StateManager stateManager;
 
         private ConstraintManager constraintManager;
@@ -175,15 +224,26 @@ public class Jsprit {
         private VehicleFleetManager fleetManager;
 
         public static Builder newInstance(VehicleRoutingProblem vrp) {
-            return new Builder(vrp);
+            return new Builder(vrp, createDefaultProperties(vrp.jobs().size()));
+        }
+
+        /**
+         * Creates a builder whose properties fall back to defaults, i.e. defaults are shared and not modified. They need to be created
+         * by {@link #createDefaultProperties(int)} for the number of jobs of vrp.
+         */
+        static Builder newInstance(VehicleRoutingProblem vrp, Properties defaults) {
+            return new Builder(vrp, defaults);
         }
 
-        private Builder(VehicleRoutingProblem vrp) {
+        private Builder(VehicleRoutingProblem vrp, Properties defaults) {
             this.vrp = vrp;
-            properties = new Properties(createDefaultProperties());
+            properties = new Properties(defaults);
         }
 
-        private Properties createDefaultProperties() {
+        /**
+         * Returns the default properties of problems with noJobs jobs.
+         */
+        static Properties createDefaultProperties(int noJobs) {
             Properties defaults = new Properties();
             defaults.setProperty(Strategy.RADIAL_BEST.toString(), "0.");
             defaults.setProperty(Strategy.RADIAL_REGRET.toString(), ".5");
@@ -192,11 +252,13 @@ public class Jsprit {
 
             defaults.setProperty(Strategy.STRING_BEST.toString(), "0.0");
             defaults.setProperty(Strategy.STRING_REGRET.toString(), "0.0");
+            defaults.setProperty(Strategy.STRING_BLINK.toString(), "0.0");
 
             defaults.setProperty(Parameter.STRING_K_MIN.toString(), "1");
             defaults.setProperty(Parameter.STRING_K_MAX.toString(), "6");
             defaults.setProperty(Parameter.STRING_L_MIN.toString(), "10");
             defaults.setProperty(Parameter.STRING_L_MAX.toString(), "30");
+            defaults.setProperty(Parameter.STRING_BLINK_RATE.toString(), "0.01");
 
             defaults.setProperty(Strategy.WORST_BEST.toString(), "0.");
             defaults.setProperty(Strategy.WORST_REGRET.toString(), "1.");
@@ -210,16 +272,23 @@ public class Jsprit {
             defaults.setProperty(Parameter.REGRET_DISTANCE_SCORER.toString(), ".05");
             defaults.setProperty(Parameter.REGRET_TIME_WINDOW_SCORER.toString(), "-.1");
             defaults.setProperty(Parameter.THREADS.toString(), "1");
-            int minShare = (int) Math.min(20, Math.max(3, vrp.jobs().size() * 0.05));
-            int maxShare = (int) Math.min(50, Math.max(5, vrp.jobs().size() * 0.3));
+            defaults.setProperty(Parameter.SPECULATIVE_STRATEGIES.toString(), "1");
+            defaults.setProperty(Parameter.SPATIAL_NEIGHBORHOODS_MIN_JOBS.toString(), "5000");
+            defaults.setProperty(Parameter.SPATIAL_NEIGHBORHOODS_FOR_SHIPMENTS.toString(), String.valueOf(false));
+            defaults.setProperty(Parameter.LAZY_NEIGHBORHOODS.toString(), String.valueOf(false));
+            defaults.setProperty(Parameter.MAX_CACHED_NEIGHBORS.toString(), "10000000");
+            defaults.setProperty(Parameter.ADAPTIVE_RUIN_SHARE.toString(), String.valueOf(false));
+            defaults.setProperty(Parameter.RUIN_MAX_JOBS.toString(), "100");
+            int minShare = (int) Math.min(20, Math.max(3, noJobs * 0.05));
+            int maxShare = (int) Math.min(50, Math.max(5, noJobs * 0.3));
             defaults.setProperty(Parameter.RADIAL_MIN_SHARE.toString(), String.valueOf(minShare));
             defaults.setProperty(Parameter.RADIAL_MAX_SHARE.toString(), String.valueOf(maxShare));
             defaults.setProperty(Parameter.WORST_MIN_SHARE.toString(), String.valueOf(minShare));
             defaults.setProperty(Parameter.WORST_MAX_SHARE.toString(), String.valueOf(maxShare));
             defaults.setProperty(Parameter.CLUSTER_MIN_SHARE.toString(), String.valueOf(minShare));
             defaults.setProperty(Parameter.CLUSTER_MAX_SHARE.toString(), String.valueOf(maxShare));
-            int minShare_ = (int) Math.min(70, Math.max(5, vrp.jobs().size() * 0.5));
-            int maxShare_ = (int) Math.min(70, Math.max(5, vrp.jobs().size() * 0.5));
+            int minShare_ = (int) Math.min(70, Math.max(5, noJobs * 0.5));
+            int maxShare_ = (int) Math.min(70, Math.max(5, noJobs * 0.5));
             defaults.setProperty(Parameter.RANDOM_REGRET_MIN_SHARE.toString(), String.valueOf(minShare_));
             defaults.setProperty(Parameter.RANDOM_REGRET_MAX_SHARE.toString(), String.valueOf(maxShare_));
             defaults.setProperty(Parameter.RANDOM_BEST_MIN_SHARE.toString(), String.valueOf(minShare_));
@@ -232,6 +301,9 @@ public class Jsprit {
             defaults.setProperty(Parameter.RUIN_WORST_NOISE_PROB.toString(), String.valueOf(0.2));
             defaults.setProperty(Parameter.VEHICLE_SWITCH.toString(), String.valueOf(true));
             defaults.setProperty(Parameter.FAST_REGRET.toString(), String.valueOf(false));
+            defaults.setProperty(Parameter.VEHICLE_CLASSES.toString(), String.valueOf(false));
+            defaults.setProperty(Parameter.LOWER_BOUND_PRUNING.toString(), String.valueOf(false));
+            defaults.setProperty(Parameter.SPECULATIVE_INSERTION.toString(), String.valueOf(false));
             defaults.setProperty(Parameter.BREAK_SCHEDULING.toString(), String.valueOf(true));
             defaults.setProperty(Parameter.CONSTRUCTION.toString(), Construction.REGRET_INSERTION.toString());
             return defaults;
@@ -254,6 +326,18 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Sets the strategy to set up an executor service if the algorithm runs concurrently. Default is
+         * ExecutorStrategy.FIXED_THREAD_POOL. It has no effect if an executor service is set explicitly.
+         *
+         * @param executorStrategy the executor strategy
+         * @return this builder
+         */
+        public Builder setExecutorStrategy(ExecutorStrategy executorStrategy) {
+            this.executorStrategy = executorStrategy;
+            return this;
+        }
+
         public Builder setCustomAcceptor(SolutionAcceptor acceptor){
             this.solutionAcceptor = acceptor;
             return this;
@@ -285,6 +369,13 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Sets the objective function. If strategies run speculatively (see Parameter.SPECULATIVE_STRATEGIES), it is shared by all
+         * strategies and called from several threads at the same time, i.e. it must be thread-safe.
+         *
+         * @param objectiveFunction the objective function
+         * @return this builder
+         */
         public Builder setObjectiveFunction(SolutionCostCalculator objectiveFunction) {
             this.objectiveFunction = objectiveFunction;
             return this;
@@ -355,6 +446,8 @@ public class Jsprit {
 
     private Integer noThreads;
 
+    private final ExecutorStrategy executorStrategy;
+
     private boolean setupExecutorInternally;
 
     private final boolean addCoreConstraints;
@@ -373,11 +466,14 @@ public class Jsprit {
 
     private VehicleFleetManager vehicleFleetManager;
 
+    private JobNeighborhoods jobNeighborhoods;
+
     private Jsprit(Builder builder) {
         this.stateManager = builder.stateManager;
         this.constraintManager = builder.constraintManager;
         this.es = builder.es;
         this.noThreads = builder.noThreads;
+        this.executorStrategy = builder.executorStrategy;
         this.addCoreConstraints = builder.addConstraints;
         this.properties = builder.properties;
         this.objectiveFunction = builder.objectiveFunction;
@@ -389,12 +485,35 @@ public class Jsprit {
         vehicleFleetManager = builder.fleetManager;
     }
 
+    /**
+     * Creates a copy of the specified configuration that sets up its own state manager, constraint manager and fleet manager
+     * and runs single-threaded. It is used to run strategies speculatively.
+     */
+    private Jsprit(Jsprit jsprit, Random random) {
+        this.executorStrategy = ExecutorStrategy.FIXED_THREAD_POOL;
+        this.noThreads = 1;
+        this.addCoreConstraints = jsprit.addCoreConstraints;
+        this.properties = new Properties();
+        for (String key : jsprit.properties.stringPropertyNames()) {
+            properties.setProperty(key, jsprit.properties.getProperty(key));
+        }
+        properties.setProperty(Parameter.SPECULATIVE_STRATEGIES.toString(), "1");
+        this.objectiveFunction = jsprit.objectiveFunction;
+        this.random = random;
+        this.activityInsertion = null;
+        this.regretScorer = jsprit.regretScorer;
+        this.jobNeighborhoods = jsprit.jobNeighborhoods;
+    }
+
     private void ini(VehicleRoutingProblem vrp) {
         if (regretScorer == null) regretScorer = getRegretScorer(vrp);
     }
 
     private VehicleRoutingAlgorithm create(final VehicleRoutingProblem vrp) {
         ini(vrp);
+        //custom components are bound to the state of a single algorithm, thus they cannot run speculatively
+        boolean speculativeSearchPossible = stateManager == null && constraintManager == null && vehicleFleetManager == null
+            && customStrategies.isEmpty() && activityInsertion == null;
         if (vehicleFleetManager == null) {
             if (vrp.getFleetSize() == VehicleRoutingProblem.FleetSize.INFINITE) {
                 vehicleFleetManager = new InfiniteFleetManagerFactory(vrp.vehicles()).createFleetManager();
@@ -415,11 +534,9 @@ public class Jsprit {
         if (noThreads == null) {
             noThreads = toInteger(getProperty(Parameter.THREADS.toString()));
         }
-        if (noThreads > 1) {
-            if (es == null) {
-                setupExecutorInternally = true;
-                es = Executors.newFixedThreadPool(noThreads);
-            }
+        if (es == null && noThreads > 1) {
+            es = createExecutor(noThreads);
+            setupExecutorInternally = es != ForkJoinPool.commonPool();
         }
 
         double fixedCostParam = toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString()));
@@ -433,8 +550,21 @@ public class Jsprit {
         double noiseLevel = toDouble(getProperty(Parameter.INSERTION_NOISE_LEVEL.toString()));
         double noiseProbability = toDouble(getProperty(Parameter.INSERTION_NOISE_PROB.toString()));
 
-        JobNeighborhoods jobNeighborhoods = JobNeighborhoodsFactory.createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.transportCosts()), (int) (vrp.jobs().values().size() * 0.5));
-        jobNeighborhoods.initialise();
+        if (jobNeighborhoods == null) {
+            AvgServiceAndShipmentDistance jobDistance = new AvgServiceAndShipmentDistance(vrp);
+            //spatial neighborhoods rank jobs by euclidean distance, thus they are only used if transport costs are euclidean as well.
+            //shipments are represented by the midpoint of pickup and delivery, i.e. their neighborhoods are approximate (opt-in)
+            if (vrp.transportCosts() instanceof EuclideanCosts
+                && vrp.jobs().size() >= toInteger(getProperty(Parameter.SPATIAL_NEIGHBORHOODS_MIN_JOBS.toString()))
+                && (!hasShipments(vrp) || toBoolean(getProperty(Parameter.SPATIAL_NEIGHBORHOODS_FOR_SHIPMENTS.toString()))))
+                jobNeighborhoods = JobNeighborhoodsFactory.createSpatialNeighborhoods(vrp, jobDistance, getNeighborhoodSize(vrp));
+            else if (toBoolean(getProperty(Parameter.LAZY_NEIGHBORHOODS.toString())))
+                jobNeighborhoods = JobNeighborhoodsFactory.createLazyNeighborhoods(vrp, jobDistance, getNeighborhoodSize(vrp),
+                    Long.parseLong(getProperty(Parameter.MAX_CACHED_NEIGHBORS.toString())));
+            else
+                jobNeighborhoods = JobNeighborhoodsFactory.createNeighborhoods(vrp, jobDistance, getNeighborhoodSize(vrp), es);
+            jobNeighborhoods.initialise();
+        }
 
         final double maxCosts;
         maxCosts = properties.containsKey(Parameter.MAX_TRANSPORT_COSTS.toString()) ? Double.parseDouble(getProperty(Parameter.MAX_TRANSPORT_COSTS.toString())) : jobNeighborhoods.getMaxDistance();
@@ -452,37 +582,22 @@ public class Jsprit {
             noiseConfigurator = noiseMaker;
         }
 
+        final List<AdaptiveRuinShareFactory> adaptiveRuinShareFactories = new ArrayList<>();
         RuinRadial radial = new RuinRadial(vrp, vrp.jobs().size(), jobNeighborhoods);
         radial.setRandom(random);
-        radial.setRuinShareFactory(new RuinShareFactoryImpl(
-                toInteger(properties.getProperty(Parameter.RADIAL_MIN_SHARE.toString())),
-                toInteger(properties.getProperty(Parameter.RADIAL_MAX_SHARE.toString())),
-                random)
-        );
+        radial.setRuinShareFactory(createRuinShareFactory(Parameter.RADIAL_MIN_SHARE, Parameter.RADIAL_MAX_SHARE, random, adaptiveRuinShareFactories));
 
         final RuinRandom random_for_regret = new RuinRandom(vrp, 0.5);
         random_for_regret.setRandom(random);
-        random_for_regret.setRuinShareFactory(new RuinShareFactoryImpl(
-                toInteger(properties.getProperty(Parameter.RANDOM_REGRET_MIN_SHARE.toString())),
-                toInteger(properties.getProperty(Parameter.RANDOM_REGRET_MAX_SHARE.toString())),
-                random)
-        );
+        random_for_regret.setRuinShareFactory(createRuinShareFactory(Parameter.RANDOM_REGRET_MIN_SHARE, Parameter.RANDOM_REGRET_MAX_SHARE, random, adaptiveRuinShareFactories));
 
         final RuinRandom random_for_best = new RuinRandom(vrp, 0.5);
         random_for_best.setRandom(random);
-        random_for_best.setRuinShareFactory(new RuinShareFactoryImpl(
-                toInteger(properties.getProperty(Parameter.RANDOM_BEST_MIN_SHARE.toString())),
-                toInteger(properties.getProperty(Parameter.RANDOM_BEST_MAX_SHARE.toString())),
-                random)
-        );
+        random_for_best.setRuinShareFactory(createRuinShareFactory(Parameter.RANDOM_BEST_MIN_SHARE, Parameter.RANDOM_BEST_MAX_SHARE, random, adaptiveRuinShareFactories));
 
         final RuinWorst worst = new RuinWorst(vrp, (int) (vrp.jobs().values().size() * 0.5));
         worst.setRandom(random);
-        worst.setRuinShareFactory(new RuinShareFactoryImpl(
-                toInteger(properties.getProperty(Parameter.WORST_MIN_SHARE.toString())),
-                toInteger(properties.getProperty(Parameter.WORST_MAX_SHARE.toString())),
-                random)
-        );
+        worst.setRuinShareFactory(createRuinShareFactory(Parameter.WORST_MIN_SHARE, Parameter.WORST_MAX_SHARE, random, adaptiveRuinShareFactories));
         IterationStartsListener noise = (i, problem, solutions) -> worst.setNoiseMaker(() -> {
             if (random.nextDouble() < toDouble(getProperty(Parameter.RUIN_WORST_NOISE_PROB.toString()))) {
                 return toDouble(getProperty(Parameter.RUIN_WORST_NOISE_LEVEL.toString()))
@@ -492,11 +607,7 @@ public class Jsprit {
 
         final RuinClusters clusters = new RuinClusters(vrp, (int) (vrp.jobs().values().size() * 0.5), jobNeighborhoods);
         clusters.setRandom(random);
-        clusters.setRuinShareFactory(new RuinShareFactoryImpl(
-                toInteger(properties.getProperty(Parameter.WORST_MIN_SHARE.toString())),
-                toInteger(properties.getProperty(Parameter.WORST_MAX_SHARE.toString())),
-                random)
-        );
+        clusters.setRuinShareFactory(createRuinShareFactory(Parameter.WORST_MIN_SHARE, Parameter.WORST_MAX_SHARE, random, adaptiveRuinShareFactories));
 
         int kMin = toInteger(properties.getProperty(Parameter.STRING_K_MIN.toString()));
         int kMax = toInteger(properties.getProperty(Parameter.STRING_K_MAX.toString()));
@@ -508,18 +619,41 @@ public class Jsprit {
         stringRuin.setStringLength(lMin, lMax);
         stringRuin.setRandom(random);
 
+        final RuinStringFast stringRuinFast = new RuinStringFast(vrp, jobNeighborhoods);
+        stringRuinFast.setNoRoutes(kMin, kMax);
+        stringRuinFast.setStringLength(lMin, lMax);
+        stringRuinFast.setRandom(random);
+
         AbstractInsertionStrategy regret;
         final ScoringFunction scorer;
 
         boolean fastRegret = Boolean.parseBoolean(getProperty(Parameter.FAST_REGRET.toString()));
         if (es != null) {
-            if(fastRegret){
+            if (fastRegret && es instanceof ForkJoinPool) {
+                RegretInsertionForkJoin regretInsertion = (RegretInsertionForkJoin) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
+                    .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+                    .setConcurrentMode(es, noThreads)
+                    .setFastRegret(true)
+                    .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
+                    .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                    .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                    .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
+                    .setActivityInsertionCostCalculator(activityInsertion)
+                    .build();
+                scorer = regretScorer;
+                regretInsertion.setScoringFunction(scorer);
+                regretInsertion.setDependencyTypes(constraintManager.getDependencyTypes());
+                regret = regretInsertion;
+            }
+            else if(fastRegret){
                 RegretInsertionConcurrentFast regretInsertion = (RegretInsertionConcurrentFast) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
                     .setConcurrentMode(es, noThreads)
                     .setFastRegret(true)
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                    .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                    .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
                     .build();
                 scorer = regretScorer;
@@ -533,10 +667,13 @@ public class Jsprit {
                     .setConcurrentMode(es, noThreads)
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                    .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                    .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
                     .build();
                 scorer = regretScorer;
                 regretInsertion.setScoringFunction(scorer);
+                regretInsertion.setDependencyTypes(constraintManager.getDependencyTypes());
                 regret = regretInsertion;
             }
         } else {
@@ -545,6 +682,8 @@ public class Jsprit {
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
                     .setFastRegret(true)
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                    .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                    .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
                     .build();
@@ -557,6 +696,8 @@ public class Jsprit {
                 RegretInsertion regretInsertion = (RegretInsertion) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                    .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                    .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
                     .build();
@@ -568,11 +709,17 @@ public class Jsprit {
         regret.setRandom(random);
 
         AbstractInsertionStrategy best;
-        if (vrp.jobs().size() < 250 || es == null) {
+        boolean fewJobs = vrp.jobs().size() < 250;
+        boolean speculativeInsertion = toBoolean(getProperty(Parameter.SPECULATIVE_INSERTION.toString()));
+        //with few jobs (and thus few routes), route batches are too small to pay off, i.e. jobs are only evaluated concurrently if
+        //speculative insertion is switched on
+        if (es == null || (fewJobs && !speculativeInsertion)) {
             BestInsertion bestInsertion = (BestInsertion) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                 .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
                 .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
                 .setActivityInsertionCostCalculator(activityInsertion)
                 .build();
             best = bestInsertion;
@@ -581,13 +728,29 @@ public class Jsprit {
                 .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
                 .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+                .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
                 .setConcurrentMode(es, noThreads)
+                .setSpeculativeJobs(fewJobs ? noThreads : 0)
                 .setActivityInsertionCostCalculator(activityInsertion)
                 .build();
+            bestInsertion.setDependencyTypes(constraintManager.getDependencyTypes());
             best = bestInsertion;
         }
         best.setRandom(random);
 
+        //blinks are drawn sequentially, thus blink insertion does not run concurrently
+        BlinkInsertion blink = (BlinkInsertion) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(InsertionBuilder.Strategy.BLINK)
+            .setBlinkRate(toDouble(getProperty(Parameter.STRING_BLINK_RATE.toString())))
+            .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
+            .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+            .setVehicleClasses(toBoolean(getProperty(Parameter.VEHICLE_CLASSES.toString())))
+            .setLowerBoundPruning(toBoolean(getProperty(Parameter.LOWER_BOUND_PRUNING.toString())))
+            .setActivityInsertionCostCalculator(activityInsertion)
+            .build();
+        blink.setRandom(random);
+
         IterationStartsListener schrimpfThreshold = null;
         if(acceptor == null) {
             final SchrimpfAcceptance schrimpfAcceptance = new SchrimpfAcceptance(1, toDouble(getProperty(Parameter.THRESHOLD_ALPHA.toString())));
@@ -635,6 +798,9 @@ public class Jsprit {
         SearchStrategy stringBest = new SearchStrategy(Strategy.STRING_BEST.toString(), new SelectBest(), acceptor, objectiveFunction);
         stringBest.addModule(new RuinAndRecreateModule(Strategy.STRING_BEST.toString(), best, stringRuin));
 
+        SearchStrategy stringBlink = new SearchStrategy(Strategy.STRING_BLINK.toString(), new SelectBest(), acceptor, objectiveFunction);
+        stringBlink.addModule(new RuinAndRecreateModule(Strategy.STRING_BLINK.toString(), blink, stringRuinFast));
+
         PrettyAlgorithmBuilder prettyBuilder = PrettyAlgorithmBuilder.newInstance(vrp, vehicleFleetManager, stateManager, constraintManager);
         prettyBuilder.setRandom(random);
         if (addCoreConstraints) {
@@ -649,7 +815,8 @@ public class Jsprit {
             .withStrategy(clusters_regret, toDouble(getProperty(Strategy.CLUSTER_REGRET.toString())))
             .withStrategy(clusters_best, toDouble(getProperty(Strategy.CLUSTER_BEST.toString())))
             .withStrategy(stringBest, toDouble(getProperty(Strategy.STRING_BEST.toString())))
-            .withStrategy(stringRegret, toDouble(getProperty(Strategy.STRING_REGRET.toString())));
+            .withStrategy(stringRegret, toDouble(getProperty(Strategy.STRING_REGRET.toString())))
+            .withStrategy(stringBlink, toDouble(getProperty(Strategy.STRING_BLINK.toString())));
 
         for (Map.Entry<SearchStrategy, Double> searchStrategyDoubleEntry : customStrategies.entrySet()) {
             prettyBuilder.withStrategy(searchStrategyDoubleEntry.getKey(), searchStrategyDoubleEntry.getValue());
@@ -670,11 +837,23 @@ public class Jsprit {
         vra.addListener(noiseConfigurator);
         vra.addListener(noise);
         vra.addListener(clusters);
+        for (AdaptiveRuinShareFactory adaptiveRuinShareFactory : adaptiveRuinShareFactories) vra.addListener(adaptiveRuinShareFactory);
         if (increasingAbsoluteFixedCosts != null) vra.addListener(increasingAbsoluteFixedCosts);
+        if (jobNeighborhoods instanceof JobNeighborhoodsLazy) {
+            final JobNeighborhoodsLazy lazyNeighborhoods = (JobNeighborhoodsLazy) jobNeighborhoods;
+            vra.addListener((AlgorithmEndsListener) (problem, solutions) ->
+                logger.debug("neighborhood cache: [hits={}][misses={}]", lazyNeighborhoods.hits(), lazyNeighborhoods.misses()));
+        }
 
         if(toBoolean(getProperty(Parameter.BREAK_SCHEDULING.toString()))) {
             vra.addListener(new BreakScheduling(vrp, stateManager, constraintManager));
         }
+        int noSpeculativeStrategies = toInteger(getProperty(Parameter.SPECULATIVE_STRATEGIES.toString()));
+        if (noSpeculativeStrategies > 1) {
+            if (speculativeSearchPossible) setupSpeculativeSearch(vra, vrp, noSpeculativeStrategies);
+            else logger.warn("strategies cannot run speculatively with a custom state manager, constraint manager, fleet manager, " +
+                "activity insertion calculator or custom strategies. run one strategy per iteration instead.");
+        }
         handleExecutorShutdown(vra);
         vra.setMaxIterations(Integer.valueOf(properties.getProperty(Parameter.ITERATIONS.toString())));
 
@@ -682,6 +861,41 @@ public class Jsprit {
 
     }
 
+    private static boolean hasShipments(VehicleRoutingProblem vrp) {
+        for (Job job : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
+            if (job instanceof Shipment) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of neighbors stored per job. By default, this is half the number of jobs, but not more than the ruin
+     * strategies request, i.e. the max. share of radial and cluster ruin and the max. number of jobs string ruin looks at.
+     */
+    private int getNeighborhoodSize(VehicleRoutingProblem vrp) {
+        String neighborhoodSize = getProperty(Parameter.NEIGHBORHOOD_SIZE.toString());
+        if (neighborhoodSize != null) return toInteger(neighborhoodSize);
+        int requested = Math.max(toInteger(getProperty(Parameter.RADIAL_MAX_SHARE.toString())), toInteger(getProperty(Parameter.WORST_MAX_SHARE.toString())));
+        requested = Math.max(requested, toInteger(getProperty(Parameter.CLUSTER_MAX_SHARE.toString())));
+        requested = Math.max(requested, toInteger(getProperty(Parameter.STRING_K_MAX.toString())) * toInteger(getProperty(Parameter.STRING_L_MAX.toString())));
+        return Math.min((int) (vrp.jobs().values().size() * 0.5), requested);
+    }
+
+    /**
+     * Returns a factory drawing the number of jobs to be removed between the specified shares. If adaptive ruin shares are switched
+     * on, the factory adapts this number to the progress of the search and is added to adaptiveFactories, since it needs to be
+     * registered as listener of the algorithm.
+     */
+    private RuinShareFactory createRuinShareFactory(Parameter minShare, Parameter maxShare, Random random, List<AdaptiveRuinShareFactory> adaptiveFactories) {
+        int min = toInteger(properties.getProperty(minShare.toString()));
+        int max = toInteger(properties.getProperty(maxShare.toString()));
+        if (!toBoolean(getProperty(Parameter.ADAPTIVE_RUIN_SHARE.toString()))) return new RuinShareFactoryImpl(min, max, random);
+        AdaptiveRuinShareFactory adaptive = new AdaptiveRuinShareFactory(min, max, random);
+        adaptive.setMaxJobs(toInteger(getProperty(Parameter.RUIN_MAX_JOBS.toString())));
+        adaptiveFactories.add(adaptive);
+        return adaptive;
+    }
+
     private ScoringFunction getRegretScorer(VehicleRoutingProblem vrp) {
         DefaultScorer scorer = new DefaultScorer(vrp);
         scorer.setTimeWindowParam(Double.valueOf(properties.getProperty(Parameter.REGRET_TIME_WINDOW_SCORER.toString())));
@@ -690,19 +904,50 @@ public class Jsprit {
     }
 
 
+    /**
+     * Creates an executor according to the executor strategy. Unless it is the common ForkJoinPool, it needs to be shut down by the
+     * algorithm.
+     */
+    private ExecutorService createExecutor(int noThreads) {
+        switch (executorStrategy) {
+            case COMMON_POOL:
+                return ForkJoinPool.commonPool();
+            case VIRTUAL_THREADS:
+                try {
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    logger.warn("virtual threads are not supported by this jvm. use common ForkJoinPool instead.", e);
+                    return ForkJoinPool.commonPool();
+                }
+            default:
+                return Executors.newFixedThreadPool(noThreads);
+        }
+    }
+
+    /**
+     * Sets up the speculative algorithms. Their strategies run on the executor of this algorithm or, if it runs single-threaded, on an
+     * executor with one thread per speculative algorithm that is set up according to the executor strategy.
+     */
+    private void setupSpeculativeSearch(VehicleRoutingAlgorithm vra, VehicleRoutingProblem vrp, int noSpeculativeStrategies) {
+        long seed = random.nextLong();
+        List<VehicleRoutingAlgorithm> speculativeAlgorithms = new ArrayList<>(noSpeculativeStrategies - 1);
+        for (int i = 1; i < noSpeculativeStrategies; i++) {
+            speculativeAlgorithms.add(new Jsprit(this, new Random(RandomNumberGeneration.split(seed, i))).create(vrp));
+        }
+        ExecutorService speculativeExecutor = es;
+        if (speculativeExecutor == null) {
+            speculativeExecutor = createExecutor(noSpeculativeStrategies - 1);
+            if (speculativeExecutor != ForkJoinPool.commonPool()) {
+                shutdownWithAlgorithm(vra, speculativeExecutor, executorStrategy != ExecutorStrategy.VIRTUAL_THREADS);
+            }
+        }
+        vra.setSpeculativeSearch(speculativeExecutor, speculativeAlgorithms);
+    }
+
     private void handleExecutorShutdown(VehicleRoutingAlgorithm vra) {
         if (setupExecutorInternally) {
-            final Thread hook = new Thread(() -> {
-                if (!es.isShutdown()) {
-                    System.err.println("shutdownHook shuts down executorService");
-                    es.shutdown();
-                }
-            });
-            Runtime.getRuntime().addShutdownHook(hook);
-            vra.addListener((AlgorithmEndsListener) (problem, solutions) -> {
-                es.shutdown();
-                Runtime.getRuntime().removeShutdownHook(hook);
-            });
+            //virtual threads do not prevent the jvm from exiting
+            shutdownWithAlgorithm(vra, es, executorStrategy != ExecutorStrategy.VIRTUAL_THREADS);
         }
 //        if (es != null) {
 //
@@ -717,6 +962,24 @@ public class Jsprit {
 //        }
     }
 
+    private static void shutdownWithAlgorithm(VehicleRoutingAlgorithm vra, final ExecutorService executor, boolean addShutdownHook) {
+        final AtomicBoolean shutdown = new AtomicBoolean();
+        final Thread hook = addShutdownHook ? new Thread(() -> {
+            if (!executor.isShutdown()) {
+                logger.debug("shutdownHook shuts down executorService");
+                executor.shutdown();
+            }
+        }) : null;
+        if (hook != null) Runtime.getRuntime().addShutdownHook(hook);
+        Runnable shutdownExecutor = () -> {
+            if (shutdown.getAndSet(true)) return;
+            executor.shutdown();
+            if (hook != null) Runtime.getRuntime().removeShutdownHook(hook);
+        };
+        vra.addListener((AlgorithmEndsListener) (problem, solutions) -> shutdownExecutor.run());
+        vra.addCloseHandler(shutdownExecutor);
+    }
+
     String getProperty(String key) {
         return properties.getProperty(key);
     }
@@ -20,13 +20,11 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
-import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Collection;
 
 /**
  * Created by schroeder on 06/02/17.
@@ -45,53 +43,7 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
     }
 
     static ConstraintsStatus fulfilled(JobInsertionContext iFacts, AbstractActivity prevAct, AbstractActivity newAct, AbstractActivity nextAct, double prevActDepTime, Collection<String> failedActivityConstraints, ConstraintManager constraintManager) {
-
-        ConstraintsStatus notFulfilled = null;
-
-        Set<Class> failed = new HashSet<>();
-
-        for (HardActivityConstraint c : constraintManager.getCriticalHardActivityConstraints()) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status == ConstraintsStatus.NOT_FULFILLED_BREAK) {
-                failedActivityConstraints.add(c.getClass().getSimpleName());
-                return status;
-            } else {
-                if (status == ConstraintsStatus.NOT_FULFILLED) {
-                    failed.add(c.getClass());
-                    notFulfilled = status;
-                }
-            }
-        }
-
-        if (notFulfilled == null) {
-            for (HardActivityConstraint c : constraintManager.getHighPrioHardActivityConstraints()) {
-                ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-                if (status == ConstraintsStatus.NOT_FULFILLED_BREAK) {
-                    failedActivityConstraints.add(c.getClass().getSimpleName());
-                    return status;
-                } else {
-                    if (status == ConstraintsStatus.NOT_FULFILLED) {
-                        failed.add(c.getClass());
-                        notFulfilled = status;
-                    }
-                }
-            }
-        }
-
-        if (notFulfilled != null) {
-            failed.stream().map(Class::getSimpleName).collect(Collectors.toCollection(()->failedActivityConstraints));
-            return notFulfilled;
-        }
-
-        for (HardActivityConstraint constraint : constraintManager.getLowPrioHardActivityConstraints()) {
-            ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status == ConstraintsStatus.NOT_FULFILLED_BREAK || status == ConstraintsStatus.NOT_FULFILLED) {
-                failedActivityConstraints.add(constraint.getClass().getSimpleName());
-                return status;
-            }
-        }
-
-        return ConstraintsStatus.FULFILLED;
+        return constraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedActivityConstraints);
     }
 
 }
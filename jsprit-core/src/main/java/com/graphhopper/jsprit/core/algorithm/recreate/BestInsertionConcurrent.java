@@ -20,6 +20,7 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListeners;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.DependencyType;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
@@ -30,11 +31,24 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 
 /**
+ * Best insertion that evaluates insertions concurrently.
+ * <p>
+ * <p>By default, the routes are distributed to nuOfBatches batches and the batches are evaluated concurrently for one job
+ * after another. If speculative jobs are set (see setSpeculativeJobs(...)), the best insertions of the next jobs are instead
+ * evaluated concurrently against the current routes and are then committed in order. Before committing a job, its insertion is
+ * only re-evaluated in the routes that have been changed by earlier commits of the same batch of jobs (and in all routes if its
+ * chosen route has been changed, if an earlier commit opened a new route or switched a vehicle, or if the job's dependency type
+ * is INTRA_ROUTE or INTER_ROUTE).
+ *
  * @author stefan schroeder
  */
 
@@ -80,17 +94,35 @@ public final class BestInsertionConcurrent extends AbstractInsertionStrategy {
 
     private final int nuOfBatches;
 
-    private final ExecutorCompletionService<Insertion> completionService;
+    private final ExecutorService executorService;
+
+    private int speculativeJobs;
+
+    private DependencyType[] dependencyTypes;
 
     public BestInsertionConcurrent(JobInsertionCostsCalculator jobInsertionCalculator, ExecutorService executorService, int nuOfBatches, VehicleRoutingProblem vehicleRoutingProblem) {
         super(vehicleRoutingProblem);
         this.insertionsListeners = new InsertionListeners();
         this.nuOfBatches = nuOfBatches;
         bestInsertionCostCalculator = jobInsertionCalculator;
-        completionService = new ExecutorCompletionService<>(executorService);
+        this.executorService = executorService;
         logger.debug("initialise {}", this);
     }
 
+    /**
+     * Sets the number of jobs whose best insertions are evaluated concurrently. Default is 0, i.e. route batches are evaluated
+     * concurrently for one job after another.
+     *
+     * @param speculativeJobs number of jobs evaluated concurrently
+     */
+    public void setSpeculativeJobs(int speculativeJobs) {
+        this.speculativeJobs = speculativeJobs;
+    }
+
+    public void setDependencyTypes(DependencyType[] dependencyTypes) {
+        this.dependencyTypes = dependencyTypes;
+    }
+
     @Override
     public String toString() {
         return "[name=bestInsertion]";
@@ -102,31 +134,29 @@ public final class BestInsertionConcurrent extends AbstractInsertionStrategy {
         List<Job> unassignedJobList = new ArrayList<>(unassignedJobs);
         Collections.shuffle(unassignedJobList, random);
         unassignedJobList.sort(AccordingToPriorities.PRIORITY_COMPARATOR);
+        if (speculativeJobs > 1) {
+            insertSpeculatively(vehicleRoutes, unassignedJobList, badJobs);
+            return badJobs;
+        }
         List<Batch> batches = distributeRoutes(vehicleRoutes, nuOfBatches);
         List<String> failedConstraintNames = new ArrayList<>();
         for (final Job unassignedJob : unassignedJobList) {
             Insertion bestInsertion = null;
             double bestInsertionCost = Double.MAX_VALUE;
+            List<Supplier<Insertion>> tasks = new ArrayList<>(batches.size());
             for (final Batch batch : batches) {
-                completionService.submit(() -> getBestInsertion(batch, unassignedJob));
+                tasks.add(() -> getBestInsertion(batch, unassignedJob));
             }
-            try {
-                for (int i = 0; i < batches.size(); i++) {
-                    Future<Insertion> futureIData = completionService.take();
-                    Insertion insertion = futureIData.get();
-                    if (insertion.insertionData instanceof NoInsertionFound) {
-                        failedConstraintNames.addAll(insertion.getInsertionData().getFailedConstraintNames());
-                        continue;
-                    }
-                    if (insertion.getInsertionData().getInsertionCost() < bestInsertionCost) {
-                        bestInsertion = insertion;
-                        bestInsertionCost = insertion.getInsertionData().getInsertionCost();
-                    }
+            //results are reduced in batch order (and not in the order of completion), thus ties are resolved reproducibly
+            for (Insertion insertion : evaluate(tasks)) {
+                if (insertion.insertionData instanceof NoInsertionFound) {
+                    failedConstraintNames.addAll(insertion.getInsertionData().getFailedConstraintNames());
+                    continue;
+                }
+                if (insertion.getInsertionData().getInsertionCost() < bestInsertionCost) {
+                    bestInsertion = insertion;
+                    bestInsertionCost = insertion.getInsertionData().getInsertionCost();
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e) {
-                throw new RuntimeException(e);
             }
             VehicleRoute newRoute = VehicleRoute.emptyRoute();
             InsertionData newIData = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
@@ -145,11 +175,115 @@ public final class BestInsertionConcurrent extends AbstractInsertionStrategy {
     }
 
 
+    private void insertSpeculatively(Collection<VehicleRoute> vehicleRoutes, List<Job> unassignedJobList, Collection<Job> badJobs) {
+        for (int from = 0; from < unassignedJobList.size(); from += speculativeJobs) {
+            List<Job> jobs = unassignedJobList.subList(from, Math.min(unassignedJobList.size(), from + speculativeJobs));
+            final List<VehicleRoute> routes = new ArrayList<>(vehicleRoutes);
+            List<Supplier<Insertion>> tasks = new ArrayList<>(jobs.size());
+            for (final Job job : jobs) {
+                tasks.add(() -> getBestInsertion(routes, job));
+            }
+            //all evaluations need to be finished before routes are modified
+            List<Insertion> insertions = evaluate(tasks);
+            Map<VehicleRoute, Integer> positions = new IdentityHashMap<>();
+            for (int p = 0; p < routes.size(); p++) positions.put(routes.get(p), p);
+            Set<VehicleRoute> modifiedRoutes = Collections.newSetFromMap(new IdentityHashMap<>());
+            boolean fleetChanged = false;
+            for (int i = 0; i < jobs.size(); i++) {
+                Job unassignedJob = jobs.get(i);
+                Insertion bestInsertion = insertions.get(i);
+                boolean changed = fleetChanged || (!modifiedRoutes.isEmpty() && dependsOnOtherJobs(unassignedJob));
+                if (changed || (bestInsertion.getRoute() != null && modifiedRoutes.contains(bestInsertion.getRoute()))) {
+                    bestInsertion = getBestInsertion(vehicleRoutes, unassignedJob);
+                } else if (!modifiedRoutes.isEmpty()) {
+                    //modified routes are evaluated in route order, thus ties are resolved as by serial best insertion
+                    List<VehicleRoute> modified = new ArrayList<>(modifiedRoutes.size());
+                    for (VehicleRoute route : routes) {
+                        if (modifiedRoutes.contains(route)) modified.add(route);
+                    }
+                    bestInsertion = cheaper(bestInsertion, getBestInsertion(modified, unassignedJob), positions);
+                }
+                InsertionData bestIData = bestInsertion.getInsertionData();
+                double bestInsertionCost = bestIData instanceof NoInsertionFound ? Double.MAX_VALUE : bestIData.getInsertionCost();
+                VehicleRoute newRoute = VehicleRoute.emptyRoute();
+                InsertionData newIData = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
+                if (newIData instanceof NoInsertionFound) {
+                    if (bestIData instanceof NoInsertionFound) bestIData.getFailedConstraintNames().addAll(newIData.getFailedConstraintNames());
+                } else if (newIData.getInsertionCost() < bestInsertionCost) {
+                    bestInsertion = new Insertion(newRoute, newIData);
+                    vehicleRoutes.add(newRoute);
+                }
+                VehicleRoute route = bestInsertion.getRoute();
+                if (route == null) {
+                    badJobs.add(unassignedJob);
+                    markUnassigned(unassignedJob, bestIData.getFailedConstraintNames());
+                    continue;
+                }
+                Vehicle vehicleBefore = route.vehicle();
+                insertJob(unassignedJob, bestInsertion.getInsertionData(), route);
+                modifiedRoutes.add(route);
+                //a new or switched vehicle changes the vehicles available to all other routes
+                if (route == newRoute || vehicleBefore != route.vehicle()) fleetChanged = true;
+            }
+        }
+    }
+
+    private boolean dependsOnOtherJobs(Job job) {
+        if (dependencyTypes == null || job.index() >= dependencyTypes.length) return false;
+        DependencyType dependencyType = dependencyTypes[job.index()];
+        return dependencyType == DependencyType.INTER_ROUTE || dependencyType == DependencyType.INTRA_ROUTE;
+    }
+
+    /**
+     * Returns the cheaper insertion. Ties are resolved in favour of the route that comes first, i.e. that serial best insertion
+     * would have evaluated first.
+     */
+    private static Insertion cheaper(Insertion insertion, Insertion other, Map<VehicleRoute, Integer> positions) {
+        if (other.getInsertionData() instanceof NoInsertionFound) {
+            if (insertion.getInsertionData() instanceof NoInsertionFound) {
+                insertion.getInsertionData().getFailedConstraintNames().addAll(other.getInsertionData().getFailedConstraintNames());
+            }
+            return insertion;
+        }
+        if (insertion.getInsertionData() instanceof NoInsertionFound) return other;
+        double cost = insertion.getInsertionData().getInsertionCost();
+        double otherCost = other.getInsertionData().getInsertionCost();
+        if (otherCost < cost) return other;
+        if (otherCost == cost && positions.get(other.getRoute()) < positions.get(insertion.getRoute())) return other;
+        return insertion;
+    }
+
+    /**
+     * Evaluates the tasks on the executor and returns their results in the order of the tasks. If the calling thread is interrupted,
+     * the interrupt flag is re-set and the remaining tasks are evaluated on the calling thread, i.e. jobs are never dropped.
+     */
+    private <T> List<T> evaluate(List<Supplier<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        if (!Thread.currentThread().isInterrupted()) {
+            for (Supplier<T> task : tasks) futures.add(executorService.submit(task::get));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : futures) results.add(future.get());
+        } catch (InterruptedException e) {
+            for (Future<T> future : futures) future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        for (int i = results.size(); i < tasks.size(); i++) results.add(tasks.get(i).get());
+        return results;
+    }
+
     private Insertion getBestInsertion(Batch batch, Job unassignedJob) {
+        return getBestInsertion(batch.routes, unassignedJob);
+    }
+
+    private Insertion getBestInsertion(Collection<VehicleRoute> routes, Job unassignedJob) {
         Insertion bestInsertion = null;
         InsertionData empty = new InsertionData.NoInsertionFound();
         double bestInsertionCost = Double.MAX_VALUE;
-        for (VehicleRoute vehicleRoute : batch.routes) {
+        for (VehicleRoute vehicleRoute : routes) {
             InsertionData iData = bestInsertionCostCalculator.getInsertionData(vehicleRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
             if (iData instanceof NoInsertionFound) {
                 empty.getFailedConstraintNames().addAll(iData.getFailedConstraintNames());
@@ -0,0 +1,165 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+import static com.graphhopper.jsprit.core.algorithm.recreate.AccordingToPriorities.PRIORITY_COMPARATOR;
+
+
+/**
+ * Best insertion with blinks as proposed in
+ * <p>
+ * Christiaens J, Vanden Berghe G (2020) Slack Induction by String Removals for Vehicle Routing Problems.
+ * Transportation Science 54(2):417-433
+ * <p>
+ * <p>Unassigned jobs are ordered randomly, by decreasing demand, by decreasing distance from the closest depot or by increasing
+ * distance from the closest depot (with weights 4, 4, 2 and 1). Each job is inserted where additional costs are minimal, but every
+ * existing route is skipped (blinked) with probability blinkRate. Since the best position within a route is determined by the
+ * insertion calculator, blinks apply to routes rather than to single positions. Opening a new route is never blinked.
+ *
+ * @author schroeder
+ */
+public final class BlinkInsertion extends AbstractInsertionStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlinkInsertion.class);
+
+    private static final int[] ORDER_WEIGHTS = {4, 4, 2, 1};
+
+    private static final int SUM_OF_ORDER_WEIGHTS = 11;
+
+    private final JobInsertionCostsCalculator insertionCostsCalculator;
+
+    private final double[] demands;
+
+    private final double[] depotDistances;
+
+    private double blinkRate = .01;
+
+    public BlinkInsertion(JobInsertionCostsCalculator jobInsertionCalculator, VehicleRoutingProblem vehicleRoutingProblem) {
+        super(vehicleRoutingProblem);
+        this.insertionCostsCalculator = jobInsertionCalculator;
+        int maxIndex = 0;
+        for (Job job : vrp.jobs().values()) maxIndex = Math.max(maxIndex, job.index());
+        demands = new double[maxIndex + 1];
+        depotDistances = new double[maxIndex + 1];
+        Map<Location, Vehicle> depots = new HashMap<>();
+        for (Vehicle vehicle : vrp.vehicles()) {
+            if (vehicle.start() != null) depots.putIfAbsent(vehicle.start(), vehicle);
+        }
+        for (Job job : vrp.jobs().values()) {
+            Capacity size = job.size();
+            for (int d = 0; d < size.dim(); d++) demands[job.index()] += Math.abs(size.get(d));
+            depotDistances[job.index()] = distanceFromClosestDepot(job, depots);
+        }
+        logger.debug("initialise {}", this);
+    }
+
+    /**
+     * Sets the probability that a route is skipped when searching the best insertion of a job (default is .01).
+     *
+     * @param blinkRate probability of a blink
+     */
+    public void setBlinkRate(double blinkRate) {
+        if (blinkRate < 0. || blinkRate >= 1.) throw new IllegalArgumentException("blink rate must be in [0,1)");
+        this.blinkRate = blinkRate;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=blinkInsertion][blinkRate=" + blinkRate + ']';
+    }
+
+    @Override
+    public Collection<Job> insertUnassignedJobs(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        Collection<Job> badJobs = new ArrayList<>(unassignedJobs.size());
+        List<Job> unassignedJobList = new ArrayList<>(unassignedJobs);
+        Collections.shuffle(unassignedJobList, random);
+        sort(unassignedJobList);
+        unassignedJobList.sort(PRIORITY_COMPARATOR);
+        for (Job unassignedJob : unassignedJobList) {
+            VehicleRoute bestRoute = null;
+            InsertionData bestData = null;
+            InsertionData empty = new InsertionData.NoInsertionFound();
+            double bestInsertionCost = Double.POSITIVE_INFINITY;
+            for (VehicleRoute vehicleRoute : vehicleRoutes) {
+                if (blinkRate > 0. && random.nextDouble() < blinkRate) continue;
+                InsertionData iData = insertionCostsCalculator.getInsertionData(vehicleRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
+                if (iData instanceof InsertionData.NoInsertionFound) {
+                    empty.getFailedConstraintNames().addAll(iData.getFailedConstraintNames());
+                    continue;
+                }
+                if (iData.getInsertionCost() < bestInsertionCost) {
+                    bestRoute = vehicleRoute;
+                    bestData = iData;
+                    bestInsertionCost = iData.getInsertionCost();
+                }
+            }
+            VehicleRoute newRoute = VehicleRoute.emptyRoute();
+            InsertionData newIData = insertionCostsCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
+            if (!(newIData instanceof InsertionData.NoInsertionFound)) {
+                if (newIData.getInsertionCost() < bestInsertionCost) {
+                    bestRoute = newRoute;
+                    bestData = newIData;
+                    vehicleRoutes.add(newRoute);
+                }
+            } else {
+                empty.getFailedConstraintNames().addAll(newIData.getFailedConstraintNames());
+            }
+            if (bestData == null) {
+                badJobs.add(unassignedJob);
+                markUnassigned(unassignedJob, empty.getFailedConstraintNames());
+            } else insertJob(unassignedJob, bestData, bestRoute);
+        }
+        return badJobs;
+    }
+
+    private void sort(List<Job> jobs) {
+        int order = random.nextInt(SUM_OF_ORDER_WEIGHTS);
+        if ((order -= ORDER_WEIGHTS[0]) < 0) return;
+        if ((order -= ORDER_WEIGHTS[1]) < 0) jobs.sort(Comparator.comparingDouble(job -> -value(demands, job)));
+        else if (order - ORDER_WEIGHTS[2] < 0) jobs.sort(Comparator.comparingDouble(job -> -value(depotDistances, job)));
+        else jobs.sort(Comparator.comparingDouble(job -> value(depotDistances, job)));
+    }
+
+    private static double value(double[] values, Job job) {
+        return job.index() < values.length ? values[job.index()] : 0.;
+    }
+
+    private double distanceFromClosestDepot(Job job, Map<Location, Vehicle> depots) {
+        double min = Double.POSITIVE_INFINITY;
+        for (AbstractActivity act : vrp.activities(job)) {
+            if (act.location() == null) continue;
+            for (Map.Entry<Location, Vehicle> depot : depots.entrySet()) {
+                min = Math.min(min, vrp.transportCosts().distance(depot.getKey(), act.location(), 0., depot.getValue()));
+            }
+        }
+        return min == Double.POSITIVE_INFINITY ? 0. : min;
+    }
+
+}
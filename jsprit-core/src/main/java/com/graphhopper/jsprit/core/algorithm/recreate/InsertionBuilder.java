@@ -27,6 +27,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class InsertionBuilder {
@@ -35,7 +36,7 @@ public class InsertionBuilder {
 
 
     public enum Strategy {
-        REGRET, BEST
+        REGRET, BEST, BLINK
     }
 
     private final VehicleRoutingProblem vrp;
@@ -62,6 +63,8 @@ public class InsertionBuilder {
 
     private int nuOfThreads;
 
+    private int speculativeJobs;
+
 //    private double timeSlice;
 
 //    private int nNeighbors;
@@ -72,10 +75,16 @@ public class InsertionBuilder {
 
     private boolean addDefaultCostCalc = true;
 
+    private boolean lowerBoundPruning;
+
+    private boolean vehicleClasses;
+
     private Strategy strategy = Strategy.BEST;
 
     private boolean isFastRegret;
 
+    private double blinkRate = .01;
+
     public InsertionBuilder(VehicleRoutingProblem vrp, VehicleFleetManager vehicleFleetManager, StateManager stateManager, ConstraintManager constraintManager) {
         this.vrp = vrp;
         this.stateManager = stateManager;
@@ -103,6 +112,17 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * Sets the probability that a route is skipped by {@link BlinkInsertion} (default is .01). It has no effect on other strategies.
+     *
+     * @param blinkRate probability of a blink
+     * @return this builder
+     */
+    public InsertionBuilder setBlinkRate(double blinkRate) {
+        this.blinkRate = blinkRate;
+        return this;
+    }
+
     public InsertionBuilder setFastRegret(boolean fastRegret) {
         this.isFastRegret = fastRegret;
         return this;
@@ -144,6 +164,18 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * Only applies to best insertion in concurrent mode. If speculativeJobs is larger than 1, the best insertions of this number
+     * of jobs are evaluated concurrently instead of evaluating batches of routes concurrently for one job after another.
+     *
+     * @param speculativeJobs number of jobs evaluated concurrently
+     * @return
+     */
+    public InsertionBuilder setSpeculativeJobs(int speculativeJobs) {
+        this.speculativeJobs = speculativeJobs;
+        return this;
+    }
+
 
     public InsertionStrategy build() {
         List<InsertionListener> iListeners = new ArrayList<>();
@@ -166,6 +198,9 @@ public class InsertionBuilder {
 //            calcBuilder.experimentalTimeScheduler(timeSlice, nNeighbors);
 //        }
         calcBuilder.setAllowVehicleSwitch(allowVehicleSwitch);
+        calcBuilder.setLowerBoundPruning(lowerBoundPruning);
+        if (lowerBoundPruning) stateManager.updateRouteBoxStates();
+        calcBuilder.setVehicleClasses(vehicleClasses);
         JobInsertionCostsCalculator costCalculator = calcBuilder.build();
 
         InsertionStrategy insertion;
@@ -174,9 +209,16 @@ public class InsertionBuilder {
                 if (executor == null) {
                     insertion = new BestInsertion(costCalculator, vrp);
                 } else {
-                    insertion = new BestInsertionConcurrent(costCalculator, executor, nuOfThreads, vrp);
+                    BestInsertionConcurrent best = new BestInsertionConcurrent(costCalculator, executor, nuOfThreads, vrp);
+                    best.setSpeculativeJobs(speculativeJobs);
+                    insertion = best;
                 }
                 break;
+            case BLINK:
+                BlinkInsertion blink = new BlinkInsertion(costCalculator, vrp);
+                blink.setBlinkRate(blinkRate);
+                insertion = blink;
+                break;
             case REGRET:
                 if (executor == null) {
                     if (isFastRegret) {
@@ -189,7 +231,11 @@ public class InsertionBuilder {
                     }
 
                 } else {
-                    if (isFastRegret) {
+                    if (isFastRegret && executor instanceof ForkJoinPool) {
+                        RegretInsertionForkJoin regret = new RegretInsertionForkJoin(costCalculator, vrp, (ForkJoinPool) executor, fleetManager);
+                        regret.setSwitchAllowed(allowVehicleSwitch);
+                        insertion = regret;
+                    } else if (isFastRegret) {
                         RegretInsertionConcurrentFast regret = new RegretInsertionConcurrentFast(costCalculator, vrp, executor, fleetManager);
                         regret.setSwitchAllowed(allowVehicleSwitch);
                         insertion = regret;
@@ -212,5 +258,31 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * Sets a flag to skip routes that cannot beat the best known insertion costs based on a lower bound of their insertion costs.
+     * Default is false. Only switch it on if your soft constraints never reward insertions (i.e. never return negative costs).
+     * Regret insertion only prunes the evaluation of new routes, since its priority queues need the exact costs of every route.
+     *
+     * @param lowerBoundPruning
+     * @return
+     */
+    public InsertionBuilder setLowerBoundPruning(boolean lowerBoundPruning) {
+        this.lowerBoundPruning = lowerBoundPruning;
+        return this;
+    }
+
+    /**
+     * Default is false. If true, vehicles that only differ in their (proportional) cost parameters are evaluated only once per
+     * {@link com.graphhopper.jsprit.core.problem.vehicle.VehicleClasses class}. Only switch it on if your constraints do not
+     * distinguish such vehicles.
+     *
+     * @param vehicleClasses
+     * @return
+     */
+    public InsertionBuilder setVehicleClasses(boolean vehicleClasses) {
+        this.vehicleClasses = vehicleClasses;
+        return this;
+    }
+
 
 }
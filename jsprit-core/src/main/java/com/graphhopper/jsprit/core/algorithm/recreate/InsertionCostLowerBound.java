@@ -0,0 +1,145 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.cost.WaitingTimeCosts;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
+import com.graphhopper.jsprit.core.util.v2;
+
+/**
+ * Cheap lower bound of the marginal costs of inserting a job into a route.
+ * <p>
+ * <p>The route is summarized by the bounding box of its start, its activities and its end. If a job location
+ * is at distance r from this box and the box has diameter d, inserting it between any two consecutive stops costs
+ * at least 2 * sqrt(r^2 + d^2/4) - d distance units (the shortest detour via a point at distance r to a segment of length d).
+ * A shipment costs at least as much as the more expensive of its two locations.
+ * <p>
+ * <p>The bound only holds for euclidean transport costs, waiting time costs without waiting cost and non-negative soft costs.
+ * Use {@link #of(VehicleRoutingProblem)} which returns null if the problem does not meet these requirements.
+ * <p>
+ * <p>Fixed costs are not part of the bound. They enter insertion costs only via soft route constraints that weight them
+ * (e.g. by solution completeness), thus the share of a vehicle's fix that is actually charged is unknown here.
+ *
+ * @author schroeder
+ */
+final class InsertionCostLowerBound {
+
+    static InsertionCostLowerBound of(VehicleRoutingProblem vrp) {
+        return of(vrp, null);
+    }
+
+    /**
+     * Returns the lower bound reading the route boxes from states (see {@link StateManager#updateRouteBoxStates()}).
+     * If states is null or a route has no box, the box is determined by scanning the route.
+     */
+    static InsertionCostLowerBound of(VehicleRoutingProblem vrp, RouteAndActivityStateGetter states) {
+        if (!(vrp.transportCosts() instanceof EuclideanCosts)) return null;
+        if (!(vrp.activityCosts() instanceof WaitingTimeCosts)) return null;
+        return new InsertionCostLowerBound(((EuclideanCosts) vrp.transportCosts()).detourFactor, states);
+    }
+
+    private final double detourFactor;
+
+    private final RouteAndActivityStateGetter states;
+
+    private InsertionCostLowerBound(double detourFactor, RouteAndActivityStateGetter states) {
+        this.detourFactor = detourFactor;
+        this.states = states;
+    }
+
+    /**
+     * Returns a lower bound of the insertion costs of job into route when the route is operated by vehicle, i.e. either
+     * the route's current vehicle or - if the route is empty - the new vehicle. Returns 0. if no bound can be given.
+     */
+    double getLowerBound(VehicleRoute route, Job job, Vehicle vehicle) {
+        if (vehicle.type() == null) return 0.;
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.type().getVehicleCostParams();
+        if (costParams.perWaitingTimeUnit > 0. || costParams.perDistanceUnit <= 0.) return 0.;
+        if (job instanceof Break) return 0.;
+        double[] box = null;
+        if (states != null && !route.isEmpty()) box = states.getRouteState(route, InternalStates.ROUTE_BOX, double[].class);
+        if (box == null) box = scanBox(route, vehicle);
+        if (box == null) return 0.;
+        double minX = box[0], minY = box[1], maxX = box[2], maxY = box[3];
+        boolean returnToDepot = vehicle.isReturnToDepot();
+        double dx = maxX - minX;
+        double dy = maxY - minY;
+        double diameter = Math.sqrt(dx * dx + dy * dy);
+        double detour;
+        if (job instanceof Service) {
+            detour = detour(((Service) job).location, minX, minY, maxX, maxY, diameter, returnToDepot);
+        } else if (job instanceof Shipment) {
+            Shipment shipment = (Shipment) job;
+            detour = Math.max(detour(shipment.getPickupLocation(), minX, minY, maxX, maxY, diameter, returnToDepot),
+                detour(shipment.getDeliveryLocation(), minX, minY, maxX, maxY, diameter, returnToDepot));
+        } else return 0.;
+        return detour * detourFactor * costParams.perDistanceUnit;
+    }
+
+    private static double[] scanBox(VehicleRoute route, Vehicle vehicle) {
+        Location start = route.isEmpty() ? vehicle.start() : route.start.location();
+        if (start == null || start.coord == null) return null;
+        double minX = start.coord.x, maxX = minX;
+        double minY = start.coord.y, maxY = minY;
+        for (AbstractActivity act : route.activities()) {
+            Location l = act.location();
+            if (l == null || l.coord == null) return null;
+            minX = Math.min(minX, l.coord.x);
+            maxX = Math.max(maxX, l.coord.x);
+            minY = Math.min(minY, l.coord.y);
+            maxY = Math.max(maxY, l.coord.y);
+        }
+        if (vehicle.isReturnToDepot()) {
+            Location end = route.isEmpty() ? vehicle.end() : route.end.location();
+            if (end == null || end.coord == null) return null;
+            minX = Math.min(minX, end.coord.x);
+            maxX = Math.max(maxX, end.coord.x);
+            minY = Math.min(minY, end.coord.y);
+            maxY = Math.max(maxY, end.coord.y);
+        }
+        return new double[]{minX, minY, maxX, maxY};
+    }
+
+    private static double detour(Location location, double minX, double minY, double maxX, double maxY, double diameter, boolean returnToDepot) {
+        if (location == null) return 0.;
+        v2 coord = location.coord;
+        if (coord == null) return 0.;
+        double rx = Math.max(0., Math.max(minX - coord.x, coord.x - maxX));
+        double ry = Math.max(0., Math.max(minY - coord.y, coord.y - maxY));
+        double r = Math.sqrt(rx * rx + ry * ry);
+        if (r == 0.) return 0.;
+        double detour = 2. * Math.sqrt(r * r + diameter * diameter / 4.) - diameter;
+        //open routes can be extended by just driving to the new location
+        if (!returnToDepot) return Math.min(r, detour);
+        return detour;
+    }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Versioned insertion data of one job, ordered by insertion costs (and by the order they are added if costs are equal).
+ * <p>
+ * <p>The entries form a binary min-heap over primitive arrays. Adding entries of a route with a newer version makes all older
+ * entries of this route stale. Stale entries are not removed immediately (lazy deletion), but the heap is compacted
+ * once stale entries outnumber live entries, thus memory is bounded by about twice the number of live entries.
+ * <p>
+ * <p>A {@link Cursor} visits the entries in ascending order without modifying the heap.
+ * <p>
+ * <p>Not thread-safe.
+ *
+ * @author schroeder
+ */
+class InsertionDataQueue {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final int MIN_STALE_ENTRIES_TO_COMPACT = 16;
+
+    private double[] costs = new double[INITIAL_CAPACITY];
+
+    private long[] sequence = new long[INITIAL_CAPACITY];
+
+    private int[] versions = new int[INITIAL_CAPACITY];
+
+    private InsertionData[] insertionData = new InsertionData[INITIAL_CAPACITY];
+
+    private VehicleRoute[] routes = new VehicleRoute[INITIAL_CAPACITY];
+
+    private int size;
+
+    private long sequenceCounter;
+
+    private int liveEntries;
+
+    /**
+     * route -> {latest version, number of entries with latest version}
+     */
+    private final Map<VehicleRoute, int[]> routeVersions = new IdentityHashMap<>();
+
+    void add(InsertionData iData, int version, VehicleRoute route) {
+        int[] routeVersion = routeVersions.get(route);
+        if (routeVersion == null) {
+            routeVersion = new int[]{version, 0};
+            routeVersions.put(route, routeVersion);
+        } else if (version < routeVersion[0]) {
+            return;
+        } else if (version > routeVersion[0]) {
+            liveEntries -= routeVersion[1];
+            routeVersion[0] = version;
+            routeVersion[1] = 0;
+        }
+        routeVersion[1]++;
+        liveEntries++;
+        if (size - liveEntries > Math.max(MIN_STALE_ENTRIES_TO_COMPACT, liveEntries)) compact();
+        if (size == costs.length) grow();
+        costs[size] = iData.getInsertionCost();
+        sequence[size] = sequenceCounter++;
+        versions[size] = version;
+        insertionData[size] = iData;
+        routes[size] = route;
+        siftUp(size);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isStale(int i) {
+        return versions[i] != routeVersions.get(routes[i])[0];
+    }
+
+    InsertionData insertionData(int i) {
+        return insertionData[i];
+    }
+
+    VehicleRoute route(int i) {
+        return routes[i];
+    }
+
+    int version(int i) {
+        return versions[i];
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Visits heap positions in ascending order of their entries by expanding a frontier of heap positions, i.e. visiting the
+     * k smallest entries costs O(k log k).
+     */
+    class Cursor {
+
+        private int[] frontier = new int[INITIAL_CAPACITY];
+
+        private int frontierSize;
+
+        private Cursor() {
+            if (size > 0) push(0);
+        }
+
+        boolean hasNext() {
+            return frontierSize > 0;
+        }
+
+        /**
+         * @return heap position of the next entry
+         */
+        int next() {
+            int next = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= frontierSize) break;
+                int smallest = left + 1 < frontierSize && less(frontier[left + 1], frontier[left]) ? left + 1 : left;
+                if (!less(frontier[smallest], frontier[i])) break;
+                swapFrontier(i, smallest);
+                i = smallest;
+            }
+            int child = 2 * next + 1;
+            if (child < size) push(child);
+            if (child + 1 < size) push(child + 1);
+            return next;
+        }
+
+        private void push(int heapPosition) {
+            if (frontierSize == frontier.length) frontier = Arrays.copyOf(frontier, frontier.length * 2);
+            int i = frontierSize++;
+            frontier[i] = heapPosition;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!less(frontier[i], frontier[parent])) break;
+                swapFrontier(i, parent);
+                i = parent;
+            }
+        }
+
+        private void swapFrontier(int i, int j) {
+            int tmp = frontier[i];
+            frontier[i] = frontier[j];
+            frontier[j] = tmp;
+        }
+    }
+
+    private boolean less(int i, int j) {
+        return costs[i] < costs[j] || (costs[i] == costs[j] && sequence[i] < sequence[j]);
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            if (isStale(i)) continue;
+            move(i, live++);
+        }
+        for (int i = live; i < size; i++) {
+            insertionData[i] = null;
+            routes[i] = null;
+        }
+        size = live;
+        for (int i = size / 2 - 1; i >= 0; i--) siftDown(i);
+    }
+
+    private void grow() {
+        int capacity = costs.length * 2;
+        costs = Arrays.copyOf(costs, capacity);
+        sequence = Arrays.copyOf(sequence, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        insertionData = Arrays.copyOf(insertionData, capacity);
+        routes = Arrays.copyOf(routes, capacity);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(i, parent)) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+            if (!less(smallest, i)) break;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void move(int from, int to) {
+        if (from == to) return;
+        costs[to] = costs[from];
+        sequence[to] = sequence[from];
+        versions[to] = versions[from];
+        insertionData[to] = insertionData[from];
+        routes[to] = routes[from];
+    }
+
+    private void swap(int i, int j) {
+        double cost = costs[i];
+        costs[i] = costs[j];
+        costs[j] = cost;
+        long seq = sequence[i];
+        sequence[i] = sequence[j];
+        sequence[j] = seq;
+        int version = versions[i];
+        versions[i] = versions[j];
+        versions[j] = version;
+        InsertionData data = insertionData[i];
+        insertionData[i] = insertionData[j];
+        insertionData[j] = data;
+        VehicleRoute route = routes[i];
+        routes[i] = routes[j];
+        routes[j] = route;
+    }
+
+}
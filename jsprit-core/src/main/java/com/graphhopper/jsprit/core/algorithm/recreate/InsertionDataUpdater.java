@@ -32,7 +32,7 @@ import java.util.stream.Stream;
  */
 class InsertionDataUpdater {
 
-    static boolean update(boolean addAllAvailable, Collection<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, Set<VersionedInsertionData> insertionDataSet, int updateRound, Job unassignedJob, Iterable<VehicleRoute> routes) {
+    static boolean update(boolean addAllAvailable, Collection<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, InsertionDataQueue insertionDataQueue, int updateRound, Job unassignedJob, Iterable<VehicleRoute> routes) {
         for (VehicleRoute route : routes) {
 
             Stream<Vehicle> relevantVehicles;
@@ -52,12 +52,13 @@ class InsertionDataUpdater {
 
                 double depTime = v.earliestDeparture();
 
+                //no benchmark, i.e. no lower bound pruning: entries must hold exact costs since they are reused in later rounds
                 InsertionData iData = insertionCostsCalculator.getInsertionData(route, unassignedJob, v, depTime, route.driver, Double.MAX_VALUE);
 
                 if (iData instanceof InsertionData.NoInsertionFound) {
                     return;
                 }
-                insertionDataSet.add(new VersionedInsertionData(iData, updateRound, route));
+                insertionDataQueue.add(iData, updateRound, route);
 
             });
         }
@@ -73,96 +74,98 @@ class InsertionDataUpdater {
         return null;
     }
 
-    static Comparator<VersionedInsertionData> getComparator() {
-        return (o1, o2) -> {
-            if (o1.getiData().getInsertionCost() < o2.getiData().getInsertionCost()) return -1;
-            return 1;
-        };
-    }
-
-    static ScoredJob getBest(boolean switchAllowed, Collection<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, TreeSet<VersionedInsertionData>[] priorityQueues, Map<VehicleRoute, Integer> updates, Iterable<Job> unassignedJobList, Collection<ScoredJob> badJobs) {
+    static ScoredJob getBest(boolean switchAllowed, Collection<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, InsertionDataQueue[] priorityQueues, Map<VehicleRoute, Integer> updates, Iterable<Job> unassignedJobList, Collection<ScoredJob> badJobs) {
         ScoredJob bestScoredJob = null;
         for (Job j : unassignedJobList) {
-            VehicleRoute bestRoute = null;
-            InsertionData best = null;
-            InsertionData secondBest = null;
-            TreeSet<VersionedInsertionData> priorityQueue = priorityQueues[j.index()];
-            Iterator<VersionedInsertionData> iterator = priorityQueue.iterator();
-            List<String> failedConstraintNames = new ArrayList<>();
-            while (iterator.hasNext()) {
-                VersionedInsertionData versionedIData = iterator.next();
-                if (bestRoute != null) {
-                    if (versionedIData.getRoute() == bestRoute) {
-                        continue;
-                    }
-                }
-                if (versionedIData.getiData() instanceof InsertionData.NoInsertionFound) {
-                    failedConstraintNames.addAll(versionedIData.getiData().getFailedConstraintNames());
-                    continue;
-                }
-                if (!(versionedIData.getRoute().vehicle() instanceof VehicleImpl.NoVehicle)) {
-                    if (versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().vehicle()) {
-                        if (!switchAllowed) continue;
-                        if (initialVehicleIds.contains(versionedIData.getRoute().vehicle().id())) continue;
-                    }
-                }
-                if (versionedIData.getiData().getSelectedVehicle() != versionedIData.getRoute().vehicle()) {
-                    if (fleetManager.isLocked(versionedIData.getiData().getSelectedVehicle())) {
-                        Vehicle available = fleetManager.vehicleAvailable(versionedIData.getiData().getSelectedVehicle().vehicleType());
-                        if (available != null) {
-                            InsertionData oldData = versionedIData.getiData();
-                            InsertionData newData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
-                                    oldData.getDeliveryInsertionIndex(), available, oldData.getSelectedDriver());
-                            newData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
-                            for (Event e : oldData.getEvents()) {
-                                if (e instanceof SwitchVehicle) {
-                                    newData.getEvents().add(new SwitchVehicle(versionedIData.getRoute(), available, oldData.getVehicleDepartureTime()));
-                                } else newData.getEvents().add(e);
-                            }
-                            versionedIData = new VersionedInsertionData(newData, versionedIData.getVersion(), versionedIData.getRoute());
-                        } else continue;
-                    }
+            ScoredJob scoredJob = scoreJob(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, scoringFunction, priorityQueues[j.index()], updates, j);
+            if (scoredJob instanceof ScoredJob.BadJob) {
+                badJobs.add(scoredJob);
+                continue;
+            }
+            if (bestScoredJob == null) {
+                bestScoredJob = scoredJob;
+            } else if (scoredJob.getScore() > bestScoredJob.getScore()) {
+                bestScoredJob = scoredJob;
+            }
+        }
+        return bestScoredJob;
+    }
+
+    /**
+     * Scores job j based on the up-to-date entries of its priority queue and a new route. Returns a ScoredJob.BadJob if j cannot be inserted.
+     * Only reads priorityQueue and updates, thus jobs can be scored concurrently.
+     */
+    static ScoredJob scoreJob(boolean switchAllowed, Collection<String> initialVehicleIds, VehicleFleetManager fleetManager, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, InsertionDataQueue priorityQueue, Map<VehicleRoute, Integer> updates, Job j) {
+        VehicleRoute bestRoute = null;
+        InsertionData best = null;
+        InsertionData secondBest = null;
+        List<String> failedConstraintNames = new ArrayList<>();
+        InsertionDataQueue.Cursor cursor = priorityQueue.cursor();
+        while (cursor.hasNext()) {
+            int entry = cursor.next();
+            VehicleRoute route = priorityQueue.route(entry);
+            if (route == bestRoute || priorityQueue.isStale(entry)) {
+                continue;
+            }
+            InsertionData iData = priorityQueue.insertionData(entry);
+            if (iData instanceof InsertionData.NoInsertionFound) {
+                failedConstraintNames.addAll(iData.getFailedConstraintNames());
+                continue;
+            }
+            if (!(route.vehicle() instanceof VehicleImpl.NoVehicle)) {
+                if (iData.getSelectedVehicle() != route.vehicle()) {
+                    if (!switchAllowed) continue;
+                    if (initialVehicleIds.contains(route.vehicle().id())) continue;
                 }
-                int currentDataVersion = updates.get(versionedIData.getRoute());
-                if (versionedIData.getVersion() == currentDataVersion) {
-                    if (best == null) {
-                        best = versionedIData.getiData();
-                        bestRoute = versionedIData.getRoute();
-                    } else {
-                        secondBest = versionedIData.getiData();
-                        break;
-                    }
+            }
+            if (iData.getSelectedVehicle() != route.vehicle()) {
+                if (fleetManager.isLocked(iData.getSelectedVehicle())) {
+                    Vehicle available = fleetManager.vehicleAvailable(iData.getSelectedVehicle().vehicleType());
+                    if (available != null) {
+                        InsertionData oldData = iData;
+                        iData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
+                                oldData.getDeliveryInsertionIndex(), available, oldData.getSelectedDriver());
+                        iData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
+                        for (Event e : oldData.getEvents()) {
+                            if (e instanceof SwitchVehicle) {
+                                iData.getEvents().add(new SwitchVehicle(route, available, oldData.getVehicleDepartureTime()));
+                            } else iData.getEvents().add(e);
+                        }
+                    } else continue;
                 }
             }
-            VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
-            InsertionData iData = insertionCostsCalculator.getInsertionData(emptyRoute, j, null, -1, null, Double.MAX_VALUE);
-            if (!(iData instanceof InsertionData.NoInsertionFound)) {
+            int currentDataVersion = updates.get(route);
+            if (priorityQueue.version(entry) == currentDataVersion) {
                 if (best == null) {
                     best = iData;
-                    bestRoute = emptyRoute;
-                } else if (iData.getInsertionCost() < best.getInsertionCost()) {
-                    secondBest = best;
-                    best = iData;
-                    bestRoute = emptyRoute;
-                } else if (secondBest == null || (iData.getInsertionCost() < secondBest.getInsertionCost())) {
+                    bestRoute = route;
+                } else {
                     secondBest = iData;
+                    break;
                 }
-            } else failedConstraintNames.addAll(iData.getFailedConstraintNames());
-            if (best == null) {
-                badJobs.add(new ScoredJob.BadJob(j, failedConstraintNames));
-                continue;
             }
-            double score = score(j, best, secondBest, scoringFunction);
-            ScoredJob scoredJob;
-            scoredJob = bestRoute == emptyRoute ? new ScoredJob(j, score, best, bestRoute, true) : new ScoredJob(j, score, best, bestRoute, false);
-
-            if (bestScoredJob == null) {
-                bestScoredJob = scoredJob;
-            } else if (scoredJob.getScore() > bestScoredJob.getScore()) {
-                bestScoredJob = scoredJob;
+        }
+        VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
+        //a new route that cannot beat the second best alternative changes neither best nor secondBest
+        double benchmark = secondBest == null ? Double.MAX_VALUE : secondBest.getInsertionCost();
+        InsertionData iData = insertionCostsCalculator.getInsertionData(emptyRoute, j, null, -1, null, benchmark);
+        if (!(iData instanceof InsertionData.NoInsertionFound)) {
+            if (best == null) {
+                best = iData;
+                bestRoute = emptyRoute;
+            } else if (iData.getInsertionCost() < best.getInsertionCost()) {
+                secondBest = best;
+                best = iData;
+                bestRoute = emptyRoute;
+            } else if (secondBest == null || (iData.getInsertionCost() < secondBest.getInsertionCost())) {
+                secondBest = iData;
             }
+        } else failedConstraintNames.addAll(iData.getFailedConstraintNames());
+        if (best == null) {
+            return new ScoredJob.BadJob(j, failedConstraintNames);
         }
-        return bestScoredJob;
+        double score = score(j, best, secondBest, scoringFunction);
+        return bestRoute == emptyRoute ? new ScoredJob(j, score, best, bestRoute, true) : new ScoredJob(j, score, best, bestRoute, false);
     }
 
     static double score(Job unassignedJob, InsertionData best, InsertionData secondBest, ScoringFunction scoringFunction) {
@@ -94,6 +94,10 @@ public class JobInsertionCostsCalculatorBuilder {
 
     private boolean addDefaultCostCalc = true;
 
+    private boolean lowerBoundPruning;
+
+    private boolean vehicleClasses;
+
     /**
      * Constructs the builder.
      * <p>
@@ -322,6 +326,13 @@ public class JobInsertionCostsCalculatorBuilder {
     private JobInsertionCostsCalculator createFinalInsertion(VehicleFleetManager fleetManager, JobInsertionCostsCalculator baseCalc, RouteAndActivityStateGetter activityStates2) {
         VehicleTypeDependentJobInsertionCalculator vehicleTypeDependentJobInsertionCalculator = new VehicleTypeDependentJobInsertionCalculator(vrp, fleetManager, baseCalc);
         vehicleTypeDependentJobInsertionCalculator.setVehicleSwitchAllowed(allowVehicleSwitch);
+        if (lowerBoundPruning && local && addDefaultCostCalc && activityInsertionCostCalculator == null && !timeScheduling) {
+            vehicleTypeDependentJobInsertionCalculator.setLowerBound(InsertionCostLowerBound.of(vrp, activityStates2));
+        }
+        if (vehicleClasses) {
+            vehicleTypeDependentJobInsertionCalculator.setVehicleClasses(vrp.vehicleClasses());
+        }
+        vehicleTypeDependentJobInsertionCalculator.setCompatibilityCheck(constraintManager);
         return vehicleTypeDependentJobInsertionCalculator;
     }
 
@@ -335,6 +346,29 @@ public class JobInsertionCostsCalculatorBuilder {
         return this;
     }
 
+    /**
+     * Sets a flag to skip routes whose lower bound of insertion costs exceeds the best known insertion costs. Default is false.
+     * <p>
+     * <p>The bound is only applied with default marginal cost calculation on local level and euclidean transport costs. It assumes
+     * that soft constraints only add (non-negative) penalties, thus do not switch it on if your soft constraints reward insertions.
+     *
+     * @param lowerBoundPruning
+     */
+    public JobInsertionCostsCalculatorBuilder setLowerBoundPruning(boolean lowerBoundPruning) {
+        this.lowerBoundPruning = lowerBoundPruning;
+        return this;
+    }
+
+    /**
+     * Sets a flag to evaluate alternative vehicles only once per vehicle class (see {@link com.graphhopper.jsprit.core.problem.vehicle.VehicleClasses}). Default is false.
+     *
+     * @param vehicleClasses
+     */
+    public JobInsertionCostsCalculatorBuilder setVehicleClasses(boolean vehicleClasses) {
+        this.vehicleClasses = vehicleClasses;
+        return this;
+    }
+
 }
 
 
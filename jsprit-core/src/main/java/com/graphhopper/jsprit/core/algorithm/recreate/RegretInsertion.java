@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Insertion based on regret approach.
@@ -157,16 +158,37 @@ public class RegretInsertion extends AbstractInsertionStrategy {
     }
 
     static ScoredJob getScoredJob(Iterable<VehicleRoute> routes, Job unassignedJob, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction) {
+        return getScoredJob(routes, unassignedJob, insertionCostsCalculator, scoringFunction, null);
+    }
+
+    /**
+     * Same as getScoredJob(...), but takes the insertion data of existing routes from routeInsertionData if available. Missing
+     * insertion data is calculated without benchmark and added to routeInsertionData, thus it can be reused as long as neither
+     * the route nor the job's feasibility in the route changes. The insertion into a new route is always calculated.
+     *
+     * @param routeInsertionData insertion data of unassignedJob per route or null if nothing should be cached
+     */
+    static ScoredJob getScoredJob(Iterable<VehicleRoute> routes, Job unassignedJob, JobInsertionCostsCalculator insertionCostsCalculator, ScoringFunction scoringFunction, Map<VehicleRoute, InsertionData> routeInsertionData) {
         InsertionData best = null;
         InsertionData secondBest = null;
         VehicleRoute bestRoute = null;
         List<String> failedConstraintNames = new ArrayList<>();
         double benchmark = Double.MAX_VALUE;
         for (VehicleRoute route : routes) {
-            if (secondBest != null) {
-                benchmark = secondBest.getInsertionCost();
+            InsertionData iData;
+            if (routeInsertionData == null) {
+                if (secondBest != null) {
+                    benchmark = secondBest.getInsertionCost();
+                }
+                iData = insertionCostsCalculator.getInsertionData(route, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, benchmark);
+            } else {
+                iData = routeInsertionData.get(route);
+                if (iData == null) {
+                    //no benchmark, i.e. no lower bound pruning: entries must hold exact costs since they are reused in later rounds
+                    iData = insertionCostsCalculator.getInsertionData(route, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, Double.MAX_VALUE);
+                    routeInsertionData.put(route, iData);
+                }
             }
-            InsertionData iData = insertionCostsCalculator.getInsertionData(route, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, benchmark);
             if (iData instanceof InsertionData.NoInsertionFound) {
                 failedConstraintNames.addAll(iData.getFailedConstraintNames());
                 continue;
@@ -183,6 +205,8 @@ public class RegretInsertion extends AbstractInsertionStrategy {
             }
         }
 
+        //a new route that cannot beat the second best alternative changes neither best nor secondBest
+        if (secondBest != null) benchmark = secondBest.getInsertionCost();
         VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
         InsertionData iData = insertionCostsCalculator.getInsertionData(emptyRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, benchmark);
         if (!(iData instanceof InsertionData.NoInsertionFound)) {
@@ -19,16 +19,20 @@
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.DependencyType;
 import com.graphhopper.jsprit.core.problem.job.Break;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -38,6 +42,12 @@ import java.util.concurrent.*;
  * between secondBest and firstBest, plus additional scoring variables that can defined in this.ScoringFunction.
  * The idea is that if the cost of the secondBest alternative is way higher than the first best, it seems to be important to insert this
  * customer immediatedly. If difference is not that high, it might not impact solution if this customer is inserted later.
+ * <p>
+ * <p>The insertion data of each job and route is kept during a recreate. After an insertion, only the insertion data of the modified
+ * route is recalculated. All routes are re-evaluated if the insertion opened a new route or switched the vehicle of a route (since this
+ * changes the available vehicles) and for jobs whose dependency type (see setDependencyTypes(...)) is INTRA_ROUTE or INTER_ROUTE.
+ * Since kept insertion data is reused in later rounds, it is calculated without benchmark, i.e. the insertion costs calculator cannot
+ * skip routes by a lower bound of their insertion costs (see InsertionBuilder.setLowerBoundPruning(...)).
  *
  * @author stefan schroeder
  */
@@ -50,7 +60,11 @@ public class RegretInsertionConcurrent extends AbstractInsertionStrategy {
 
     private final JobInsertionCostsCalculator insertionCostsCalculator;
 
-    private final ExecutorCompletionService<ScoredJob> completionService;
+    private final ExecutorService executor;
+
+    private DependencyType[] dependencyTypes;
+
+    private Map<VehicleRoute, InsertionData>[] routeInsertionData;
 
     /**
      * Sets the scoring function.
@@ -68,7 +82,7 @@ public class RegretInsertionConcurrent extends AbstractInsertionStrategy {
         this.scoringFunction = new DefaultScorer(vehicleRoutingProblem);
         this.insertionCostsCalculator = jobInsertionCalculator;
         this.vrp = vehicleRoutingProblem;
-        completionService = new ExecutorCompletionService<>(executorService);
+        this.executor = executorService;
         logger.debug("initialise {}", this);
     }
 
@@ -77,6 +91,10 @@ public class RegretInsertionConcurrent extends AbstractInsertionStrategy {
         return "[name=regretInsertion][additionalScorer=" + scoringFunction + ']';
     }
 
+    public void setDependencyTypes(DependencyType[] dependencyTypes) {
+        this.dependencyTypes = dependencyTypes;
+    }
+
 
     /**
      * Runs insertion.
@@ -110,16 +128,23 @@ public class RegretInsertionConcurrent extends AbstractInsertionStrategy {
         }
 
         List<Job> jobs = new ArrayList<>(unassignedJobs);
+        routeInsertionData = newInsertionDataArray(vrp.jobsInclusiveInitialJobsInRoutes().size() + 2);
+        boolean updateAll = true;
+        VehicleRoute lastModified = null;
         while (!jobs.isEmpty()) {
             List<Job> unassignedJobList = new ArrayList<>(jobs);
             List<ScoredJob> badJobList = new ArrayList<>();
+            invalidate(unassignedJobList, updateAll, lastModified);
             ScoredJob bestScoredJob = nextJob(routes, unassignedJobList, badJobList);
             if (bestScoredJob != null) {
                 if (bestScoredJob.isNewRoute()) {
                     routes.add(bestScoredJob.getRoute());
                 }
+                Vehicle vehicleBefore = bestScoredJob.getRoute().vehicle();
                 insertJob(bestScoredJob.getJob(), bestScoredJob.getInsertionData(), bestScoredJob.getRoute());
                 jobs.remove(bestScoredJob.getJob());
+                lastModified = bestScoredJob.getRoute();
+                updateAll = bestScoredJob.isNewRoute() || vehicleBefore != lastModified.vehicle();
             }
             for (ScoredJob bad : badJobList) {
                 Job unassigned = bad.getJob();
@@ -128,43 +153,99 @@ public class RegretInsertionConcurrent extends AbstractInsertionStrategy {
                 markUnassigned(unassigned, bad.getInsertionData().getFailedConstraintNames());
             }
         }
+        routeInsertionData = null;
         return badJobs;
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<VehicleRoute, InsertionData>[] newInsertionDataArray(int length) {
+        return new Map[length];
+    }
+
+    private void invalidate(Iterable<Job> unassignedJobList, boolean updateAll, VehicleRoute lastModified) {
+        for (Job job : unassignedJobList) {
+            Map<VehicleRoute, InsertionData> insertionData = routeInsertionData[job.index()];
+            if (insertionData == null) {
+                routeInsertionData[job.index()] = new IdentityHashMap<>();
+            } else if (updateAll || dependsOnOtherJobs(job)) {
+                insertionData.clear();
+            } else {
+                insertionData.remove(lastModified);
+            }
+        }
+    }
+
+    private boolean dependsOnOtherJobs(Job job) {
+        if (dependencyTypes == null || job.index() >= dependencyTypes.length) return false;
+        DependencyType dependencyType = dependencyTypes[job.index()];
+        return dependencyType == DependencyType.INTER_ROUTE || dependencyType == DependencyType.INTRA_ROUTE;
+    }
+
     private ScoredJob nextJob(final Collection<VehicleRoute> routes, Collection<Job> unassignedJobList, Collection<ScoredJob> badJobList) {
         ScoredJob bestScoredJob = null;
 
+        List<Callable<ScoredJob>> tasks = new ArrayList<>(unassignedJobList.size());
         for (final Job unassignedJob : unassignedJobList) {
-            completionService.submit(() -> RegretInsertion.getScoredJob(routes, unassignedJob, insertionCostsCalculator, scoringFunction));
+            final Map<VehicleRoute, InsertionData> insertionData = routeInsertionData[unassignedJob.index()];
+            tasks.add(() -> RegretInsertion.getScoredJob(routes, unassignedJob, insertionCostsCalculator, scoringFunction, insertionData));
         }
 
-        try {
-            for (int i = 0; i < unassignedJobList.size(); i++) {
-                Future<ScoredJob> fsj = completionService.take();
-                ScoredJob sJob = fsj.get();
-                if (sJob instanceof ScoredJob.BadJob) {
-                    badJobList.add(sJob);
-                    continue;
-                }
-                if (bestScoredJob == null) {
-                    bestScoredJob = sJob;
-                } else if (sJob.getScore() > bestScoredJob.getScore()) {
+        //results are collected in the order of the unassigned jobs (and not in the order of completion) to be reproducible
+        for (ScoredJob sJob : scoreJobs(tasks)) {
+            if (sJob instanceof ScoredJob.BadJob) {
+                badJobList.add(sJob);
+                continue;
+            }
+            if (bestScoredJob == null) {
+                bestScoredJob = sJob;
+            } else if (sJob.getScore() > bestScoredJob.getScore()) {
+                bestScoredJob = sJob;
+            } else if (sJob.getScore() == bestScoredJob.getScore()) {
+                if (sJob.getJob().id().compareTo(bestScoredJob.getJob().id()) <= 0) {
                     bestScoredJob = sJob;
-                } else if (sJob.getScore() == bestScoredJob.getScore()) {
-                    if (sJob.getJob().id().compareTo(bestScoredJob.getJob().id()) <= 0) {
-                        bestScoredJob = sJob;
-                    }
                 }
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
         }
 
         return bestScoredJob;
     }
 
+    /**
+     * Scores the jobs on the executor and returns the scored jobs in the order of the tasks. Since every job needs to be either
+     * inserted or marked as bad job, an interrupt does not abandon running tasks (which modify the kept insertion data) but is
+     * re-set once they are done. Once interrupted, jobs are scored on the calling thread.
+     */
+    private List<ScoredJob> scoreJobs(List<Callable<ScoredJob>> tasks) {
+        List<ScoredJob> scoredJobs = new ArrayList<>(tasks.size());
+        if (Thread.currentThread().isInterrupted()) {
+            for (Callable<ScoredJob> task : tasks) {
+                try {
+                    scoredJobs.add(task.call());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return scoredJobs;
+        }
+        List<Future<ScoredJob>> futures = new ArrayList<>(tasks.size());
+        for (Callable<ScoredJob> task : tasks) futures.add(executor.submit(task));
+        boolean interrupted = false;
+        for (Future<ScoredJob> future : futures) {
+            while (true) {
+                try {
+                    scoredJobs.add(future.get());
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return scoredJobs;
+    }
+
     private static VehicleRoute findRoute(Iterable<VehicleRoute> routes, Job job) {
         for(VehicleRoute r : routes){
             if(r.vehicle().aBreak() == job) return r;
@@ -137,7 +137,7 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
         }
 
         List<Job> jobs = new ArrayList<>(unassignedJobs);
-        TreeSet<VersionedInsertionData>[] priorityQueues = new TreeSet[vrp.jobs().values().size() + 2];
+        InsertionDataQueue[] priorityQueues = new InsertionDataQueue[vrp.jobs().values().size() + 2];
         VehicleRoute lastModified = null;
         boolean firstRun = true;
         int updateRound = 0;
@@ -169,12 +169,12 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
         return badJobs;
     }
 
-    private void updateInsertionData(final TreeSet<VersionedInsertionData>[] priorityQueues, final Collection<VehicleRoute> routes, Iterable<Job> unassignedJobList, final int updateRound, final boolean firstRun, final VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
+    private void updateInsertionData(final InsertionDataQueue[] priorityQueues, final Collection<VehicleRoute> routes, Iterable<Job> unassignedJobList, final int updateRound, final boolean firstRun, final VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
         List<Callable<Boolean>> tasks = new ArrayList<>();
         boolean updatedAllRoutes = false;
         for (final Job unassignedJob : unassignedJobList) {
             if(priorityQueues[unassignedJob.index()] == null){
-                priorityQueues[unassignedJob.index()] = new TreeSet<>(InsertionDataUpdater.getComparator());
+                priorityQueues[unassignedJob.index()] = new InsertionDataQueue();
             }
             if(firstRun) {
                 updatedAllRoutes = true;
@@ -209,7 +209,7 @@ public class RegretInsertionConcurrentFast extends AbstractInsertionStrategy {
         }
     }
 
-    private void makeCallables(Collection<Callable<Boolean>> tasks, boolean updateAll, final TreeSet<VersionedInsertionData> priorityQueue, final int updateRound, final Job unassignedJob, final Collection<VehicleRoute> routes, final VehicleRoute lastModified) {
+    private void makeCallables(Collection<Callable<Boolean>> tasks, boolean updateAll, final InsertionDataQueue priorityQueue, final int updateRound, final Job unassignedJob, final Collection<VehicleRoute> routes, final VehicleRoute lastModified) {
         if(updateAll) {
             tasks.add(() -> InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueue, updateRound, unassignedJob, routes));
         }
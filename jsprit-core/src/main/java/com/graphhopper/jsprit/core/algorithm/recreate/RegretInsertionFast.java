@@ -127,7 +127,7 @@ public class RegretInsertionFast extends AbstractInsertionStrategy {
 //        }
 
         List<Job> jobs = new ArrayList<>(unassignedJobs);
-        TreeSet<VersionedInsertionData>[] priorityQueues = new TreeSet[vrp.jobs().values().size() + 2];
+        InsertionDataQueue[] priorityQueues = new InsertionDataQueue[vrp.jobs().values().size() + 2];
         VehicleRoute lastModified = null;
         boolean firstRun = true;
         int updateRound = 0;
@@ -166,10 +166,10 @@ public class RegretInsertionFast extends AbstractInsertionStrategy {
         return badJobs;
     }
 
-    private void updateInsertionData(TreeSet<VersionedInsertionData>[] priorityQueues, Collection<VehicleRoute> routes, Iterable<Job> unassignedJobList, int updateRound, boolean firstRun, VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
+    private void updateInsertionData(InsertionDataQueue[] priorityQueues, Collection<VehicleRoute> routes, Iterable<Job> unassignedJobList, int updateRound, boolean firstRun, VehicleRoute lastModified, Map<VehicleRoute, Integer> updates) {
         for (Job unassignedJob : unassignedJobList) {
             if(priorityQueues[unassignedJob.index()] == null){
-                priorityQueues[unassignedJob.index()] = new TreeSet<>(InsertionDataUpdater.getComparator());
+                priorityQueues[unassignedJob.index()] = new InsertionDataQueue();
             }
             if(firstRun) {
                 InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueues[unassignedJob.index()], updateRound, unassignedJob, routes);
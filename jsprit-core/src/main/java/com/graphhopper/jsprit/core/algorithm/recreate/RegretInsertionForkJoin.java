@@ -0,0 +1,266 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.DependencyType;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Insertion based on regret approach that runs each round as a single fork/join computation.
+ * <p>
+ * <p>Produces the same insertions as RegretInsertionConcurrentFast. However, unassigned jobs are split into chunks that are
+ * processed by work-stealing tasks and each task both updates the insertion data of its jobs and scores them. The best scored job
+ * is then determined by a parallel reduction of the chunk results instead of scanning all jobs on the calling thread. Ties are
+ * resolved in favour of the job that comes first in the list of unassigned jobs, i.e. as in the serial variant.
+ *
+ * @author schroeder
+ */
+public class RegretInsertionForkJoin extends AbstractInsertionStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegretInsertionForkJoin.class);
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static class RoundResult {
+
+        private ScoredJob best;
+
+        private final List<ScoredJob> badJobs = new ArrayList<>();
+
+        private void add(ScoredJob scoredJob) {
+            if (scoredJob instanceof ScoredJob.BadJob) badJobs.add(scoredJob);
+            else if (best == null || scoredJob.getScore() > best.getScore()) best = scoredJob;
+        }
+
+        private RoundResult merge(RoundResult right) {
+            if (right.best != null && (best == null || right.best.getScore() > best.getScore())) best = right.best;
+            badJobs.addAll(right.badJobs);
+            return this;
+        }
+    }
+
+    private class RoundTask extends RecursiveTask<RoundResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Job[] jobs;
+
+        private final int from;
+
+        private final int to;
+
+        private final Round round;
+
+        RoundTask(Job[] jobs, int from, int to, Round round) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.round = round;
+        }
+
+        @Override
+        protected RoundResult compute() {
+            if (to - from <= round.chunkSize) {
+                RoundResult result = new RoundResult();
+                for (int i = from; i < to; i++) result.add(updateAndScore(jobs[i], round));
+                return result;
+            }
+            int mid = (from + to) >>> 1;
+            RoundTask left = new RoundTask(jobs, from, mid, round);
+            left.fork();
+            RoundResult rightResult = new RoundTask(jobs, mid, to, round).compute();
+            return left.join().merge(rightResult);
+        }
+    }
+
+    private static class Round {
+
+        private final Collection<VehicleRoute> routes;
+
+        private final int updateRound;
+
+        private final int chunkSize;
+
+        Round(Collection<VehicleRoute> routes, int updateRound, int chunkSize) {
+            this.routes = routes;
+            this.updateRound = updateRound;
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    private ScoringFunction scoringFunction;
+
+    private final JobInsertionCostsCalculator insertionCostsCalculator;
+
+    private final ForkJoinPool pool;
+
+    private final VehicleFleetManager fleetManager;
+
+    private final Set<String> initialVehicleIds;
+
+    private boolean switchAllowed = true;
+
+    private DependencyType[] dependencyTypes;
+
+    private InsertionDataQueue[] priorityQueues;
+
+    private Map<VehicleRoute, Integer> updates;
+
+    public RegretInsertionForkJoin(JobInsertionCostsCalculator jobInsertionCalculator, VehicleRoutingProblem vehicleRoutingProblem, ForkJoinPool pool, VehicleFleetManager fleetManager) {
+        super(vehicleRoutingProblem);
+        this.scoringFunction = new DefaultScorer(vehicleRoutingProblem);
+        this.insertionCostsCalculator = jobInsertionCalculator;
+        this.vrp = vehicleRoutingProblem;
+        this.pool = pool;
+        this.fleetManager = fleetManager;
+        this.initialVehicleIds = new HashSet<>();
+        for (VehicleRoute r : vehicleRoutingProblem.initialVehicleRoutes()) {
+            initialVehicleIds.add(r.vehicle().id());
+        }
+        logger.debug("initialise {}", this);
+    }
+
+    /**
+     * Sets the scoring function.
+     * <p>
+     * <p>By default, the this.TimeWindowScorer is used.
+     *
+     * @param scoringFunction to score
+     */
+    public void setScoringFunction(ScoringFunction scoringFunction) {
+        this.scoringFunction = scoringFunction;
+    }
+
+    public void setSwitchAllowed(boolean switchAllowed) {
+        this.switchAllowed = switchAllowed;
+    }
+
+    public void setDependencyTypes(DependencyType[] dependencyTypes) {
+        this.dependencyTypes = dependencyTypes;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=regretInsertionForkJoin][additionalScorer=" + scoringFunction + ']';
+    }
+
+    /**
+     * Runs insertion.
+     * <p>
+     * <p>Before inserting a job, all unassigned jobs are scored according to its best- and secondBest-insertion plus additional scoring variables.
+     */
+    @Override
+    public Collection<Job> insertUnassignedJobs(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+        Collection<Job> badJobs = new ArrayList<>(unassignedJobs.size());
+
+        Iterator<Job> jobIterator = unassignedJobs.iterator();
+        while (jobIterator.hasNext()) {
+            Job job = jobIterator.next();
+            if (job instanceof Break) {
+                VehicleRoute route = InsertionDataUpdater.findRoute(routes, job);
+                if (route == null) {
+                    badJobs.add(job);
+                } else {
+                    InsertionData iData = insertionCostsCalculator.getInsertionData(route, job, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, Double.MAX_VALUE);
+                    if (iData instanceof InsertionData.NoInsertionFound) {
+                        badJobs.add(job);
+                    } else {
+                        insertJob(job, iData, route);
+                    }
+                }
+                jobIterator.remove();
+            }
+        }
+
+        List<Job> jobs = new ArrayList<>(unassignedJobs);
+        priorityQueues = new InsertionDataQueue[vrp.jobs().values().size() + 2];
+        updates = new HashMap<>();
+        VehicleRoute lastModified = null;
+        boolean firstRun = true;
+        int updateRound = 0;
+        while (!jobs.isEmpty()) {
+            Job[] unassignedJobArr = jobs.toArray(new Job[0]);
+            boolean updateAll = firstRun || hasDependentJob(unassignedJobArr);
+            Collection<VehicleRoute> routesToUpdate;
+            if (updateAll) {
+                routesToUpdate = routes;
+                for (VehicleRoute r : routes) updates.put(r, updateRound);
+            } else {
+                routesToUpdate = Collections.singletonList(lastModified);
+                updates.put(lastModified, updateRound);
+            }
+            int chunkSize = Math.max(1, unassignedJobArr.length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+            RoundResult result = pool.invoke(new RoundTask(unassignedJobArr, 0, unassignedJobArr.length, new Round(routesToUpdate, updateRound, chunkSize)));
+            firstRun = false;
+            updateRound++;
+            ScoredJob bestScoredJob = result.best;
+            if (bestScoredJob != null) {
+                if (bestScoredJob.isNewRoute()) {
+                    routes.add(bestScoredJob.getRoute());
+                }
+                insertJob(bestScoredJob.getJob(), bestScoredJob.getInsertionData(), bestScoredJob.getRoute());
+                jobs.remove(bestScoredJob.getJob());
+                lastModified = bestScoredJob.getRoute();
+            } else lastModified = null;
+            for (ScoredJob bad : result.badJobs) {
+                Job unassigned = bad.getJob();
+                jobs.remove(unassigned);
+                badJobs.add(unassigned);
+                markUnassigned(unassigned, bad.getInsertionData().getFailedConstraintNames());
+            }
+            if (!jobs.isEmpty() && lastModified == null) throw new IllegalStateException("ho. this must not be.");
+        }
+        priorityQueues = null;
+        updates = null;
+        return badJobs;
+    }
+
+    /**
+     * If the insertion of one job can change the insertion data of a dependent job in any route, all routes need to be re-evaluated
+     * since route versions are shared by all jobs.
+     */
+    private boolean hasDependentJob(Job[] jobs) {
+        if (dependencyTypes == null) return false;
+        for (Job j : jobs) {
+            DependencyType dependencyType = dependencyTypes[j.index()];
+            if (dependencyType == DependencyType.INTER_ROUTE || dependencyType == DependencyType.INTRA_ROUTE) return true;
+        }
+        return false;
+    }
+
+    private ScoredJob updateAndScore(Job job, Round round) {
+        InsertionDataQueue priorityQueue = priorityQueues[job.index()];
+        if (priorityQueue == null) {
+            priorityQueue = new InsertionDataQueue();
+            priorityQueues[job.index()] = priorityQueue;
+        }
+        InsertionDataUpdater.update(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, priorityQueue, round.updateRound, job, round.routes);
+        return InsertionDataUpdater.scoreJob(switchAllowed, initialVehicleIds, fleetManager, insertionCostsCalculator, scoringFunction, priorityQueue, updates, job);
+    }
+
+}
@@ -19,10 +19,12 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.problem.HasId;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleClasses;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import org.slf4j.Logger;
@@ -55,6 +57,12 @@ final class VehicleTypeDependentJobInsertionCalculator implements JobInsertionCo
      */
     private boolean vehicleSwitchAllowed;
 
+    private InsertionCostLowerBound lowerBound;
+
+    private VehicleClasses vehicleClasses;
+
+    private ConstraintManager compatibilityCheck;
+
     public VehicleTypeDependentJobInsertionCalculator(final VehicleRoutingProblem vrp, final VehicleFleetManager fleetManager, final JobInsertionCostsCalculator jobInsertionCalc) {
         this.fleetManager = fleetManager;
         this.insertionCalculator = jobInsertionCalc;
@@ -93,9 +101,46 @@ final class VehicleTypeDependentJobInsertionCalculator implements JobInsertionCo
         this.vehicleSwitchAllowed = vehicleSwitchAllowed;
     }
 
+    /**
+     * Sets the lower bound that is used to skip vehicles that cannot beat the best known insertion costs. Default is null, i.e. no pruning.
+     *
+     * @param lowerBound the lower bound of insertion costs
+     */
+    void setLowerBound(InsertionCostLowerBound lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * Sets the vehicle classes. If set, alternative vehicles are only evaluated once per class. Default is null, i.e. every vehicle is evaluated.
+     * <p>
+     * <p>The costs of a vehicle v in the same class as vehicle u are the costs of u rescaled by costScale(v) / costScale(u), thus
+     * (assuming non-negative transport and activity costs) only the vehicle with the lowest cost scale of each class can be the best.
+     * This requires that neither hard nor soft constraints distinguish vehicles of the same class.
+     *
+     * @param vehicleClasses the vehicle classes
+     */
+    void setVehicleClasses(VehicleClasses vehicleClasses) {
+        this.vehicleClasses = vehicleClasses;
+    }
+
+    /**
+     * Sets the constraint manager whose precomputed job vehicle compatibility (see ConstraintManager.isCompatible(...)) is checked
+     * before a vehicle is passed to the insertion calculator. Default is null, i.e. every vehicle is passed.
+     *
+     * @param constraintManager the constraint manager
+     */
+    void setCompatibilityCheck(ConstraintManager constraintManager) {
+        this.compatibilityCheck = constraintManager;
+    }
+
     @Override
     public InsertionData getInsertionData(final VehicleRoute currentRoute, final Job jobToInsert, final Vehicle vehicle, double newVehicleDepartureTime, final Driver driver, final double bestKnownCost) {
         if(vehicle != null){
+            if (isIncompatible(jobToInsert, vehicle)) {
+                InsertionData noInsertion = new InsertionData.NoInsertionFound();
+                noInsertion.addFailedConstrainName(compatibilityCheck.getIncompatibleConstraintName(jobToInsert, vehicle));
+                return noInsertion;
+            }
             return insertionCalculator.getInsertionData(currentRoute, jobToInsert, vehicle, newVehicleDepartureTime, driver, bestKnownCost);
         }
         Vehicle selectedVehicle = currentRoute.vehicle();
@@ -111,9 +156,15 @@ final class VehicleTypeDependentJobInsertionCalculator implements JobInsertionCo
         } else { //if no vehicle has been assigned, i.e. it is an empty route
             relevantVehicles.addAll(fleetManager.vehiclesAvailable());
         }
+        if (vehicleClasses != null) relevantVehicles = cheapestPerClass(relevantVehicles, selectedVehicle);
         for (Vehicle v : relevantVehicles) {
             double depTime;
             depTime = v == selectedVehicle ? currentRoute.getDepartureTime() : v.earliestDeparture();
+            if (isIncompatible(jobToInsert, v)) {
+                bestIData.addFailedConstrainName(compatibilityCheck.getIncompatibleConstraintName(jobToInsert, v));
+                continue;
+            }
+            if (isPrunable(currentRoute, jobToInsert, v, bestKnownCost_)) continue;
             InsertionData iData = insertionCalculator.getInsertionData(currentRoute, jobToInsert, v, depTime, selectedDriver, bestKnownCost_);
             if (iData instanceof InsertionData.NoInsertionFound) {
                 bestIData.getFailedConstraintNames().addAll(iData.getFailedConstraintNames());
@@ -127,6 +178,41 @@ final class VehicleTypeDependentJobInsertionCalculator implements JobInsertionCo
         return bestIData;
     }
 
+    private Collection<Vehicle> cheapestPerClass(Collection<Vehicle> vehicles, Vehicle selectedVehicle) {
+        Vehicle[] cheapest = new Vehicle[vehicleClasses.size()];
+        for (Vehicle v : vehicles) {
+            //the route's own vehicle departs at a different time, thus it is never compared to the others
+            if (v == selectedVehicle) continue;
+            int vehicleClass = vehicleClasses.classOf(v);
+            if (vehicleClass == VehicleClasses.NO_CLASS) continue;
+            if (cheapest[vehicleClass] == null || vehicleClasses.costScale(v) < vehicleClasses.costScale(cheapest[vehicleClass])) {
+                cheapest[vehicleClass] = v;
+            }
+        }
+        Collection<Vehicle> relevantVehicles = new ArrayList<>();
+        for (Vehicle v : vehicles) {
+            int vehicleClass = vehicleClasses.classOf(v);
+            if (v == selectedVehicle || vehicleClass == VehicleClasses.NO_CLASS || cheapest[vehicleClass] == v) {
+                relevantVehicles.add(v);
+            }
+        }
+        return relevantVehicles;
+    }
+
+    private boolean isIncompatible(Job job, Vehicle vehicle) {
+        return compatibilityCheck != null && !compatibilityCheck.isCompatible(job, vehicle);
+    }
+
+    /**
+     * A vehicle can be skipped if it either operates the route already or the route is empty (otherwise access/egress
+     * of a vehicle switch might reduce costs) and the lower bound of the insertion costs cannot beat bestKnownCost.
+     */
+    private boolean isPrunable(VehicleRoute route, Job job, Vehicle vehicle, double bestKnownCost) {
+        if (lowerBound == null || bestKnownCost == Double.MAX_VALUE || Double.isInfinite(bestKnownCost)) return false;
+        if (!route.isEmpty() && vehicle != route.vehicle()) return false;
+        return lowerBound.getLowerBound(route, job, vehicle) > bestKnownCost;
+    }
+
     VehicleFleetManager getFleetManager(){
         return fleetManager;
     }
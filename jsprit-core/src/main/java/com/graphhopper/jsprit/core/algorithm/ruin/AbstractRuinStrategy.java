@@ -42,6 +42,10 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
 
     protected final VehicleRoutingProblem vrp;
 
+    private JobRouteIndex jobRouteIndex;
+
+    private Iterable<VehicleRoute> indexedRoutes;
+
     public void setRandom(Random random) {
         this.random = random;
     }
@@ -64,7 +68,13 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
     @Override
     public Collection<Job> ruin(Collection<VehicleRoute> vehicleRoutes) {
         ruinListeners.ruinStarts(vehicleRoutes);
-        Collection<Job> unassigned = ruinRoutes(vehicleRoutes);
+        Collection<Job> unassigned;
+        try {
+            unassigned = ruinRoutes(vehicleRoutes);
+        } finally {
+            jobRouteIndex = null;
+            indexedRoutes = null;
+        }
         logger.trace("ruin: [ruined={}]", unassigned.size());
         ruinListeners.ruinEnds(vehicleRoutes, unassigned);
         return unassigned;
@@ -89,12 +99,24 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
 
     protected boolean removeJob(Job job, Iterable<VehicleRoute> vehicleRoutes) {
         if (jobIsInitial(job)) return false;
-        for (VehicleRoute route : vehicleRoutes) {
-            if (removeJob(job, route)) {
-                return true;
-            }
+        VehicleRoute route = routeOf(job, vehicleRoutes);
+        return route != null && removeJob(job, route);
+    }
+
+    /**
+     * Returns the route serving the specified job. Within a ruin, routes are looked up in an index that is built on first request
+     * and maintained by removeJob(...), i.e. in constant time.
+     *
+     * @param job           the job
+     * @param vehicleRoutes the routes to be searched
+     * @return the route serving job or null if job is not served by any route
+     */
+    protected VehicleRoute routeOf(Job job, Iterable<VehicleRoute> vehicleRoutes) {
+        if (jobRouteIndex == null || indexedRoutes != vehicleRoutes) {
+            jobRouteIndex = new JobRouteIndex(vehicleRoutes);
+            indexedRoutes = vehicleRoutes;
         }
-        return false;
+        return jobRouteIndex.routeOf(job);
     }
 
     private boolean jobIsInitial(HasId job) {
@@ -105,6 +127,7 @@ public abstract class AbstractRuinStrategy implements RuinStrategy {
         if (jobIsInitial(job)) return false;
         boolean removed = route.tourActivities().removeJob(job);
         if (removed) {
+            if (jobRouteIndex != null) jobRouteIndex.removed(job);
             logger.trace("ruin: {}", job.id());
             ruinListeners.removed(job, route);
             return true;
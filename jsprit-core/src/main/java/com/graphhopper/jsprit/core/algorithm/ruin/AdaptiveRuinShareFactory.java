@@ -0,0 +1,167 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Ruin share factory that adapts the number of jobs to be removed to the progress of the search.
+ * <p>
+ * <p>The number is drawn uniformly from [minShare,upper], where upper starts at maxShare and shrinks linearly to
+ * minShare + finalShareFactor * (maxShare - minShare) as the search progresses. Progress is the share of iterations done.
+ * Furthermore, upper is scaled by the recent improvement rate, i.e. the exponentially smoothed share of iterations that improved
+ * the best solution: it is halved if the search improves at least at targetImprovementRate and increased by half if the search
+ * stagnates, but never beyond maxShare. Finally, the number never exceeds maxJobs, so that ruins (and thus recreates) stay cheap
+ * on large instances.
+ * <p>
+ * <p>It needs to be registered as listener of the algorithm.
+ *
+ * @author schroeder
+ */
+public class AdaptiveRuinShareFactory implements RuinShareFactory, AlgorithmStartsListener, IterationEndsListener {
+
+    private static final double SMOOTHING = 0.05;
+
+    private final int minShare;
+
+    private final int maxShare;
+
+    private Random random = RandomNumberGeneration.getRandom();
+
+    private int maxJobs = Integer.MAX_VALUE;
+
+    private double finalShareFactor = 0.3;
+
+    private double targetImprovementRate = 0.05;
+
+    private int maxIterations;
+
+    private int iteration;
+
+    private double bestCost = Double.POSITIVE_INFINITY;
+
+    private double improvementRate;
+
+    public AdaptiveRuinShareFactory(int minShare, int maxShare) {
+        if (maxShare < minShare)
+            throw new IllegalArgumentException("maxShare must be equal or greater than minShare");
+        this.minShare = minShare;
+        this.maxShare = maxShare;
+        this.improvementRate = targetImprovementRate / 2.;
+    }
+
+    public AdaptiveRuinShareFactory(int minShare, int maxShare, Random random) {
+        this(minShare, maxShare);
+        this.random = random;
+    }
+
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Sets the max. number of jobs to be removed regardless of shares and progress.
+     *
+     * @param maxJobs max. number of jobs to be removed
+     */
+    public void setMaxJobs(int maxJobs) {
+        if (maxJobs < 1) throw new IllegalArgumentException("maxJobs must be at least 1");
+        this.maxJobs = maxJobs;
+    }
+
+    /**
+     * Sets the share of (maxShare - minShare) the upper bound shrinks to at the end of the search (default is 0.3).
+     *
+     * @param finalShareFactor factor in [0,1]
+     */
+    public void setFinalShareFactor(double finalShareFactor) {
+        if (finalShareFactor < 0. || finalShareFactor > 1.)
+            throw new IllegalArgumentException("finalShareFactor must be in [0,1]");
+        this.finalShareFactor = finalShareFactor;
+    }
+
+    /**
+     * Sets the improvement rate above which ruins are kept small (default is 0.05).
+     *
+     * @param targetImprovementRate share of improving iterations
+     */
+    public void setTargetImprovementRate(double targetImprovementRate) {
+        if (targetImprovementRate <= 0. || targetImprovementRate > 1.)
+            throw new IllegalArgumentException("targetImprovementRate must be in (0,1]");
+        this.targetImprovementRate = targetImprovementRate;
+        this.improvementRate = targetImprovementRate / 2.;
+    }
+
+    @Override
+    public int createNumberToBeRemoved() {
+        double upper = minShare + (maxShare - minShare) * progressScale() * improvementScale();
+        upper = Math.min(maxJobs, Math.max(minShare, Math.min(maxShare, upper)));
+        int lower = Math.min(minShare, maxJobs);
+        return (int) (lower + (upper - lower) * random.nextDouble());
+    }
+
+    @Override
+    public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+        maxIterations = algorithm.getMaxIterations();
+        iteration = 0;
+        bestCost = Double.POSITIVE_INFINITY;
+        improvementRate = targetImprovementRate / 2.;
+    }
+
+    @Override
+    public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        iteration = i;
+        double cost = Double.POSITIVE_INFINITY;
+        for (VehicleRoutingProblemSolution solution : solutions) cost = Math.min(cost, solution.cost());
+        boolean improved = cost < bestCost;
+        if (improved && bestCost != Double.POSITIVE_INFINITY) {
+            improvementRate += SMOOTHING * (1. - improvementRate);
+        } else improvementRate -= SMOOTHING * improvementRate;
+        bestCost = Math.min(bestCost, cost);
+    }
+
+    /**
+     * @return progress of the search in [0,1]
+     */
+    double progress() {
+        double progress = maxIterations > 0 ? (double) iteration / maxIterations : 0.;
+        return Math.min(1., progress);
+    }
+
+    private double progressScale() {
+        return 1. - (1. - finalShareFactor) * progress();
+    }
+
+    private double improvementScale() {
+        return 1.5 - Math.min(1., improvementRate / targetImprovementRate);
+    }
+
+    @Override
+    public String toString() {
+        return "[name=adaptiveRuinShare][minShare=" + minShare + "][maxShare=" + maxShare + "][maxJobs=" + maxJobs + ']';
+    }
+
+}
@@ -20,113 +20,109 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.Location;
-import com.graphhopper.jsprit.core.problem.cost.ForwardTransportCost;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.JobActivity;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.RandomUtils;
-import org.apache.commons.math3.ml.clustering.Cluster;
-import org.apache.commons.math3.ml.clustering.Clusterable;
-import org.apache.commons.math3.ml.distance.DistanceMeasure;
 
 import java.util.*;
 
 /**
+ * Clusters the jobs of a route with DBSCAN.
+ * <p>
+ * <p>The distance between two jobs is the average transport cost between their locations. Distances are calculated once per
+ * set of jobs into a primitive matrix, and matrices of recently clustered routes are cached, i.e. routes that have not changed
+ * since they have been clustered before (e.g. copies of a route in a later iteration) are clustered without calculating any
+ * transport cost. Unless epsDistance is set, epsilon is (avg - min) * epsFactor where avg and min are the average and the
+ * minimum distance between two different jobs of the route.
+ * <p>
+ * <p>This is not thread-safe.
+ *
  * Created by schroeder on 04/02/15.
  */
 public class DBSCANClusterer {
 
-    private static class LocationWrapper implements Clusterable {
+    private static final long MAX_CACHED_DISTANCES = 1 << 22;
 
-        private static int objCounter;
+    private static final int NOISE = -1;
 
-        public final Job job;
+    private static final int UNVISITED = 0;
 
-        public final List<Location> locations;
+    private static final int CLUSTERED = 1;
 
-        private final int id;
+    /**
+     * Distances between the jobs of a route, i.e. distances[i * jobs.length + j] is the distance from jobs[i] to jobs[j].
+     */
+    private static class RouteDistances {
 
-        public LocationWrapper(Job job, List<Location> locations) {
-            this.locations = locations;
-            objCounter++;
-            this.job = job;
-            this.id = objCounter;
-        }
+        private final Job[] jobs;
 
-//        private List<Location> getLocations(Job job){
-//            List<Location> locs = new ArrayList<Location>();
-//            if(job instanceof Service) {
-//                locs.add(((Service) job).getLocation());
-//            }
-//            else if(job instanceof Shipment){
-//                locs.add(((Shipment) job).getPickupLocation());
-//                locs.add(((Shipment) job).getDeliveryLocation());
-//            }
-//            return locs;
-//        }
-
-        public List<Location> locations() {
-            return locations;
-        }
+        private final double[] distances;
 
-        @Override
-        public double[] getPoint() {
-            return new double[]{id};
-        }
+        private final double avgDistance;
 
-        public Job job() {
-            return job;
+        private final double minDistance;
+
+        RouteDistances(Job[] jobs, double[] distances, double avgDistance, double minDistance) {
+            this.jobs = jobs;
+            this.distances = distances;
+            this.avgDistance = avgDistance;
+            this.minDistance = minDistance;
         }
+
     }
 
-    private static class MyDistance implements DistanceMeasure {
+    /**
+     * Identifies a route by the indices of its jobs in the order they occur.
+     */
+    private static class RouteKey {
 
-        private final Map<Integer, LocationWrapper> locations;
+        private final int[] jobIndices;
 
-        private final VehicleRoutingTransportCosts costs;
+        private final int hash;
 
-        public MyDistance(Iterable<LocationWrapper> locations, VehicleRoutingTransportCosts costs) {
-            this.locations = new HashMap<>();
-            for (LocationWrapper lw : locations) {
-                this.locations.put((int) Math.round(lw.getPoint()[0]), lw);
-            }
-            this.costs = costs;
+        RouteKey(int[] jobIndices) {
+            this.jobIndices = jobIndices;
+            this.hash = Arrays.hashCode(jobIndices);
         }
 
         @Override
-        public double compute(double[] a, double[] b) {
-            LocationWrapper l1 = locations.get((int) Math.round(a[0]));
-            LocationWrapper l2 = locations.get((int) Math.round(b[0]));
-            int count = 0;
-            double sum = 0;
-            List<Location> locations1 = l1.locations;
-            for (int i = 0, locations1Size = locations1.size(); i < locations1Size; i++) {
-                Location loc_1 = locations1.get(i);
-                List<Location> locations2 = l2.locations;
-                for (int i1 = 0, locations2Size = locations2.size(); i1 < locations2Size; i1++) {
-                    Location loc_2 = locations2.get(i1);
-                    sum += costs.transportCost(loc_1, loc_2, 0, null, null);
-                    count++;
-                }
-            }
-            return sum / count;
+        public int hashCode() {
+            return hash;
         }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RouteKey && Arrays.equals(jobIndices, ((RouteKey) obj).jobIndices);
+        }
+
     }
 
     private final VehicleRoutingTransportCosts costs;
 
     private int minNoOfJobsInCluster = 1;
 
-    private final int noDistanceSamples = 10;
-
     private double epsFactor = 0.8;
 
     private Double epsDistance;
 
     private Random random = RandomNumberGeneration.getRandom();
 
+    private long noCachedDistances;
+
+    private final LinkedHashMap<RouteKey, RouteDistances> cache = new LinkedHashMap<RouteKey, RouteDistances>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RouteKey, RouteDistances> eldest) {
+            if (noCachedDistances <= MAX_CACHED_DISTANCES) return false;
+            noCachedDistances -= eldest.getValue().distances.length;
+            return true;
+        }
+
+    };
+
     public void setRandom(Random random) {
         this.random = random;
     }
@@ -148,72 +144,132 @@ public class DBSCANClusterer {
     }
 
     public List<List<Job>> getClusters(VehicleRoute route) {
-        List<LocationWrapper> locations = getLocationWrappers(route);
-        List<Cluster<LocationWrapper>> clusterResults = getClusters(route, locations);
-        return makeList(clusterResults);
+        if (route.isEmpty()) return new ArrayList<>();
+        return cluster(getDistances(route));
+    }
+
+    public List<Job> getRandomCluster(VehicleRoute route) {
+        if (route.isEmpty()) return Collections.emptyList();
+        List<List<Job>> clusters = getClusters(route);
+        if (clusters.isEmpty()) return Collections.emptyList();
+        return RandomUtils.nextItem(clusters, random);
     }
 
-    private static List<LocationWrapper> getLocationWrappers(VehicleRoute route) {
-        List<LocationWrapper> locations = new ArrayList<>(route.tourActivities().jobs().size());
-        Map<Job, ArrayList<Location>> jobs2locations = new HashMap<>();
+    private RouteDistances getDistances(VehicleRoute route) {
+        Map<Job, List<Location>> jobLocations = new LinkedHashMap<>();
         for (AbstractActivity act : route.activities()) {
             if (act instanceof JobActivity) {
-                jobs2locations.computeIfAbsent(((JobActivity) act).job(), (x)->new ArrayList<>()).add(act.location());
+                jobLocations.computeIfAbsent(((JobActivity) act).job(), j -> new ArrayList<>(2)).add(act.location());
             }
         }
-        for (Map.Entry<Job, ArrayList<Location>> jobListEntry : jobs2locations.entrySet()) {
-            locations.add(new LocationWrapper(jobListEntry.getKey(), jobListEntry.getValue()));
-        }
-        return locations;
-    }
-
-    private List<Cluster<LocationWrapper>> getClusters(VehicleRoute route, List<LocationWrapper> locations) {
-        double sampledDistance;
-        sampledDistance = epsDistance != null ? epsDistance : Math.max(0, sample(costs, route));
-        org.apache.commons.math3.ml.clustering.DBSCANClusterer<LocationWrapper> clusterer = new org.apache.commons.math3.ml.clustering.DBSCANClusterer<>(sampledDistance, minNoOfJobsInCluster, new MyDistance(locations, costs));
-        return clusterer.cluster(locations);
+        Job[] jobs = jobLocations.keySet().toArray(new Job[0]);
+        int[] jobIndices = new int[jobs.length];
+        for (int i = 0; i < jobs.length; i++) jobIndices[i] = jobs[i].index();
+        RouteKey key = new RouteKey(jobIndices);
+        RouteDistances routeDistances = cache.get(key);
+        if (routeDistances != null && sameJobs(routeDistances.jobs, jobs)) return routeDistances;
+        routeDistances = calculateDistances(jobs, jobLocations);
+        RouteDistances previous = cache.put(key, routeDistances);
+        if (previous != null) noCachedDistances -= previous.distances.length;
+        noCachedDistances += routeDistances.distances.length;
+        return routeDistances;
     }
 
-    private static List<List<Job>> makeList(Iterable<Cluster<LocationWrapper>> clusterResults) {
-        List<List<Job>> l = new ArrayList<>();
-        for (Cluster<LocationWrapper> c : clusterResults) {
-            List<Job> l_ = getJobList(c);
-            l.add(l_);
+    private static boolean sameJobs(Job[] jobs, Job[] otherJobs) {
+        for (int i = 0; i < jobs.length; i++) {
+            if (jobs[i] != otherJobs[i]) return false;
         }
-        return l;
+        return true;
     }
 
-    private static List<Job> getJobList(Cluster<LocationWrapper> c) {
-        List<Job> l_ = new ArrayList<>();
-        if (c == null) return l_;
-        for (LocationWrapper lw : c.getPoints()) {
-            l_.add(lw.job);
+    private RouteDistances calculateDistances(Job[] jobs, Map<Job, List<Location>> jobLocations) {
+        int n = jobs.length;
+        double[] distances = new double[n * n];
+        double sum = 0.;
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            List<Location> locations_i = jobLocations.get(jobs[i]);
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                List<Location> locations_j = jobLocations.get(jobs[j]);
+                double distance = 0.;
+                for (Location loc_i : locations_i) {
+                    for (Location loc_j : locations_j) {
+                        distance += costs.transportCost(loc_i, loc_j, 0, null, null);
+                    }
+                }
+                distance /= locations_i.size() * locations_j.size();
+                distances[i * n + j] = distance;
+                sum += distance;
+                if (distance < min) min = distance;
+            }
         }
-        return l_;
+        if (n < 2) return new RouteDistances(jobs, distances, 0., 0.);
+        return new RouteDistances(jobs, distances, sum / (n * (n - 1)), min);
     }
 
-    public List<Job> getRandomCluster(VehicleRoute route) {
-        if (route.isEmpty()) return Collections.emptyList();
-        List<LocationWrapper> locations = getLocationWrappers(route);
-        List<Cluster<LocationWrapper>> clusterResults = getClusters(route, locations);
-        if (clusterResults.isEmpty()) return Collections.emptyList();
-        Cluster<LocationWrapper> randomCluster = RandomUtils.nextItem(clusterResults, random);
-        return getJobList(randomCluster);
+    /**
+     * Density-based clustering, i.e. a job with at least minPts neighbors within epsilon is a core job, and clusters consist of
+     * core jobs reachable from each other plus their neighbors. Jobs that belong to no cluster (noise) are not returned.
+     */
+    private List<List<Job>> cluster(RouteDistances routeDistances) {
+        double eps = epsDistance != null ? epsDistance : Math.max(0, (routeDistances.avgDistance - routeDistances.minDistance) * epsFactor);
+        Job[] jobs = routeDistances.jobs;
+        double[] distances = routeDistances.distances;
+        int n = jobs.length;
+        int[] status = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] queue = new int[n];
+        int[] neighbors = new int[n];
+        List<List<Job>> clusters = new ArrayList<>();
+        for (int p = 0; p < n; p++) {
+            if (status[p] != UNVISITED) continue;
+            int noNeighbors = neighbors(distances, n, p, eps, neighbors);
+            if (noNeighbors < minNoOfJobsInCluster) {
+                status[p] = NOISE;
+                continue;
+            }
+            List<Job> cluster = new ArrayList<>();
+            status[p] = CLUSTERED;
+            cluster.add(jobs[p]);
+            int head = 0;
+            int tail = 0;
+            Arrays.fill(queued, false);
+            queued[p] = true;
+            for (int i = 0; i < noNeighbors; i++) {
+                queued[neighbors[i]] = true;
+                queue[tail++] = neighbors[i];
+            }
+            while (head < tail) {
+                int q = queue[head++];
+                if (status[q] == UNVISITED) {
+                    status[q] = CLUSTERED;
+                    cluster.add(jobs[q]);
+                    int noQNeighbors = neighbors(distances, n, q, eps, neighbors);
+                    if (noQNeighbors >= minNoOfJobsInCluster) {
+                        for (int i = 0; i < noQNeighbors; i++) {
+                            if (!queued[neighbors[i]]) {
+                                queued[neighbors[i]] = true;
+                                queue[tail++] = neighbors[i];
+                            }
+                        }
+                    }
+                } else if (status[q] == NOISE) {
+                    status[q] = CLUSTERED;
+                    cluster.add(jobs[q]);
+                }
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
     }
 
-    private double sample(ForwardTransportCost costs, VehicleRoute r) {
-        double min = Double.MAX_VALUE;
-        double sum = 0;
-        for (int i = 0; i < noDistanceSamples; i++) {
-            AbstractActivity act1 = RandomUtils.nextItem(r.activities(), random);
-            AbstractActivity act2 = RandomUtils.nextItem(r.activities(), random);
-            double dist = costs.transportCost(act1.location(), act2.location(),
-                0., null, r.vehicle());
-            if (dist < min) min = dist;
-            sum += dist;
+    private static int neighbors(double[] distances, int n, int p, double eps, int[] neighbors) {
+        int noNeighbors = 0;
+        for (int q = 0; q < n; q++) {
+            if (q != p && distances[q * n + p] <= eps) neighbors[noNeighbors++] = q;
         }
-        double avg = sum / ((double) noDistanceSamples);
-        return (avg - min) * epsFactor;
+        return noNeighbors;
     }
 
 }
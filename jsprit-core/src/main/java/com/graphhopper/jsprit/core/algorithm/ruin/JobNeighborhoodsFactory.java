@@ -21,6 +21,8 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Created by schroeder on 05/03/15.
  */
@@ -35,4 +37,33 @@ public class JobNeighborhoodsFactory {
         return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity);
     }
 
+    /**
+     * Creates neighborhoods as {@link #createNeighborhoods(VehicleRoutingProblem, JobDistance, int)} that are initialised in
+     * parallel on the specified executor, thus jobDistance needs to be thread-safe. If executor is null, they are initialised on
+     * the calling thread.
+     */
+    public static JobNeighborhoods createNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, ExecutorService executor) {
+        JobNeighborhoodsOptimized neighborhoods = new JobNeighborhoodsOptimized(vrp, jobDistance, capacity);
+        neighborhoods.setExecutor(executor);
+        return neighborhoods;
+    }
+
+    /**
+     * Creates neighborhoods that calculate the capacity nearest neighbors of a job on first request and cache at most
+     * maxCachedNeighbors neighbor entries, i.e. initialising them takes linear time.
+     */
+    public static JobNeighborhoods createLazyNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, long maxCachedNeighbors) {
+        return new JobNeighborhoodsLazy(vrp, jobDistance, capacity, maxCachedNeighbors);
+    }
+
+    /**
+     * Creates neighborhoods that are answered from a spatial index over the coordinates of jobs, i.e. they need neither quadratic
+     * time nor quadratic memory to be initialised. If the coordinates of a job are unknown, this falls back to
+     * {@link #createNeighborhoods(VehicleRoutingProblem, JobDistance, int)}.
+     */
+    public static JobNeighborhoods createSpatialNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
+        if (JobNeighborhoodsSpatial.hasCoordinates(vrp)) return new JobNeighborhoodsSpatial(vrp, jobDistance);
+        return createNeighborhoods(vrp, jobDistance, capacity);
+    }
+
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Neighborhoods that calculate the capacity nearest neighbors of a job when they are requested for the first time.
+ * <p>
+ * <p>Neighbor lists are kept in a cache that holds at most maxCachedNeighbors neighbor entries (i.e. about 4 bytes each). If the
+ * cache is full, the least recently requested lists are evicted. The cache is split into stripes with a lock each, so that
+ * requests for different jobs hardly block each other. A neighbor list is calculated outside the lock, i.e. jobDistance needs to be
+ * thread-safe and a list that is requested concurrently might be calculated twice.
+ * <p>
+ * <p>Since not all distances are calculated, the max. distance is approximated by a double sweep in linear time, i.e. by the max.
+ * distance from the job that is farthest away from an arbitrary job.
+ *
+ * @author schroeder
+ */
+public class JobNeighborhoodsLazy implements JobNeighborhoods {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobNeighborhoodsLazy.class);
+
+    private static final int NO_STRIPES = 16;
+
+    private static class Stripe extends LinkedHashMap<Integer, int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long maxNeighbors;
+
+        private long noNeighbors;
+
+        Stripe(long maxNeighbors) {
+            super(16, 0.75f, true);
+            this.maxNeighbors = maxNeighbors;
+        }
+
+        void add(int jobIndex, int[] neighbors) {
+            int[] previous = put(jobIndex, neighbors);
+            if (previous != null) noNeighbors -= previous.length;
+            noNeighbors += neighbors.length;
+            Iterator<int[]> eldest = values().iterator();
+            while (noNeighbors > maxNeighbors && size() > 1) {
+                noNeighbors -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+
+    }
+
+    private final VehicleRoutingProblem vrp;
+
+    private final JobDistance jobDistance;
+
+    private final int capacity;
+
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private Job[] jobArr;
+
+    private Job[] jobs;
+
+    private int[] positions;
+
+    private double maxDistance;
+
+    public JobNeighborhoodsLazy(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, long maxCachedNeighbors) {
+        this.vrp = vrp;
+        this.jobDistance = jobDistance;
+        this.capacity = capacity;
+        this.stripes = new Stripe[NO_STRIPES];
+        for (int i = 0; i < NO_STRIPES; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxCachedNeighbors / NO_STRIPES));
+        }
+        logger.debug("initialize {}", this);
+    }
+
+    @Override
+    public void initialise() {
+        jobArr = vrp.jobsInclusiveInitialJobsInRoutes().values().toArray(new Job[0]);
+        jobs = new Job[jobArr.length + 1];
+        positions = new int[jobArr.length + 1];
+        for (int j = 0; j < jobArr.length; j++) {
+            jobs[jobArr[j].index()] = jobArr[j];
+            positions[jobArr[j].index()] = j;
+        }
+        maxDistance = 0.;
+        if (jobArr.length > 0) {
+            Job farthest = farthestFrom(jobArr[0]);
+            farthestFrom(farthest);
+        }
+    }
+
+    @Override
+    public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+        int jobIndex = neighborTo.index();
+        Stripe stripe = stripes[jobIndex % NO_STRIPES];
+        int[] neighbors;
+        synchronized (stripe) {
+            neighbors = stripe.get(jobIndex);
+        }
+        if (neighbors != null) hits.increment();
+        else {
+            misses.increment();
+            neighbors = calculateNeighbors(neighborTo);
+            synchronized (stripe) {
+                stripe.add(jobIndex, neighbors);
+            }
+        }
+        return new JobNeighborhoodsOptimized.ArrayIterator(nNeighbors, neighbors, jobs);
+    }
+
+    @Override
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * @return number of requests answered from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of requests a neighbor list had to be calculated for
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    private Job farthestFrom(Job job) {
+        Job farthest = job;
+        for (Job other : jobArr) {
+            double distance = jobDistance.getDistance(job, other);
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                farthest = other;
+            }
+        }
+        return farthest;
+    }
+
+    private int[] calculateNeighbors(Job neighborTo) {
+        int jobIndex = neighborTo.index();
+        if (jobIndex >= jobs.length || jobs[jobIndex] != neighborTo) return new int[0];
+        return JobNeighborhoodsOptimized.nearestNeighbors(jobDistance, jobArr, positions[jobIndex], Math.min(capacity, jobArr.length - 1), null);
+    }
+
+    @Override
+    public String toString() {
+        return "[name=lazyNeighborhoods][capacity=" + capacity + ']';
+    }
+
+}
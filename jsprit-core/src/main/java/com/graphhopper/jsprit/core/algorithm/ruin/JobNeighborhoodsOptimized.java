@@ -25,9 +25,20 @@ import com.graphhopper.jsprit.core.util.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
+ * Neighborhoods that only store the capacity nearest neighbors of each job.
+ * <p>
+ * <p>Neighbors of a job are selected with a bounded max-heap on primitive arrays, i.e. in O(n log capacity) without allocating
+ * objects per job pair. If an executor is set, the neighborhoods of different jobs are calculated in parallel on this executor,
+ * thus jobDistance needs to be thread-safe then. Neighbors with equal distance are ordered as jobs occur in the problem.
+ *
  * Created by schroeder on 07/01/15.
  */
 class JobNeighborhoodsOptimized implements JobNeighborhoods {
@@ -68,6 +79,10 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
 
     private static final Logger logger = LoggerFactory.getLogger(JobNeighborhoodsOptimized.class);
 
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private static final int JOBS_PER_TASK = 64;
+
     private final VehicleRoutingProblem vrp;
 
     private final int[][] neighbors;
@@ -80,18 +95,30 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
 
     private double maxDistance;
 
+    private ExecutorService executor;
+
     public JobNeighborhoodsOptimized(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
         this.vrp = vrp;
         this.jobDistance = jobDistance;
         this.capacity = capacity;
-        neighbors = new int[vrp.jobsInclusiveInitialJobsInRoutes().size()+1][capacity];
+        neighbors = new int[vrp.jobsInclusiveInitialJobsInRoutes().size()+1][];
         jobs = new Job[vrp.jobsInclusiveInitialJobsInRoutes().size()+1];
         logger.debug("initialize {}", this);
     }
 
+    /**
+     * Sets the executor the neighborhoods are calculated on when initialised. By default, they are calculated on the calling thread.
+     *
+     * @param executor executor, or null to calculate neighborhoods on the calling thread
+     */
+    void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     @Override
     public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
         int[] neighbors = this.neighbors[neighborTo.index()-1];
+        if (neighbors == null) neighbors = NO_NEIGHBORS;
         return new ArrayIterator(nNeighbors,neighbors,jobs);
     }
 
@@ -111,29 +138,142 @@ class JobNeighborhoodsOptimized implements JobNeighborhoods {
         logger.debug("pre-process distances between locations ...");
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        for (Job job_i : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
-            jobs[job_i.index()] = job_i;
-            List<ReferencedJob> jobList = new ArrayList<>(vrp.jobsInclusiveInitialJobsInRoutes().values().size());
-            for (Job job_j : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
-                if (job_i == job_j) continue;
-                double distance = jobDistance.getDistance(job_i, job_j);
-                if (distance > maxDistance) maxDistance = distance;
-                ReferencedJob referencedJob = new ReferencedJob(job_j, distance);
-                jobList.add(referencedJob);
-            }
-            jobList.sort(COMPARATOR);
-            int[] jobIndices = new int[capacity];
-            for(int index=0;index<capacity;index++){
-                jobIndices[index] = jobList.get(index).job.index();
-            }
-            neighbors[job_i.index()-1] = jobIndices;
+        final Job[] jobArr = vrp.jobsInclusiveInitialJobsInRoutes().values().toArray(new Job[0]);
+        for (Job job : jobArr) {
+            jobs[job.index()] = job;
+        }
+        final int noNeighbors = Math.min(capacity, jobArr.length - 1);
+        final double[] maxDistances = new double[jobArr.length];
+        if (executor == null || jobArr.length <= JOBS_PER_TASK) {
+            calculateNeighbors(jobArr, 0, jobArr.length, noNeighbors, maxDistances);
+        } else {
+            calculateNeighborsConcurrently(jobArr, noNeighbors, maxDistances);
+        }
+        for (double distance : maxDistances) {
+            if (distance > maxDistance) maxDistance = distance;
         }
         stopWatch.stop();
         logger.debug("pre-processing comp-time: {}", stopWatch);
     }
 
-    private static final Comparator<ReferencedJob> COMPARATOR = Comparator.comparingDouble(o -> o.distance);
+    private void calculateNeighbors(Job[] jobArr, int from, int to, int noNeighbors, double[] maxDistances) {
+        for (int i = from; i < to; i++) {
+            neighbors[jobArr[i].index() - 1] = nearestNeighbors(jobDistance, jobArr, i, noNeighbors, maxDistances);
+        }
+    }
+
+    private void calculateNeighborsConcurrently(final Job[] jobArr, final int noNeighbors, final double[] maxDistances) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < jobArr.length; from += JOBS_PER_TASK) {
+            final int lower = from;
+            final int upper = Math.min(jobArr.length, from + JOBS_PER_TASK);
+            futures.add(executor.submit(() -> calculateNeighbors(jobArr, lower, upper, noNeighbors, maxDistances)));
+        }
+        for (int t = 0; t < futures.size(); t++) {
+            try {
+                futures.get(t).get();
+            } catch (InterruptedException e) {
+                //neighborhoods must be complete, thus the remaining ones are calculated on the calling thread
+                Thread.currentThread().interrupt();
+                for (int r = t; r < futures.size(); r++) {
+                    if (futures.get(r).cancel(false)) {
+                        int lower = r * JOBS_PER_TASK;
+                        calculateNeighbors(jobArr, lower, Math.min(jobArr.length, lower + JOBS_PER_TASK), noNeighbors, maxDistances);
+                    } else {
+                        awaitUninterruptibly(futures.get(r));
+                    }
+                }
+                return;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Selects the noNeighbors nearest neighbors of jobArr[i] with a max-heap whose root is the farthest neighbor found so far.
+     *
+     * @param maxDistances if not null, maxDistances[i] is set to the max distance from jobArr[i] to any other job
+     * @return job indices of the neighbors, nearest first
+     */
+    static int[] nearestNeighbors(JobDistance jobDistance, Job[] jobArr, int i, int noNeighbors, double[] maxDistances) {
+        Job job_i = jobArr[i];
+        double[] heapDistances = new double[noNeighbors];
+        int[] heapPositions = new int[noNeighbors];
+        int heapSize = 0;
+        double maxDistance = 0.;
+        double[] row = new double[jobArr.length];
+        jobDistance.getDistances(job_i, jobArr, row);
+        for (int j = 0; j < jobArr.length; j++) {
+            if (i == j) continue;
+            double distance = row[j];
+            if (distance > maxDistance) maxDistance = distance;
+            if (heapSize < noNeighbors) {
+                siftUp(heapDistances, heapPositions, heapSize++, distance, j);
+            } else if (noNeighbors > 0 && isFarther(heapDistances[0], heapPositions[0], distance, j)) {
+                siftDown(heapDistances, heapPositions, heapSize, distance, j);
+            }
+        }
+        int[] jobIndices = new int[heapSize];
+        while (heapSize > 0) {
+            jobIndices[--heapSize] = jobArr[heapPositions[0]].index();
+            siftDown(heapDistances, heapPositions, heapSize, heapDistances[heapSize], heapPositions[heapSize]);
+        }
+        if (maxDistances != null) maxDistances[i] = maxDistance;
+        return jobIndices;
+    }
 
+    private static boolean isFarther(double distance, int position, double otherDistance, int otherPosition) {
+        return distance > otherDistance || (distance == otherDistance && position > otherPosition);
+    }
+
+    private static void siftUp(double[] distances, int[] positions, int index, double distance, int position) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isFarther(distance, position, distances[parent], positions[parent])) break;
+            distances[index] = distances[parent];
+            positions[index] = positions[parent];
+            index = parent;
+        }
+        distances[index] = distance;
+        positions[index] = position;
+    }
+
+    /**
+     * Replaces the root by the specified entry and restores the heap property within the first size entries.
+     */
+    private static void siftDown(double[] distances, int[] positions, int size, double distance, int position) {
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && isFarther(distances[right], positions[right], distances[child], positions[child])) child = right;
+            if (!isFarther(distances[child], positions[child], distance, position)) break;
+            distances[index] = distances[child];
+            positions[index] = positions[child];
+            index = child;
+        }
+        if (size > 0) {
+            distances[index] = distance;
+            positions[index] = position;
+        }
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,331 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Neighborhoods that are answered from a k-d tree over the coordinates of jobs instead of precomputing the distances between all jobs.
+ * <p>
+ * <p>A job is represented by its location (services) or by the midpoint of its pickup and delivery location (shipments). The tree is
+ * built in O(n log n) and needs linear memory. A request for n neighbors collects the candidateFactor * n jobs that are closest to
+ * the representative point of the job and re-ranks them by jobDistance. Thus, neighborhoods are exact if jobDistance is the
+ * euclidean distance between representative points, and approximate otherwise (e.g. if jobDistance is based on road distances).
+ * <p>
+ * <p>The max. distance is exact. If all jobs are services, it is the max. distance between jobs on the convex hull of their
+ * locations, i.e. it is determined in O(n log n + h^2) for h jobs on the hull, given that jobDistance increases with the euclidean
+ * distance. If there are shipments, all pairs of jobs are compared, i.e. pre-processing is quadratic then.
+ * <p>
+ * <p>Requests can be answered concurrently.
+ *
+ * @author schroeder
+ */
+class JobNeighborhoodsSpatial implements JobNeighborhoods {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobNeighborhoodsSpatial.class);
+
+    private static final int CANDIDATE_FACTOR = 2;
+
+    /**
+     * Returns true if the coordinates of all jobs are known.
+     */
+    static boolean hasCoordinates(VehicleRoutingProblem vrp) {
+        for (Job job : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
+            if (job instanceof Service) {
+                if (!hasCoordinate(((Service) job).location)) return false;
+            } else if (job instanceof Shipment) {
+                if (!hasCoordinate(((Shipment) job).getPickupLocation()) || !hasCoordinate(((Shipment) job).getDeliveryLocation()))
+                    return false;
+            } else return false;
+        }
+        return true;
+    }
+
+    private static boolean hasCoordinate(Location location) {
+        return location != null && location.coord != null;
+    }
+
+    private final VehicleRoutingProblem vrp;
+
+    private final JobDistance jobDistance;
+
+    private Job[] jobs;
+
+    private double[] x;
+
+    private double[] y;
+
+    private int[] positionOfIndex;
+
+    private int[] tree;
+
+    private double maxDistance;
+
+    public JobNeighborhoodsSpatial(VehicleRoutingProblem vrp, JobDistance jobDistance) {
+        this.vrp = vrp;
+        this.jobDistance = jobDistance;
+        logger.debug("initialize {}", this);
+    }
+
+    @Override
+    public void initialise() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        jobs = vrp.jobsInclusiveInitialJobsInRoutes().values().toArray(new Job[0]);
+        int n = jobs.length;
+        x = new double[n];
+        y = new double[n];
+        int maxIndex = 0;
+        for (int p = 0; p < n; p++) {
+            Job job = jobs[p];
+            if (job instanceof Service) {
+                Location l = ((Service) job).location;
+                x[p] = l.coord.x;
+                y[p] = l.coord.y;
+            } else if (job instanceof Shipment) {
+                Location pickup = ((Shipment) job).getPickupLocation();
+                Location delivery = ((Shipment) job).getDeliveryLocation();
+                x[p] = (pickup.coord.x + delivery.coord.x) / 2.;
+                y[p] = (pickup.coord.y + delivery.coord.y) / 2.;
+            } else throw new IllegalStateException("this supports only shipments or services");
+            maxIndex = Math.max(maxIndex, job.index());
+        }
+        positionOfIndex = new int[maxIndex + 1];
+        Arrays.fill(positionOfIndex, -1);
+        tree = new int[n];
+        for (int p = 0; p < n; p++) {
+            positionOfIndex[jobs[p].index()] = p;
+            tree[p] = p;
+        }
+        build(0, n, 0);
+        maxDistance = hasShipments() ? maxDistanceOfAllPairs() : maxDistanceOfConvexHull();
+        stopWatch.stop();
+        logger.debug("pre-processing comp-time: {}", stopWatch);
+    }
+
+    @Override
+    public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+        int position = neighborTo.index() < positionOfIndex.length ? positionOfIndex[neighborTo.index()] : -1;
+        int noCandidates = (int) Math.min(jobs.length - 1, (long) nNeighbors * CANDIDATE_FACTOR);
+        if (position < 0 || noCandidates <= 0) return Collections.<Job>emptyIterator();
+        Candidates candidates = new Candidates(noCandidates);
+        search(candidates, 0, jobs.length, 0, x[position], y[position], position);
+        List<ReferencedJob> neighbors = new ArrayList<>(candidates.size);
+        for (int i = 0; i < candidates.size; i++) {
+            Job candidate = jobs[candidates.positions[i]];
+            neighbors.add(new ReferencedJob(candidate, jobDistance.getDistance(neighborTo, candidate)));
+        }
+        neighbors.sort(Comparator.comparingDouble(o -> o.distance));
+        return new NearestNeighborhoodIterator(neighbors.iterator(), nNeighbors);
+    }
+
+    @Override
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Builds an implicit k-d tree, i.e. the median of [from,to) w.r.t. x (even depth) or y (odd depth) is placed at the middle and
+     * both halves are built recursively.
+     */
+    private void build(int from, int to, int depth) {
+        if (to - from <= 1) return;
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, depth % 2 == 0 ? x : y);
+        build(from, mid, depth + 1);
+        build(mid + 1, to, depth + 1);
+    }
+
+    /**
+     * Places the k-th smallest position of [left,right] at k. Each step partitions three-way around the middle element, i.e. into
+     * smaller, equal and larger positions, where positions are ordered by coord and ties are broken by position. Thus, repeated
+     * coordinates do not make selection quadratic.
+     */
+    private void select(int left, int right, int k, double[] coord) {
+        while (right > left) {
+            int pivot = tree[(left + right) >>> 1];
+            int lt = left, i = left, gt = right;
+            while (i <= gt) {
+                int c = compare(tree[i], pivot, coord);
+                if (c < 0) swap(lt++, i++);
+                else if (c > 0) swap(i, gt--);
+                else i++;
+            }
+            if (k < lt) right = lt - 1;
+            else if (k > gt) left = gt + 1;
+            else return;
+        }
+    }
+
+    private static int compare(int p, int q, double[] coord) {
+        int c = Double.compare(coord[p], coord[q]);
+        return c != 0 ? c : Integer.compare(p, q);
+    }
+
+    private void swap(int i, int j) {
+        int tmp = tree[i];
+        tree[i] = tree[j];
+        tree[j] = tmp;
+    }
+
+    private void search(Candidates candidates, int from, int to, int depth, double qx, double qy, int exclude) {
+        if (to <= from) return;
+        int mid = (from + to) >>> 1;
+        int p = tree[mid];
+        if (p != exclude) {
+            double dx = x[p] - qx;
+            double dy = y[p] - qy;
+            candidates.offer(dx * dx + dy * dy, p);
+        }
+        double diff = depth % 2 == 0 ? qx - x[p] : qy - y[p];
+        if (diff < 0) {
+            search(candidates, from, mid, depth + 1, qx, qy, exclude);
+            if (!candidates.isFull() || diff * diff <= candidates.maxDistance())
+                search(candidates, mid + 1, to, depth + 1, qx, qy, exclude);
+        } else {
+            search(candidates, mid + 1, to, depth + 1, qx, qy, exclude);
+            if (!candidates.isFull() || diff * diff <= candidates.maxDistance())
+                search(candidates, from, mid, depth + 1, qx, qy, exclude);
+        }
+    }
+
+    private boolean hasShipments() {
+        for (Job job : jobs) {
+            if (job instanceof Shipment) return true;
+        }
+        return false;
+    }
+
+    private double maxDistanceOfAllPairs() {
+        double max = 0.;
+        double[] distances = new double[jobs.length];
+        for (Job job : jobs) {
+            jobDistance.getDistances(job, jobs, distances);
+            for (double distance : distances) max = Math.max(max, distance);
+        }
+        return max;
+    }
+
+    /**
+     * Determines the convex hull of all locations by Andrew's monotone chain and compares all pairs of jobs on the hull.
+     */
+    private double maxDistanceOfConvexHull() {
+        int n = jobs.length;
+        if (n < 2) return 0.;
+        Integer[] sorted = new Integer[n];
+        for (int p = 0; p < n; p++) sorted[p] = p;
+        Arrays.sort(sorted, (p, q) -> {
+            int c = Double.compare(x[p], x[q]);
+            return c != 0 ? c : Double.compare(y[p], y[q]);
+        });
+        int[] hull = new int[2 * n];
+        int h = 0;
+        for (int p : sorted) {
+            while (h >= 2 && cross(hull[h - 2], hull[h - 1], p) <= 0.) h--;
+            hull[h++] = p;
+        }
+        int lower = h + 1;
+        for (int k = n - 2; k >= 0; k--) {
+            int p = sorted[k];
+            while (h >= lower && cross(hull[h - 2], hull[h - 1], p) <= 0.) h--;
+            hull[h++] = p;
+        }
+        //the first point is repeated at the end
+        h = Math.max(1, h - 1);
+        double max = 0.;
+        for (int a = 0; a < h; a++) {
+            for (int b = a + 1; b < h; b++) {
+                max = Math.max(max, jobDistance.getDistance(jobs[hull[a]], jobs[hull[b]]));
+            }
+        }
+        return max;
+    }
+
+    private double cross(int o, int a, int b) {
+        return (x[a] - x[o]) * (y[b] - y[o]) - (y[a] - y[o]) * (x[b] - x[o]);
+    }
+
+    /**
+     * Bounded max-heap of squared distances, i.e. the root is the farthest candidate found so far.
+     */
+    private static class Candidates {
+
+        private final double[] distances;
+
+        private final int[] positions;
+
+        private int size;
+
+        Candidates(int capacity) {
+            distances = new double[capacity];
+            positions = new int[capacity];
+        }
+
+        boolean isFull() {
+            return size == distances.length;
+        }
+
+        double maxDistance() {
+            return distances[0];
+        }
+
+        void offer(double distance, int position) {
+            if (!isFull()) {
+                int index = size++;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if (distances[parent] >= distance) break;
+                    distances[index] = distances[parent];
+                    positions[index] = positions[parent];
+                    index = parent;
+                }
+                distances[index] = distance;
+                positions[index] = position;
+            } else if (distance < distances[0]) {
+                int index = 0;
+                int half = size >>> 1;
+                while (index < half) {
+                    int child = 2 * index + 1;
+                    if (child + 1 < size && distances[child + 1] > distances[child]) child++;
+                    if (distances[child] <= distance) break;
+                    distances[index] = distances[child];
+                    positions[index] = positions[child];
+                    index = child;
+                }
+                distances[index] = distance;
+                positions[index] = position;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[name=spatialNeighborhoods]";
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+import java.util.Arrays;
+
+/**
+ * Maps the index of a job to the route serving it, i.e. a route is looked up in constant time instead of scanning all routes.
+ * <p>
+ * <p>The index is built in one pass over the activities of all routes and should be informed about removed and inserted
+ * jobs. Lookups are verified against the route itself, i.e. if a job has been moved without informing the index or if two jobs
+ * share an index (e.g. since they are not part of the same problem), lookups fall back to scanning the routes.
+ *
+ * @author schroeder
+ */
+class JobRouteIndex {
+
+    private final Iterable<VehicleRoute> vehicleRoutes;
+
+    private VehicleRoute[] routes = new VehicleRoute[16];
+
+    private Job[] jobs = new Job[16];
+
+    private boolean ambiguous;
+
+    JobRouteIndex(Iterable<VehicleRoute> vehicleRoutes) {
+        this.vehicleRoutes = vehicleRoutes;
+        for (VehicleRoute route : vehicleRoutes) {
+            for (Job job : route.tourActivities().jobs()) {
+                inserted(job, route);
+            }
+        }
+    }
+
+    /**
+     * @return the route serving the specified job or null if it is not served by any of the indexed routes
+     */
+    VehicleRoute routeOf(Job job) {
+        int index = job.index();
+        boolean indexed = index >= 0 && index < jobs.length && jobs[index] == job;
+        if (indexed && routes[index].tourActivities().servesJob(job)) return routes[index];
+        if (indexed || ambiguous) {
+            for (VehicleRoute route : vehicleRoutes) {
+                if (route.tourActivities().servesJob(job)) {
+                    inserted(job, route);
+                    return route;
+                }
+            }
+            removed(job);
+        }
+        return null;
+    }
+
+    void inserted(Job job, VehicleRoute route) {
+        int index = job.index();
+        if (index < 0) {
+            ambiguous = true;
+            return;
+        }
+        if (index >= jobs.length) {
+            int length = Math.max(index + 1, jobs.length * 2);
+            jobs = Arrays.copyOf(jobs, length);
+            routes = Arrays.copyOf(routes, length);
+        }
+        if (jobs[index] != null && jobs[index] != job) ambiguous = true;
+        jobs[index] = job;
+        routes[index] = route;
+    }
+
+    void removed(Job job) {
+        int index = job.index();
+        if (index >= 0 && index < jobs.length && jobs[index] == job) {
+            jobs[index] = null;
+            routes[index] = null;
+        }
+    }
+
+}
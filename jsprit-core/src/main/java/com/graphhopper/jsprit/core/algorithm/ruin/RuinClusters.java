@@ -75,10 +75,22 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
 
     private double epsFactor = 0.8;
 
+    private final DBSCANClusterer dbscan;
+
+    private final int[] removedInRuin;
+
+    private int ruinCount;
+
     public RuinClusters(VehicleRoutingProblem vrp, final int initialNumberJobsToRemove, JobNeighborhoods jobNeighborhoods) {
         super(vrp);
+        this.dbscan = new DBSCANClusterer(vrp.transportCosts());
         setRuinShareFactory(() -> initialNumberJobsToRemove);
         this.jobNeighborhoods = jobNeighborhoods;
+        int maxIndex = 0;
+        for (Job job : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
+            maxIndex = Math.max(maxIndex, job.index());
+        }
+        this.removedInRuin = new int[maxIndex + 1];
         logger.debug("initialise {}", this);
     }
 
@@ -101,7 +113,10 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
 
     private void ruin(Collection<VehicleRoute> vehicleRoutes, int nOfJobs2BeRemoved, Collection<Job> unassignedJobs) {
         if (vrp.jobs().values().isEmpty()) return;
-        Map<Job, VehicleRoute> mappedRoutes = map(vehicleRoutes);
+        if (++ruinCount == Integer.MAX_VALUE) {
+            Arrays.fill(removedInRuin, 0);
+            ruinCount = 1;
+        }
         int toRemove = nOfJobs2BeRemoved;
 
         Collection<Job> lastRemoved = new ArrayList<>();
@@ -113,14 +128,15 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
             VehicleRoute targetRoute = null;
             if (lastRemoved.isEmpty()) {
                 target = RandomUtils.nextJob(vrp.jobs().values(), random);
-                targetRoute = mappedRoutes.get(target);
+                targetRoute = routeOf(target, vehicleRoutes);
             } else {
                 target = RandomUtils.nextJob(lastRemoved, random);
                 Iterator<Job> neighborIterator = jobNeighborhoods.getNearestNeighborsIterator(nOfJobs2BeRemoved, target);
                 while (neighborIterator.hasNext()) {
                     Job j = neighborIterator.next();
-                    if (!lastRemoved.contains(j)) {
-                        VehicleRoute mj = mappedRoutes.get(j);
+                    //jobs removed before are skipped since they belong to a ruined route
+                    if (!isRemoved(j)) {
+                        VehicleRoute mj = routeOf(j, vehicleRoutes);
                         if (!ruined.contains(mj)) {
                             targetRoute = mj;
                             break;
@@ -135,13 +151,13 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
                 cycleCandidates.add(targetRoute);
                 break;
             }
-            DBSCANClusterer dbscan = new DBSCANClusterer(vrp.transportCosts());
             dbscan.setRandom(random);
             dbscan.setMinPts(minPts);
             dbscan.setEpsFactor(epsFactor);
             List<Job> cluster = dbscan.getRandomCluster(targetRoute);
             for (Job j : cluster) {
                 if (removeJob(j, vehicleRoutes)) {
+                    if (j.index() < removedInRuin.length) removedInRuin[j.index()] = ruinCount;
                     lastRemoved.add(j);
                     unassignedJobs.add(j);
                     if (--toRemove == 0) break;
@@ -151,6 +167,11 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
         }
     }
 
+    private boolean isRemoved(Job job) {
+        int index = job.index();
+        return index < removedInRuin.length && removedInRuin[index] == ruinCount;
+    }
+
 //    private List<JobActivityWrapper> wrap(List<AbstractActivity> activities) {
 //        List<JobActivityWrapper> wl = new ArrayList<JobActivityWrapper>();
 //        for (AbstractActivity act : activities) {
@@ -159,16 +180,6 @@ public final class RuinClusters extends AbstractRuinStrategy implements Iteratio
 //        return wl;
 //    }
 
-    private Map<Job, VehicleRoute> map(Iterable<VehicleRoute> vehicleRoutes) {
-        Map<Job, VehicleRoute> map = new HashMap<>(vrp.jobs().size());
-        for (VehicleRoute r : vehicleRoutes) {
-            for (Job j : r.tourActivities().jobs()) {
-                map.put(j, r);
-            }
-        }
-        return map;
-    }
-
     @Override
     public String toString() {
         return "[name=clusterRuin]";
@@ -95,7 +95,7 @@ public final class RuinString extends AbstractRuinStrategy {
         Iterator<Job> neighborhoodIterator = jobNeighborhoods.getNearestNeighborsIterator(kMax * lMax, prevJob);
         while (neighborhoodIterator.hasNext() && ruinedRoutes.size() <= noStrings) {
             if (!unassignedJobs.contains(prevJob)) {
-                VehicleRoute route = getRouteOf(prevJob, vehicleRoutes);
+                VehicleRoute route = routeOf(prevJob, vehicleRoutes);
                 if (route != null && !ruinedRoutes.contains(route)) {
                     if (random.nextDouble() < .5) {
                         ruinRouteWithStringRuin(route, prevJob, unassignedJobs);
@@ -110,13 +110,6 @@ public final class RuinString extends AbstractRuinStrategy {
         return unassignedJobs;
     }
 
-    private static VehicleRoute getRouteOf(Job job, Iterable<VehicleRoute> vehicleRoutes) {
-        for (VehicleRoute route : vehicleRoutes) {
-            if (route.tourActivities().servesJob(job)) return route;
-        }
-        return null;
-    }
-
     private void ruinRouteWithSplitStringRuin(VehicleRoute seedRoute, Job prevJob, Collection<Job> unassignedJobs) {
         int noActivities = seedRoute.activities().size();
         int stringLength;
@@ -127,21 +120,11 @@ public final class RuinString extends AbstractRuinStrategy {
 
         List<AbstractActivity> acts = vrp.activities(prevJob);
         AbstractActivity randomSeedAct = RandomUtils.nextItem(acts, random);
-        int seedIndex = 0;
-
-        int index = 0;
-        for (AbstractActivity act : seedRoute.activities()) {
-            if (act.index() == randomSeedAct.index()) {
-                seedIndex = index;
-                break;
-            }
-            index++;
-        }
+        int seedIndex = Math.max(0, seedRoute.tourActivities().positionOf(randomSeedAct.index()));
 
         int totalStringLength = stringLength + preservedSubstringLength;
-        List<Integer> stringBounds = StringUtil.getLowerBoundsOfAllStrings(totalStringLength, seedIndex, noActivities);
-        if (stringBounds.isEmpty()) return;
-        int lowerBound = RandomUtils.nextItem(stringBounds, random);
+        int lowerBound = StringUtil.randomLowerBound(totalStringLength, seedIndex, noActivities, random);
+        if (lowerBound < 0) return;
 
         Collection<Job> jobs2Remove = new ArrayList<>();
         int startIndexOfPreservedSubstring = random.nextInt(stringLength);
@@ -179,19 +162,10 @@ public final class RuinString extends AbstractRuinStrategy {
         stringLength = Math.min(stringLength, seedRoute.activities().size());
         List<AbstractActivity> acts = vrp.activities(prevJob);
         AbstractActivity randomSeedAct = RandomUtils.nextItem(acts, random);
-        int seedIndex = 0;
+        int seedIndex = Math.max(0, seedRoute.tourActivities().positionOf(randomSeedAct.index()));
         int noActivities = seedRoute.activities().size();
-        int index = 0;
-        for (AbstractActivity act : seedRoute.activities()) {
-            if (act.index() == randomSeedAct.index()) {
-                seedIndex = index;
-                break;
-            }
-            index++;
-        }
-        List<Integer> stringBounds = StringUtil.getLowerBoundsOfAllStrings(stringLength, seedIndex, noActivities);
-        if (stringBounds.isEmpty()) return;
-        int lowerBound = RandomUtils.nextItem(stringBounds, random);
+        int lowerBound = StringUtil.randomLowerBound(stringLength, seedIndex, noActivities, random);
+        if (lowerBound < 0) return;
         Collection<Job> jobs2Remove = new ArrayList<>();
         for (int i = lowerBound; i < (lowerBound + stringLength); i++) {
             AbstractActivity act = seedRoute.activities().get(i);
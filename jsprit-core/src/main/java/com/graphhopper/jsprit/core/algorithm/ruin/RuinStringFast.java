@@ -0,0 +1,198 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.JobActivity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+
+/**
+ * String and split-string removal as {@link RuinString}, i.e. adopted from
+ * <p>
+ * Christiaens J, Vanden Berghe G (2020) Slack Induction by String Removals for Vehicle Routing Problems.
+ * Transportation Science 54(2):417-433
+ * <p>
+ * <p>In contrast to RuinString, seeds are looked up by their position in the route, string bounds are drawn arithmetically and
+ * the jobs of a string are collected in buffers that are reused by subsequent ruins. Jobs that have already been removed are
+ * marked in an array indexed by job index, i.e. no sets are maintained. Apart from the collection that is returned, a ruin does
+ * not allocate memory once its buffers are large enough.
+ * <p>
+ * <p>The number of strings is drawn from [kMin,kMax] and the length of a string from [lMin,lMax], both inclusive. A string is removed
+ * as a whole or, with probability splitRate, except for a preserved substring in its interior.
+ *
+ * @author schroeder
+ */
+public final class RuinStringFast extends AbstractRuinStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuinStringFast.class);
+
+    private final JobNeighborhoods jobNeighborhoods;
+
+    private final Job[] jobs;
+
+    private final int[] removedInRuin;
+
+    private int ruinCount;
+
+    private Job[] stringBuffer = new Job[16];
+
+    private VehicleRoute[] ruinedRoutes;
+
+    private int kMin = 1;
+
+    private int kMax = 6;
+
+    private int lMin = 30;
+
+    private int lMax = 60;
+
+    private double splitRate = .5;
+
+    public RuinStringFast(VehicleRoutingProblem vrp, JobNeighborhoods jobNeighborhoods) {
+        super(vrp);
+        this.jobNeighborhoods = jobNeighborhoods;
+        this.jobs = vrp.jobs().values().toArray(new Job[0]);
+        int maxIndex = 0;
+        for (Job job : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
+            maxIndex = Math.max(maxIndex, job.index());
+        }
+        this.removedInRuin = new int[maxIndex + 1];
+        this.ruinedRoutes = new VehicleRoute[kMax];
+        logger.debug("initialise {}", this);
+    }
+
+    public void setNoRoutes(int kMin, int kMax) {
+        if (kMin < 1 || kMax < kMin) throw new IllegalArgumentException("number of routes must satisfy 1 <= kMin <= kMax");
+        this.kMin = kMin;
+        this.kMax = kMax;
+        this.ruinedRoutes = new VehicleRoute[kMax];
+    }
+
+    public void setStringLength(int lMin, int lMax) {
+        if (lMin < 1 || lMax < lMin) throw new IllegalArgumentException("string length must satisfy 1 <= lMin <= lMax");
+        this.lMin = lMin;
+        this.lMax = lMax;
+    }
+
+    /**
+     * Sets the probability that a string is removed except for a preserved substring (default is .5).
+     *
+     * @param splitRate probability of a split string
+     */
+    public void setSplitRate(double splitRate) {
+        if (splitRate < 0. || splitRate > 1.) throw new IllegalArgumentException("split rate must be in [0,1]");
+        this.splitRate = splitRate;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=stringRuinFast]";
+    }
+
+    @Override
+    public Collection<Job> ruinRoutes(Collection<VehicleRoute> vehicleRoutes) {
+        if (vehicleRoutes.isEmpty() || jobs.length == 0) {
+            return Collections.emptyList();
+        }
+        if (++ruinCount == Integer.MAX_VALUE) {
+            Arrays.fill(removedInRuin, 0);
+            ruinCount = 1;
+        }
+        int noStrings = Math.min(kMin + random.nextInt(kMax - kMin + 1), vehicleRoutes.size());
+        int noRuinedRoutes = 0;
+        List<Job> unassignedJobs = new ArrayList<>();
+        Job seed = jobs[random.nextInt(jobs.length)];
+        Iterator<Job> neighborhoodIterator = jobNeighborhoods.getNearestNeighborsIterator(kMax * lMax, seed);
+        while (true) {
+            if (!isRemoved(seed)) {
+                VehicleRoute route = routeOf(seed, vehicleRoutes);
+                if (route != null && !isRuined(route, noRuinedRoutes)) {
+                    ruinString(route, seed, unassignedJobs);
+                    ruinedRoutes[noRuinedRoutes++] = route;
+                    if (noRuinedRoutes == noStrings) break;
+                }
+            }
+            if (!neighborhoodIterator.hasNext()) break;
+            seed = neighborhoodIterator.next();
+        }
+        for (int i = 0; i < noRuinedRoutes; i++) ruinedRoutes[i] = null;
+        return unassignedJobs;
+    }
+
+    private boolean isRuined(VehicleRoute route, int noRuinedRoutes) {
+        for (int i = 0; i < noRuinedRoutes; i++) {
+            if (ruinedRoutes[i] == route) return true;
+        }
+        return false;
+    }
+
+    private boolean isRemoved(Job job) {
+        int index = job.index();
+        return index < removedInRuin.length && removedInRuin[index] == ruinCount;
+    }
+
+    private void ruinString(VehicleRoute route, Job seed, List<Job> unassignedJobs) {
+        List<AbstractActivity> routeActivities = route.activities();
+        int noActivities = routeActivities.size();
+        List<AbstractActivity> seedActivities = vrp.activities(seed);
+        AbstractActivity seedActivity = seedActivities.get(random.nextInt(seedActivities.size()));
+        int seedIndex = route.tourActivities().positionOf(seedActivity.index());
+        if (seedIndex < 0) return;
+
+        int stringLength = Math.min(lMin + random.nextInt(lMax - lMin + 1), noActivities);
+        boolean split = stringLength > 1 && random.nextDouble() < splitRate;
+        int preservedLength = split ? StringUtil.determineSubstringLength(stringLength, noActivities, random) : 0;
+        int totalLength = stringLength + preservedLength;
+        int lowerBound = StringUtil.randomLowerBound(totalLength, seedIndex, noActivities, random);
+        if (lowerBound < 0) return;
+        //the preserved substring lies strictly inside the string, i.e. it actually splits the string
+        int preservedFrom = preservedLength > 0 ? 1 + random.nextInt(stringLength - 1) : totalLength;
+        int preservedTo = preservedFrom + preservedLength;
+
+        if (stringBuffer.length < totalLength) stringBuffer = new Job[Math.max(totalLength, 2 * stringBuffer.length)];
+        int noJobs = 0;
+        for (int position = 0; position < totalLength; position++) {
+            if (position >= preservedFrom && position < preservedTo) continue;
+            AbstractActivity act = routeActivities.get(lowerBound + position);
+            if (!(act instanceof JobActivity)) continue;
+            Job job = ((JobActivity) act).job();
+            int index = job.index();
+            if (index >= removedInRuin.length || removedInRuin[index] == ruinCount) continue;
+            removedInRuin[index] = ruinCount;
+            stringBuffer[noJobs++] = job;
+        }
+        for (int i = 0; i < noJobs; i++) {
+            Job job = stringBuffer[i];
+            stringBuffer[i] = null;
+            if (removeJob(job, route)) unassignedJobs.add(job);
+        }
+    }
+
+}
@@ -67,64 +67,64 @@ public final class RuinWorst extends AbstractRuinStrategy {
         return unassignedJobs;
     }
 
+    /**
+     * Calculates the savings of all jobs once and keeps them in an indexed max-heap. Removing a job only changes the savings of
+     * the jobs whose activities are adjacent to the removed activities, thus only those are re-calculated.
+     */
     private void ruin(Collection<VehicleRoute> vehicleRoutes, int nOfJobs2BeRemoved, Collection<Job> unassignedJobs) {
-        Deque<Job> availableJobs = new LinkedList<>(vrp.jobs().values());
+        if (nOfJobs2BeRemoved <= 0) return;
+        Map<Job, Integer> slots = new HashMap<>();
+        List<Job> jobs = new ArrayList<>();
+        List<VehicleRoute> routes = new ArrayList<>();
+        for (VehicleRoute route : vehicleRoutes) {
+            for (AbstractActivity act : route.activities()) {
+                Job job = ((JobActivity) act).job();
+                if (slots.putIfAbsent(job, jobs.size()) == null) {
+                    jobs.add(job);
+                    routes.add(route);
+                }
+            }
+        }
+        SavingsHeap heap = new SavingsHeap(jobs.size());
+        for (int slot = 0; slot < jobs.size(); slot++) {
+            heap.add(slot, savings(routes.get(slot), jobs.get(slot)));
+        }
         int toRemove = nOfJobs2BeRemoved;
-        while (toRemove > 0) {
-            Job worst = getWorst(vehicleRoutes);
-            if (worst == null) break;
-            if (removeJob(worst, vehicleRoutes)) {
-                availableJobs.remove(worst);
+        Set<Job> neighbors = new LinkedHashSet<>();
+        while (toRemove > 0 && !heap.isEmpty()) {
+            int slot = heap.poll();
+            Job worst = jobs.get(slot);
+            VehicleRoute route = routes.get(slot);
+            neighbors.clear();
+            List<AbstractActivity> acts = route.activities();
+            for (AbstractActivity act : route.tourActivities().activitiesOf(worst)) {
+                int position = route.tourActivities().positionOf(act);
+                if (position > 0) neighbors.add(((JobActivity) acts.get(position - 1)).job());
+                if (position < acts.size() - 1) neighbors.add(((JobActivity) acts.get(position + 1)).job());
+            }
+            if (removeJob(worst, route)) {
                 unassignedJobs.add(worst);
+                for (Job neighbor : neighbors) {
+                    Integer neighborSlot = slots.get(neighbor);
+                    if (neighborSlot != null && heap.contains(neighborSlot)) {
+                        heap.update(neighborSlot, savings(route, neighbor));
+                    }
+                }
             }
             toRemove--;
         }
     }
 
-    private Job getWorst(Iterable<VehicleRoute> copied) {
-        Job worst = null;
-        double bestSavings = Double.NEGATIVE_INFINITY;
-
-        Map<Job, Double> savingsMap = new LinkedHashMap<>();
-        for (VehicleRoute route : copied) {
-            savingsMap.clear();
-            if (route.isEmpty()) continue;
-            AbstractActivity actBefore = route.start;
-            AbstractActivity actToEval = null;
-            for (AbstractActivity act : route.activities()) {
-                if (actToEval == null) {
-                    actToEval = act;
-                    continue;
-                }
-                double savings = savings(route, actBefore, actToEval, act);
-                Job job = ((JobActivity) actToEval).job();
-                if (!savingsMap.containsKey(job)) {
-                    savingsMap.put(job, savings);
-                } else {
-                    double s = savingsMap.get(job);
-                    savingsMap.put(job, s + savings);
-                }
-                actBefore = actToEval;
-                actToEval = act;
-            }
-            double savings = savings(route, actBefore, actToEval, route.end);
-            Job job = ((JobActivity) actToEval).job();
-            if (!savingsMap.containsKey(job)) {
-                savingsMap.put(job, savings);
-            } else {
-                double s = savingsMap.get(job);
-                savingsMap.put(job, s + savings);
-            }
-            //getCounts best
-            for (Map.Entry<Job,Double> x: savingsMap.entrySet()) {
-                double s = x.getValue();
-                if (s > bestSavings) {
-                    bestSavings = s;
-                    worst = x.getKey();
-                }
-            }
+    private double savings(VehicleRoute route, Job job) {
+        List<AbstractActivity> acts = route.activities();
+        double savings = 0.;
+        for (AbstractActivity act : route.tourActivities().activitiesOf(job)) {
+            int position = route.tourActivities().positionOf(act);
+            AbstractActivity actBefore = position == 0 ? route.start : acts.get(position - 1);
+            AbstractActivity actAfter = position == acts.size() - 1 ? route.end : acts.get(position + 1);
+            savings += savings(route, actBefore, act, actAfter);
         }
-        return worst;
+        return savings;
     }
 
     private double savings(VehicleRoute route, AbstractActivity actBefore, AbstractActivity actToEval, AbstractActivity act) {
@@ -141,4 +141,92 @@ public final class RuinWorst extends AbstractRuinStrategy {
         return "[name=worstRuin]";
     }
 
+    /**
+     * Max-heap of slots ordered by savings (ties by lower slot first) that supports updating the savings of a slot.
+     */
+    private static class SavingsHeap {
+
+        private final double[] savings;
+
+        private final int[] heap;
+
+        private final int[] positions;
+
+        private int size;
+
+        SavingsHeap(int capacity) {
+            savings = new double[capacity];
+            heap = new int[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int slot) {
+            return positions[slot] >= 0;
+        }
+
+        void add(int slot, double value) {
+            savings[slot] = value;
+            heap[size] = slot;
+            positions[slot] = size;
+            siftUp(size++);
+        }
+
+        void update(int slot, double value) {
+            double previous = savings[slot];
+            savings[slot] = value;
+            if (value > previous) siftUp(positions[slot]);
+            else siftDown(positions[slot]);
+        }
+
+        int poll() {
+            int slot = heap[0];
+            positions[slot] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                siftDown(0);
+            }
+            return slot;
+        }
+
+        private boolean isHigher(int slot, int other) {
+            return savings[slot] > savings[other] || (savings[slot] == savings[other] && slot < other);
+        }
+
+        private void siftUp(int position) {
+            int slot = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!isHigher(slot, heap[parent])) break;
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(slot, position);
+        }
+
+        private void siftDown(int position) {
+            int slot = heap[position];
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && isHigher(heap[child + 1], heap[child])) child++;
+                if (!isHigher(heap[child], slot)) break;
+                move(heap[child], position);
+                position = child;
+            }
+            move(slot, position);
+        }
+
+        private void move(int slot, int position) {
+            heap[position] = slot;
+            positions[slot] = position;
+        }
+
+    }
+
 }
@@ -39,6 +39,19 @@ class StringUtil {
         return lowerBounds;
     }
 
+    /**
+     * Draws one of the lower bounds returned by getLowerBoundsOfAllStrings(...) with the same probability, but in constant time and
+     * without allocating the list of all lower bounds.
+     *
+     * @return lower bound of a string containing seedIndex or -1 if there is no such string
+     */
+    static int randomLowerBound(int length, int seedIndex, int routeLength, Random random) {
+        int lowest = Math.max(0, seedIndex - length + 1);
+        int highest = Math.min(seedIndex, routeLength - length);
+        if (length < 1 || highest < lowest) return -1;
+        return lowest + random.nextInt(highest - lowest + 1);
+    }
+
     static int determineSubstringLength(int baseLength, int routeLength, Random random) {
         if (baseLength == routeLength) return 0;
         int substringLength = 1;
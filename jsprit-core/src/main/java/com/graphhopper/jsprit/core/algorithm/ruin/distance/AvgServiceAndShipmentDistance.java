@@ -18,17 +18,24 @@
 package com.graphhopper.jsprit.core.algorithm.ruin.distance;
 
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
+import com.graphhopper.jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
 
 
 /**
  * Calculator that calculates average distance between two jobs based on the input-transport costs.
  * <p>
  * <p>If the distance between two jobs cannot be calculated with input-transport costs, it tries the euclidean distance between these jobs.
+ * <p>
+ * <p>If it is created with the problem, the locations of all jobs are stored once in a table indexed by job index, i.e. distances
+ * between jobs of the problem are calculated without dispatching on job types. If transport costs are a
+ * {@link FastVehicleRoutingTransportCostsMatrix} that knows all job locations, the table holds location indices and each
+ * distance is read from the matrix directly.
  *
  * @author stefan schroeder
  */
@@ -36,9 +43,74 @@ public class AvgServiceAndShipmentDistance implements JobDistance {
 
     private final VehicleRoutingTransportCosts costs;
 
+    private final Job[] jobs;
+
+    /**
+     * Locations of the job with index k are firstLocations[k] and, for shipments, secondLocations[k] (delivery).
+     */
+    private final Location[] firstLocations;
+
+    private final Location[] secondLocations;
+
+    /**
+     * Matrix and location indices of the job with index k (-1 if there is no second location), or null if distances are not read from the matrix.
+     */
+    private final FastVehicleRoutingTransportCostsMatrix matrix;
+
+    private final int[] firstIndices;
+
+    private final int[] secondIndices;
+
     public AvgServiceAndShipmentDistance(VehicleRoutingTransportCosts costs) {
         this.costs = costs;
+        this.jobs = new Job[0];
+        this.firstLocations = new Location[0];
+        this.secondLocations = new Location[0];
+        this.matrix = null;
+        this.firstIndices = null;
+        this.secondIndices = null;
+    }
 
+    public AvgServiceAndShipmentDistance(VehicleRoutingProblem vrp) {
+        this.costs = vrp.transportCosts();
+        int maxIndex = 0;
+        for (Job job : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
+            maxIndex = Math.max(maxIndex, job.index());
+        }
+        this.jobs = new Job[maxIndex + 1];
+        this.firstLocations = new Location[maxIndex + 1];
+        this.secondLocations = new Location[maxIndex + 1];
+        for (Job job : vrp.jobsInclusiveInitialJobsInRoutes().values()) {
+            int index = job.index();
+            if (index < 0) continue;
+            if (job instanceof Service) {
+                firstLocations[index] = ((Service) job).location;
+            } else if (job instanceof Shipment) {
+                firstLocations[index] = ((Shipment) job).getPickupLocation();
+                secondLocations[index] = ((Shipment) job).getDeliveryLocation();
+            } else continue;
+            jobs[index] = job;
+        }
+        FastVehicleRoutingTransportCostsMatrix matrix = costs instanceof FastVehicleRoutingTransportCostsMatrix ? (FastVehicleRoutingTransportCostsMatrix) costs : null;
+        int[] firstIndices = null;
+        int[] secondIndices = null;
+        if (matrix != null) {
+            firstIndices = new int[maxIndex + 1];
+            secondIndices = new int[maxIndex + 1];
+            for (int k = 0; k <= maxIndex && matrix != null; k++) {
+                firstIndices[k] = locationIndex(matrix, firstLocations[k]);
+                secondIndices[k] = locationIndex(matrix, secondLocations[k]);
+                if ((firstLocations[k] != null && firstIndices[k] < 0) || (secondLocations[k] != null && secondIndices[k] < 0)) matrix = null;
+            }
+        }
+        this.matrix = matrix;
+        this.firstIndices = matrix == null ? null : firstIndices;
+        this.secondIndices = matrix == null ? null : secondIndices;
+    }
+
+    private static int locationIndex(FastVehicleRoutingTransportCostsMatrix matrix, Location location) {
+        if (location == null || location.index < 0 || location.index >= matrix.getLocationCount()) return -1;
+        return location.index;
     }
 
     /**
@@ -48,6 +120,10 @@ public class AvgServiceAndShipmentDistance implements JobDistance {
      */
     @Override
     public double getDistance(Job i, Job j) {
+        if (isIndexed(i) && isIndexed(j)) {
+            if (i == j) return 0.0;
+            return calcDist(i.index(), j.index());
+        }
         if (i.equals(j)) return 0.0;
 
         if (i instanceof Service && j instanceof Service) {
@@ -63,6 +139,54 @@ public class AvgServiceAndShipmentDistance implements JobDistance {
         }
     }
 
+    @Override
+    public void getDistances(Job i, Job[] jobs, double[] distances) {
+        if (!isIndexed(i)) {
+            JobDistance.super.getDistances(i, jobs, distances);
+            return;
+        }
+        int index_i = i.index();
+        for (int k = 0; k < jobs.length; k++) {
+            Job j = jobs[k];
+            if (j == i) distances[k] = 0.0;
+            else if (isIndexed(j)) distances[k] = calcDist(index_i, j.index());
+            else distances[k] = getDistance(i, j);
+        }
+    }
+
+    private boolean isIndexed(Job job) {
+        int index = job.index();
+        return index >= 0 && index < jobs.length && jobs[index] == job;
+    }
+
+    private double calcDist(int i, int j) {
+        if (matrix != null) return calcMatrixDist(i, j);
+        Location i1 = firstLocations[i];
+        Location i2 = secondLocations[i];
+        Location j1 = firstLocations[j];
+        Location j2 = secondLocations[j];
+        if (i2 == null) {
+            if (j2 == null) return calcDist(i1, j1);
+            return (calcDist(i1, j1) + calcDist(i1, j2)) / 2.0;
+        }
+        //service to shipment is always calculated from the service
+        if (j2 == null) return (calcDist(j1, i1) + calcDist(j1, i2)) / 2.0;
+        return (calcDist(i1, j1) + calcDist(i1, j2) + calcDist(i2, j1) + calcDist(i2, j2)) / 4.0;
+    }
+
+    private double calcMatrixDist(int i, int j) {
+        int i1 = firstIndices[i];
+        int i2 = secondIndices[i];
+        int j1 = firstIndices[j];
+        int j2 = secondIndices[j];
+        if (i2 < 0) {
+            if (j2 < 0) return matrix.getDistance(i1, j1);
+            return (matrix.getDistance(i1, j1) + matrix.getDistance(i1, j2)) / 2.0;
+        }
+        if (j2 < 0) return (matrix.getDistance(j1, i1) + matrix.getDistance(j1, i2)) / 2.0;
+        return (matrix.getDistance(i1, j1) + matrix.getDistance(i1, j2) + matrix.getDistance(i2, j1) + matrix.getDistance(i2, j2)) / 4.0;
+    }
+
     private double calcDist(Service i, Service j) {
         return calcDist(i.location, j.location);
     }
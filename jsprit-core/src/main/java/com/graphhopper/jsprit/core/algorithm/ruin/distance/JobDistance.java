@@ -24,4 +24,17 @@ public interface JobDistance {
 
     double getDistance(Job i, Job j);
 
+    /**
+     * Calculates the distances from job i to each of the specified jobs, i.e. distances[k] = getDistance(i, jobs[k]).
+     *
+     * @param i         the job
+     * @param jobs      the jobs the distances are calculated to
+     * @param distances array the distances are written to, with at least jobs.length elements
+     */
+    default void getDistances(Job i, Job[] jobs, double[] distances) {
+        for (int k = 0; k < jobs.length; k++) {
+            distances[k] = getDistance(i, jobs[k]);
+        }
+    }
+
 }
@@ -52,4 +52,6 @@ public class InternalStates {
     public static final State EARLIEST_WITHOUT_WAITING = new StateFactory.StateImpl("earliest_without_waiting", 14);
 
     public static final State SWITCH_NOT_FEASIBLE = new StateFactory.StateImpl("switch_not_feasible", 15);
+
+    public static final State ROUTE_BOX = new StateFactory.StateImpl("route_box", 16);
 }
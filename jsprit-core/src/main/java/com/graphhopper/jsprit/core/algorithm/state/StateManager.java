@@ -23,6 +23,7 @@ import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListeners;
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.Indexed;
+import com.graphhopper.jsprit.core.problem.SkillIndex;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
@@ -63,6 +64,8 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private boolean updateTWs;
 
+    private boolean updateRouteBox;
+
     private final int initialNoStates = 21;
 
     private int stateIndexCounter;
@@ -636,10 +639,29 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     }
 
     /**
-     * Updates skill states.
+     * Returns the skill index of the problem whose states are managed.
+     *
+     * @return skill index
+     */
+    public SkillIndex skillIndex() {
+        return vrp.skillIndex();
+    }
+
+    /**
+     * Updates skill states, i.e. the skill set (see {@link SkillIndex#emptySkillSet()}) required by each route.
      */
     public void updateSkillStates() {
         addActivityVisitor(new UpdateSkills(this));
     }
 
+    /**
+     * Updates the bounding box of each route, i.e. of its start, its activities and its end.
+     */
+    public void updateRouteBoxStates() {
+        if (!updateRouteBox) {
+            updateRouteBox = true;
+            addActivityVisitor(new UpdateRouteBox(this));
+        }
+    }
+
 }
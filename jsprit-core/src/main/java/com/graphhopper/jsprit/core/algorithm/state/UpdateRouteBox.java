@@ -0,0 +1,79 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
+
+/**
+ * Updates the bounding box of a route, i.e. of its start, its activities and - if the vehicle returns to its depot - its end.
+ * <p>
+ * <p>The box is memorized as route state {@link InternalStates#ROUTE_BOX} in the form {minX, minY, maxX, maxY}. If any
+ * of these locations has no coordinate, no box is memorized.
+ *
+ * @author schroeder
+ */
+public class UpdateRouteBox implements StateUpdater, ActivityVisitor {
+
+    private final StateManager stateManager;
+
+    private VehicleRoute route;
+
+    private double minX, minY, maxX, maxY;
+
+    private boolean noCoordinate;
+
+    public UpdateRouteBox(StateManager stateManager) {
+        this.stateManager = stateManager;
+    }
+
+    @Override
+    public void begin(VehicleRoute route) {
+        this.route = route;
+        minX = minY = Double.MAX_VALUE;
+        maxX = maxY = -Double.MAX_VALUE;
+        noCoordinate = false;
+        add(route.start.location());
+    }
+
+    @Override
+    public void visit(AbstractActivity activity) {
+        add(activity.location());
+    }
+
+    @Override
+    public void finish() {
+        if (route.vehicle().isReturnToDepot()) add(route.end.location());
+        double[] box = noCoordinate ? null : new double[]{minX, minY, maxX, maxY};
+        stateManager.putTypedInternalRouteState(route, InternalStates.ROUTE_BOX, box);
+    }
+
+    private void add(Location location) {
+        if (location == null || location.coord == null) {
+            noCoordinate = true;
+            return;
+        }
+        minX = Math.min(minX, location.coord.x);
+        maxX = Math.max(maxX, location.coord.x);
+        minY = Math.min(minY, location.coord.y);
+        maxY = Math.max(maxY, location.coord.y);
+    }
+
+}
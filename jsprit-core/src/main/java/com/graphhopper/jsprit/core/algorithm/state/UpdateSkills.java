@@ -19,43 +19,44 @@
 package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
-import com.graphhopper.jsprit.core.problem.Skills;
+import com.graphhopper.jsprit.core.problem.SkillIndex;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.JobActivity;
 
 /**
- * Update to update required skills on route
+ * Update to update required skills on route, memorized as skill set of the problem's {@link SkillIndex}
  */
 public class UpdateSkills implements StateUpdater, ActivityVisitor {
 
-    private Skills.Builder skillBuilder;
+    private long[] skills;
 
     private final StateManager statesManager;
 
+    private final SkillIndex skillIndex;
+
     private VehicleRoute route;
 
     public UpdateSkills(StateManager statesManager) {
         this.statesManager = statesManager;
+        this.skillIndex = statesManager.skillIndex();
     }
 
     @Override
     public void begin(VehicleRoute route) {
         this.route = route;
-        skillBuilder = Skills.Builder.newInstance();
+        skills = skillIndex.emptySkillSet();
     }
 
     @Override
     public void visit(AbstractActivity activity) {
         if (activity instanceof JobActivity) {
-            Skills skills = ((JobActivity) activity).job().skillsRequired();
-            skillBuilder.addAllSkills(skills.values());
+            skillIndex.addRequiredSkills(skills, ((JobActivity) activity).job());
         }
     }
 
     @Override
     public void finish() {
-        Skills skills = skillBuilder.build();
         statesManager.putTypedInternalRouteState(route, InternalStates.SKILLS, skills);
     }
 }
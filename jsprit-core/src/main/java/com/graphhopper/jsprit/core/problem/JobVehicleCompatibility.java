@@ -0,0 +1,172 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Compatibility of jobs and vehicle types that only depends on job and vehicle type, i.e. not on the route.
+ * <p>
+ * <p>For each criterion and each job there is a bitset over vehicle type indices (see {@link Vehicle#vehicleType()}) whose bits
+ * are set if the job can never be served by vehicles of that type:
+ * <ul>
+ * <li>SKILLS - the vehicle lacks a skill required by the job</li>
+ * <li>CAPACITY - the size of the job exceeds the capacity of the vehicle</li>
+ * <li>TIME_WINDOW - every time window of the job (of its pickup or of its delivery) opens after the latest arrival of the vehicle</li>
+ * </ul>
+ * <p>
+ * <p>Since the criteria only depend on properties that are part of the vehicle type key (type, skills and latest arrival), each
+ * job is only checked against one vehicle per vehicle type, i.e. it takes O(#jobs * #vehicleTypes). Jobs and vehicle types are
+ * identified by their index. Breaks and unknown jobs or vehicles are always compatible.
+ *
+ * @author schroeder
+ */
+public final class JobVehicleCompatibility {
+
+    public enum Criterion {
+        SKILLS, CAPACITY, TIME_WINDOW
+    }
+
+    /**
+     * Determines the incompatibilities of the specified jobs and vehicles.
+     *
+     * @param jobs     jobs with index set
+     * @param vehicles vehicles with vehicle type index set
+     * @return job vehicle compatibility
+     */
+    public static JobVehicleCompatibility of(Collection<Job> jobs, Collection<Vehicle> vehicles) {
+        int maxJobIndex = 0;
+        for (Job j : jobs) maxJobIndex = Math.max(maxJobIndex, j.index());
+        int maxTypeIndex = 0;
+        for (Vehicle v : vehicles) maxTypeIndex = Math.max(maxTypeIndex, typeIndex(v));
+        //one representative per vehicle type
+        Vehicle[] types = new Vehicle[maxTypeIndex + 1];
+        for (Vehicle v : vehicles) {
+            int typeIndex = typeIndex(v);
+            if (typeIndex >= 0 && v.type() != null && types[typeIndex] == null) types[typeIndex] = v;
+        }
+        int noWords = (maxTypeIndex >> 6) + 1;
+        Criterion[] criteria = Criterion.values();
+        long[][][] incompatible = new long[criteria.length][maxJobIndex + 1][noWords];
+        for (Job job : jobs) {
+            if (job instanceof Break || job.index() < 0) continue;
+            for (int typeIndex = 0; typeIndex < types.length; typeIndex++) {
+                Vehicle v = types[typeIndex];
+                if (v == null) continue;
+                for (Criterion criterion : criteria) {
+                    if (!fulfills(job, v, criterion)) {
+                        incompatible[criterion.ordinal()][job.index()][typeIndex >> 6] |= 1L << typeIndex;
+                    }
+                }
+            }
+        }
+        return new JobVehicleCompatibility(incompatible);
+    }
+
+    private static int typeIndex(Vehicle vehicle) {
+        return vehicle.vehicleType() == null ? -1 : vehicle.vehicleType().index();
+    }
+
+    private static boolean fulfills(Job job, Vehicle vehicle, Criterion criterion) {
+        switch (criterion) {
+            case SKILLS:
+                return job.skillsRequired() == null || vehicle.skills().containsAll(job.skillsRequired());
+            case CAPACITY:
+                return job.size().lessOrEq(vehicle.type().getCapacityDimensions());
+            case TIME_WINDOW:
+                if (job instanceof Service) {
+                    return opensInTime(((Service) job).timeWindows, vehicle);
+                }
+                if (job instanceof Shipment) {
+                    Shipment shipment = (Shipment) job;
+                    return opensInTime(shipment.getPickupTimeWindows(), vehicle) && opensInTime(shipment.getDeliveryTimeWindows(), vehicle);
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean opensInTime(Collection<TimeWindow> timeWindows, Vehicle vehicle) {
+        if (timeWindows == null || timeWindows.isEmpty()) return true;
+        for (TimeWindow tw : timeWindows) {
+            if (tw.start <= vehicle.latestArrival()) return true;
+        }
+        return false;
+    }
+
+    private final long[][][] incompatible;
+
+    private JobVehicleCompatibility(long[][][] incompatible) {
+        this.incompatible = incompatible;
+    }
+
+    /**
+     * @param job       the job
+     * @param vehicle   the vehicle
+     * @param criterion the criterion
+     * @return true if the job can be served by the vehicle with regard to the criterion
+     */
+    public boolean isCompatible(Job job, Vehicle vehicle, Criterion criterion) {
+        return !isSet(incompatible[criterion.ordinal()], job.index(), typeIndex(vehicle));
+    }
+
+    /**
+     * Unites the incompatibilities of the specified criteria. The result can be queried with
+     * {@link #isIncompatible(long[][], Job, Vehicle)}.
+     *
+     * @param criteria the criteria
+     * @return incompatibility bitsets, indexed by job index
+     */
+    public long[][] incompatibilities(Set<Criterion> criteria) {
+        long[][] united = new long[incompatible[0].length][incompatible[0][0].length];
+        for (Criterion criterion : criteria) {
+            long[][] bitsets = incompatible[criterion.ordinal()];
+            for (int j = 0; j < bitsets.length; j++) {
+                for (int w = 0; w < bitsets[j].length; w++) united[j][w] |= bitsets[j][w];
+            }
+        }
+        return united;
+    }
+
+    /**
+     * @param incompatibilities bitsets as returned by {@link #incompatibilities(Set)}
+     * @param job               the job
+     * @param vehicle           the vehicle
+     * @return true if the job cannot be served by the vehicle
+     */
+    public static boolean isIncompatible(long[][] incompatibilities, Job job, Vehicle vehicle) {
+        return isSet(incompatibilities, job.index(), typeIndex(vehicle));
+    }
+
+    private static boolean isSet(long[][] bitsets, int jobIndex, int typeIndex) {
+        if (jobIndex < 0 || jobIndex >= bitsets.length || typeIndex < 0) return false;
+        long[] bitset = bitsets[jobIndex];
+        int word = typeIndex >> 6;
+        return word < bitset.length && (bitset[word] & (1L << typeIndex)) != 0;
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bitset representation of the skills of one problem.
+ * <p>
+ * <p>When the problem is built, every skill gets an id and the skills of each job and vehicle are stored as bitset with bit i set
+ * if the job requires (or the vehicle has) the skill with id i. Checking whether a vehicle has all skills of a job is then a word
+ * operation. Bitsets are looked up by job and vehicle index; jobs and vehicles that do not belong to the problem are checked
+ * by their skill sets. The index is not modified after construction, i.e. it can be shared between threads, and
+ * {@link Skills} are left untouched.
+ * <p>
+ * <p>Skill sets of several jobs, e.g. of all jobs in a route, can be accumulated in a bitset created by {@link #emptySkillSet()}.
+ * Skills that are unknown to the index are represented by one reserved bit no vehicle of the problem has.
+ *
+ * @author schroeder
+ */
+public final class SkillIndex {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private final String[] names;
+
+    private final int unknownId;
+
+    private final int words;
+
+    private final Job[] jobs;
+
+    private final long[][] jobBits;
+
+    private final Vehicle[] vehicles;
+
+    private final long[][] vehicleBits;
+
+    SkillIndex(Collection<Job> jobs, Collection<Vehicle> vehicles) {
+        int maxJobIndex = 0;
+        for (Job job : jobs) {
+            register(job.skillsRequired());
+            maxJobIndex = Math.max(maxJobIndex, job.index());
+        }
+        int maxVehicleIndex = 0;
+        for (Vehicle vehicle : vehicles) {
+            register(vehicle.skills());
+            maxVehicleIndex = Math.max(maxVehicleIndex, vehicle.index());
+        }
+        names = new String[ids.size()];
+        for (Map.Entry<String, Integer> e : ids.entrySet()) names[e.getValue()] = e.getKey();
+        unknownId = ids.size();
+        words = (unknownId + 1 + 63) >> 6;
+        this.jobs = new Job[maxJobIndex + 1];
+        this.jobBits = new long[maxJobIndex + 1][];
+        for (Job job : jobs) {
+            this.jobs[job.index()] = job;
+            jobBits[job.index()] = bitsOf(job.skillsRequired());
+        }
+        this.vehicles = new Vehicle[maxVehicleIndex + 1];
+        this.vehicleBits = new long[maxVehicleIndex + 1][];
+        for (Vehicle vehicle : vehicles) {
+            this.vehicles[vehicle.index()] = vehicle;
+            vehicleBits[vehicle.index()] = bitsOf(vehicle.skills());
+        }
+    }
+
+    private void register(Skills skills) {
+        if (skills == null) return;
+        for (String skill : skills.values()) {
+            if (!ids.containsKey(skill)) ids.put(skill, ids.size());
+        }
+    }
+
+    private long[] bitsOf(Skills skills) {
+        long[] bits = new long[words];
+        if (skills == null) return bits;
+        for (String skill : skills.values()) {
+            int id = ids.get(skill);
+            bits[id >> 6] |= 1L << id;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns true if vehicle has all skills required by job.
+     *
+     * @param vehicle vehicle whose skills are checked
+     * @param job     job whose required skills are checked
+     * @return true if all skills of job are included, false otherwise
+     */
+    public boolean hasAllSkills(Vehicle vehicle, Job job) {
+        long[] provided = bitsOf(vehicle);
+        long[] required = bitsOf(job);
+        if (provided == null || required == null) {
+            Skills requiredSkills = job.skillsRequired();
+            return requiredSkills == null || vehicle.skills().containsAll(requiredSkills);
+        }
+        for (int i = 0; i < required.length; i++) {
+            if ((required[i] & ~provided[i]) != 0L) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns an empty skill set, i.e. a bitset to accumulate skills with {@link #addRequiredSkills(long[], Job)}.
+     *
+     * @return empty skill set
+     */
+    public long[] emptySkillSet() {
+        return new long[words];
+    }
+
+    /**
+     * Adds the skills required by job to skillSet.
+     *
+     * @param skillSet skill set created by {@link #emptySkillSet()}
+     * @param job      job whose required skills are added
+     */
+    public void addRequiredSkills(long[] skillSet, Job job) {
+        long[] required = bitsOf(job);
+        if (required != null) {
+            for (int i = 0; i < required.length; i++) skillSet[i] |= required[i];
+            return;
+        }
+        Skills requiredSkills = job.skillsRequired();
+        if (requiredSkills == null) return;
+        for (String skill : requiredSkills.values()) {
+            Integer id = ids.get(skill);
+            int bit = id == null ? unknownId : id;
+            skillSet[bit >> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Returns true if vehicle has all skills of skillSet. A vehicle that does not belong to the problem never has a skill
+     * that is unknown to the index.
+     *
+     * @param vehicle  vehicle whose skills are checked
+     * @param skillSet skill set created by {@link #emptySkillSet()}
+     * @return true if all skills of skillSet are included, false otherwise
+     */
+    public boolean hasAllSkills(Vehicle vehicle, long[] skillSet) {
+        long[] provided = bitsOf(vehicle);
+        if (provided == null) {
+            if ((skillSet[unknownId >> 6] & (1L << unknownId)) != 0L) return false;
+            return vehicle.skills().containsAll(skillsOf(skillSet));
+        }
+        for (int i = 0; i < skillSet.length; i++) {
+            if ((skillSet[i] & ~provided[i]) != 0L) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the known skills of skillSet.
+     *
+     * @param skillSet skill set created by {@link #emptySkillSet()}
+     * @return skills
+     */
+    public Skills skillsOf(long[] skillSet) {
+        Skills.Builder builder = Skills.Builder.newInstance();
+        for (int id = 0; id < names.length; id++) {
+            if ((skillSet[id >> 6] & (1L << id)) != 0L) builder.addSkill(names[id]);
+        }
+        return builder.build();
+    }
+
+    long[] bitsOf(Job job) {
+        int index = job.index();
+        return index >= 0 && index < jobs.length && jobs[index] == job ? jobBits[index] : null;
+    }
+
+    long[] bitsOf(Vehicle vehicle) {
+        int index = vehicle.index();
+        return index >= 0 && index < vehicles.length && vehicles[index] == vehicle ? vehicleBits[index] : null;
+    }
+
+}
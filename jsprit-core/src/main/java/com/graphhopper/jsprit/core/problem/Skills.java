@@ -52,6 +52,17 @@ public class Skills {
             return this;
         }
 
+        /**
+         * Adds all skills of another skill container.
+         *
+         * @param skills skill container whose skills are added
+         * @return builder
+         */
+        public Builder addAllSkills(Skills skills) {
+            this.skills.addAll(skills.skills);
+            return this;
+        }
+
         /**
          * Adds a collection of skills.
          *
@@ -112,6 +123,16 @@ public class Skills {
         return skills.contains(skill.trim().toLowerCase());// trim to be consistent with addSkill()
     }
 
+    /**
+     * Returns true if this container contains all skills of the other container.
+     *
+     * @param other skill container that is checked whether it is included or not
+     * @return true if all skills of other are included, false otherwise
+     */
+    public boolean containsAll(Skills other) {
+        return skills.containsAll(other.skills);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
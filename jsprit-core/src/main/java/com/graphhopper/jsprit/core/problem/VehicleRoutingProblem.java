@@ -27,6 +27,7 @@ import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.*;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleClasses;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeKey;
 import com.graphhopper.jsprit.core.util.v2;
@@ -415,7 +416,7 @@ public class VehicleRoutingProblem {
             for (Job job : jobsInInitialRoutes) {
                 ((AbstractJob)job).setIndex(jobIndexCounter++);
             }
-            
+
             boolean hasBreaks = addBreaksToActivityMap();
             if (hasBreaks && fleetSize == FleetSize.INFINITE)
                 throw new UnsupportedOperationException("breaks are not yet supported when dealing with infinite fleet. either set it to finite or omit breaks.");
@@ -534,6 +535,11 @@ public class VehicleRoutingProblem {
      */
     private final Collection<VehicleType> vehicleTypes;
 
+    private volatile VehicleClasses vehicleClasses;
+
+    private volatile JobVehicleCompatibility compatibility;
+
+    private final SkillIndex skillIndex;
 
     private final Collection<VehicleRoute> initialVehicleRoutes;
 
@@ -562,6 +568,7 @@ public class VehicleRoutingProblem {
         this.nuActivities = builder.activityIndexCounter;
         this.allLocations = builder.allLocations;
         this.allJobs = builder.tentativeJobs;
+        this.skillIndex = new SkillIndex(builder.tentativeJobs.values(), builder.uniqueVehicles);
         logger.info("setup problem: {}", this);
     }
 
@@ -596,12 +603,13 @@ public class VehicleRoutingProblem {
         return Collections.unmodifiableMap(allJobs);
     }
     /**
-     * Returns a copy of initial vehicle routes.
+     * Returns a copy of initial vehicle routes. The copy keeps the order in which routes have been added (routes are hashed by
+     * identity, i.e. the iteration order of a hash set would differ from run to run).
      *
      * @return copied collection of initial vehicle routes
      */
     public Set<VehicleRoute> initialVehicleRoutes() {
-        Set<VehicleRoute> copiedInitialRoutes = new HashSet<>(initialVehicleRoutes.size());
+        Set<VehicleRoute> copiedInitialRoutes = new LinkedHashSet<>(initialVehicleRoutes.size());
         for (VehicleRoute route : initialVehicleRoutes) {
             copiedInitialRoutes.add(VehicleRoute.copyOf(route));
         }
@@ -629,6 +637,57 @@ public class VehicleRoutingProblem {
         return Collections.unmodifiableCollection(vehicles);
     }
 
+    /**
+     * Returns the equivalence classes of vehicles, i.e. vehicles that only differ in their (proportional) cost parameters.
+     *
+     * @return vehicle classes
+     * @see VehicleClasses
+     */
+    public VehicleClasses vehicleClasses() {
+        VehicleClasses classes = vehicleClasses;
+        if (classes == null) {
+            synchronized (this) {
+                classes = vehicleClasses;
+                if (classes == null) {
+                    classes = VehicleClasses.of(vehicles);
+                    vehicleClasses = classes;
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Returns the compatibility of jobs and vehicle types, i.e. which (job, vehicle type) pairs can never be combined due to
+     * skills, capacity or time windows. It is determined when it is requested first.
+     *
+     * @return job vehicle compatibility
+     * @see JobVehicleCompatibility
+     */
+    public JobVehicleCompatibility compatibility() {
+        JobVehicleCompatibility jobVehicleCompatibility = compatibility;
+        if (jobVehicleCompatibility == null) {
+            synchronized (this) {
+                jobVehicleCompatibility = compatibility;
+                if (jobVehicleCompatibility == null) {
+                    jobVehicleCompatibility = JobVehicleCompatibility.of(allJobs.values(), vehicles);
+                    compatibility = jobVehicleCompatibility;
+                }
+            }
+        }
+        return jobVehicleCompatibility;
+    }
+
+    /**
+     * Returns the bitset representation of the skills of jobs and vehicles.
+     *
+     * @return skill index
+     * @see SkillIndex
+     */
+    public SkillIndex skillIndex() {
+        return skillIndex;
+    }
+
     /**
      * Returns routing costs.
      *
@@ -18,17 +18,23 @@
 package com.graphhopper.jsprit.core.problem.constraint;
 
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.JobVehicleCompatibility;
+import com.graphhopper.jsprit.core.problem.JobVehicleCompatibility.Criterion;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Manager that manage hard- and soft constraints, both on route and activity level.
@@ -64,6 +70,10 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
 
     private final DependencyType[] dependencyTypes;
 
+    private final Set<Criterion> compatibilityCriteria = EnumSet.noneOf(Criterion.class);
+
+    private volatile long[][] incompatibilities;
+
     public ConstraintManager(VehicleRoutingProblem vrp, RouteAndActivityStateGetter stateManager) {
         this.vrp = vrp;
         this.stateManager = stateManager;
@@ -119,11 +129,11 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         for (Constraint c : constraints) {
             boolean constraintTypeKnown = false;
             if (c instanceof HardActivityConstraint) {
-                actLevelConstraintManager.addConstraint((HardActivityConstraint) c, Priority.HIGH);
+                addConstraint((HardActivityConstraint) c, Priority.HIGH);
                 constraintTypeKnown = true;
             }
             if (c instanceof HardRouteConstraint) {
-                hardRouteConstraintManager.addConstraint((HardRouteConstraint) c);
+                addConstraint((HardRouteConstraint) c);
                 constraintTypeKnown = true;
             }
             if (c instanceof SoftRouteConstraint) {
@@ -154,13 +164,14 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
             addConstraint(new PickupAndDeliverShipmentLoadActivityLevelConstraint(stateManager), Priority.CRITICAL);
             addConstraint(new ServiceLoadRouteLevelConstraint(stateManager));
             addConstraint(new ServiceLoadActivityLevelConstraint(stateManager), Priority.LOW);
+            addCompatibilityCriterion(Criterion.CAPACITY);
             loadConstraintsSet = true;
         }
     }
 
     public void addSkillsConstraint() {
         if (!skillconstraintSet) {
-            addConstraint(new HardSkillConstraint(stateManager));
+            addConstraint(new HardSkillConstraint(stateManager, vrp.skillIndex()));
             skillconstraintSet = true;
         }
     }
@@ -169,10 +180,96 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
 
     public void addConstraint(HardActivityConstraint actLevelConstraint, Priority priority) {
         actLevelConstraintManager.addConstraint(actLevelConstraint, priority);
+        if (actLevelConstraint.getClass() == VehicleDependentTimeWindowConstraints.class) addCompatibilityCriterion(Criterion.TIME_WINDOW);
+    }
+
+    /**
+     * Adds a hard activity constraint. If fixedPosition is true, adaptive ordering (see setAdaptiveConstraintOrdering(...))
+     * neither moves the constraint nor any other constraint across it. Use this for constraints whose side effects depend on the order
+     * of evaluation.
+     *
+     * @param actLevelConstraint the constraint
+     * @param priority           the priority level
+     * @param fixedPosition      true if the constraint must be evaluated at the position it is added
+     */
+    public void addConstraint(HardActivityConstraint actLevelConstraint, Priority priority, boolean fixedPosition) {
+        actLevelConstraintManager.addConstraint(actLevelConstraint, priority, fixedPosition);
+        if (actLevelConstraint.getClass() == VehicleDependentTimeWindowConstraints.class) addCompatibilityCriterion(Criterion.TIME_WINDOW);
+    }
+
+    /**
+     * Sets adaptive ordering of hard activity constraints. Default is false.
+     * <p>
+     * <p>If true, evaluation time and rejection rate of each constraint are measured and constraints are regularly reordered within their
+     * priority level such that cheap constraints that reject often are evaluated first. This does not change which insertions are feasible,
+     * but it can change which constraint is reported as reason for an unassigned job.
+     *
+     * @param adaptiveConstraintOrdering true if constraints should be reordered
+     */
+    public void setAdaptiveConstraintOrdering(boolean adaptiveConstraintOrdering) {
+        actLevelConstraintManager.setAdaptiveOrdering(adaptiveConstraintOrdering);
     }
 
     public void addConstraint(HardRouteConstraint routeLevelConstraint) {
         hardRouteConstraintManager.addConstraint(routeLevelConstraint);
+        if (routeLevelConstraint.getClass() == HardSkillConstraint.class) addCompatibilityCriterion(Criterion.SKILLS);
+    }
+
+    private synchronized void addCompatibilityCriterion(Criterion criterion) {
+        if (compatibilityCriteria.add(criterion)) incompatibilities = null;
+    }
+
+    /**
+     * Returns whether job can be served by vehicle with regard to the skill, load and time window constraints that are added to
+     * this manager. It only considers what can be decided from job and vehicle type alone (see {@link JobVehicleCompatibility}),
+     * thus true does not imply that an insertion is feasible, but false implies that it is not.
+     *
+     * @param job     the job
+     * @param vehicle the vehicle
+     * @return false if job and vehicle are incompatible
+     */
+    public boolean isCompatible(Job job, Vehicle vehicle) {
+        long[][] current = incompatibilities;
+        if (current == null) current = initIncompatibilities();
+        return !JobVehicleCompatibility.isIncompatible(current, job, vehicle);
+    }
+
+    private synchronized long[][] initIncompatibilities() {
+        if (incompatibilities == null) {
+            JobVehicleCompatibility compatibility = vrp.compatibility();
+            incompatibilities = compatibility == null ? new long[0][0] : compatibility.incompatibilities(compatibilityCriteria);
+        }
+        return incompatibilities;
+    }
+
+    /**
+     * Returns the name of the constraint that rejects job with vehicle, or null if job and vehicle are compatible.
+     *
+     * @param job     the job
+     * @param vehicle the vehicle
+     * @return name of constraint or null
+     * @see #isCompatible(Job, Vehicle)
+     */
+    public String getIncompatibleConstraintName(Job job, Vehicle vehicle) {
+        if (isCompatible(job, vehicle)) return null;
+        JobVehicleCompatibility compatibility = vrp.compatibility();
+        Criterion[] criteria;
+        synchronized (this) {
+            criteria = compatibilityCriteria.toArray(new Criterion[0]);
+        }
+        for (Criterion criterion : criteria) {
+            if (compatibility.isCompatible(job, vehicle, criterion)) continue;
+            switch (criterion) {
+                case SKILLS:
+                    return HardSkillConstraint.class.getSimpleName();
+                case CAPACITY:
+                    if (job instanceof Shipment) return PickupAndDeliverShipmentLoadActivityLevelConstraint.class.getSimpleName();
+                    return ServiceLoadRouteLevelConstraint.class.getSimpleName();
+                default:
+                    return VehicleDependentTimeWindowConstraints.class.getSimpleName();
+            }
+        }
+        return null;
     }
 
     public void addConstraint(SoftActivityConstraint softActivityConstraint) {
@@ -193,6 +290,13 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
     }
 
+    /**
+     * Same as fulfilled(...), but adds the names of the constraints that are not fulfilled to failedConstraintNames.
+     */
+    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, AbstractActivity prevAct, AbstractActivity newAct, AbstractActivity nextAct, double prevActDepTime, Collection<String> failedConstraintNames) {
+        return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraintNames);
+    }
+
     public Collection<Constraint> getConstraints() {
         Collection<Constraint> constraints = new ArrayList<>();
         constraints.addAll(actLevelConstraintManager.getAllConstraints());
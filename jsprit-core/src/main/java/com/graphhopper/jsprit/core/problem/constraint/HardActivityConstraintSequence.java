@@ -0,0 +1,164 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hard activity constraints of one priority level in the order they are evaluated.
+ * <p>
+ * <p>In adaptive mode, it counts evaluations and rejections of each constraint and measures the evaluation time of every
+ * SAMPLE_RATE-th evaluation. Every REORDER_INTERVAL evaluations, constraints are sorted such that constraints with a high
+ * rejection rate per nano second run first. Constraints that are added with a fixed position are never moved and
+ * constraints are never moved across them, i.e. only the runs between two fixed constraints are sorted.
+ * <p>
+ * <p>Counters are updated without synchronization. Lost updates from concurrent insertion threads only blur the statistics,
+ * whereas the order itself is always replaced as a whole.
+ *
+ * @author schroeder
+ */
+class HardActivityConstraintSequence {
+
+    static final int SAMPLE_RATE = 16;
+
+    static final int REORDER_INTERVAL = 4096;
+
+    static final class Entry {
+
+        final HardActivityConstraint constraint;
+
+        final boolean fixedPosition;
+
+        long evaluations;
+
+        long rejections;
+
+        long sampledNanos;
+
+        long samples;
+
+        Entry(HardActivityConstraint constraint, boolean fixedPosition) {
+            this.constraint = constraint;
+            this.fixedPosition = fixedPosition;
+        }
+
+        double score() {
+            double rejectionRate = (rejections + 1.) / (evaluations + 2.);
+            double nanos = samples == 0 ? 1. : Math.max(1., (double) sampledNanos / samples);
+            return rejectionRate / nanos;
+        }
+    }
+
+    private final boolean rejectsOnNotFulfilled;
+
+    private volatile Entry[] entries = new Entry[0];
+
+    private boolean adaptive;
+
+    private int evaluationsSinceReorder;
+
+    /**
+     * @param rejectsOnNotFulfilled true if NOT_FULFILLED stops the evaluation of this level, otherwise only NOT_FULFILLED_BREAK does
+     */
+    HardActivityConstraintSequence(boolean rejectsOnNotFulfilled) {
+        this.rejectsOnNotFulfilled = rejectsOnNotFulfilled;
+    }
+
+    void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    synchronized void add(HardActivityConstraint constraint, boolean fixedPosition) {
+        Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+        newEntries[entries.length] = new Entry(constraint, fixedPosition);
+        entries = newEntries;
+    }
+
+    Entry[] entries() {
+        return entries;
+    }
+
+    Collection<HardActivityConstraint> getConstraints() {
+        Entry[] current = entries;
+        List<HardActivityConstraint> constraints = new ArrayList<>(current.length);
+        for (Entry e : current) constraints.add(e.constraint);
+        return Collections.unmodifiableList(constraints);
+    }
+
+    ConstraintsStatus evaluate(Entry entry, JobInsertionContext iFacts, AbstractActivity prevAct, AbstractActivity newAct, AbstractActivity nextAct, double prevActDepTime) {
+        if (!adaptive) return entry.constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+        ConstraintsStatus status;
+        if (entry.evaluations++ % SAMPLE_RATE == 0) {
+            long start = System.nanoTime();
+            status = entry.constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            entry.sampledNanos += System.nanoTime() - start;
+            entry.samples++;
+        } else {
+            status = entry.constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+        }
+        if (status == ConstraintsStatus.NOT_FULFILLED_BREAK || (rejectsOnNotFulfilled && status == ConstraintsStatus.NOT_FULFILLED)) {
+            entry.rejections++;
+        }
+        if (++evaluationsSinceReorder >= REORDER_INTERVAL) {
+            evaluationsSinceReorder = 0;
+            reorder();
+        }
+        return status;
+    }
+
+    synchronized void reorder() {
+        Entry[] current = entries;
+        Entry[] reordered = Arrays.copyOf(current, current.length);
+        //take a snapshot of the scores since counters might change while sorting
+        final double[] scores = new double[current.length];
+        Integer[] positions = new Integer[current.length];
+        for (int i = 0; i < current.length; i++) {
+            scores[i] = current[i].score();
+            positions[i] = i;
+        }
+        int from = 0;
+        while (from < current.length) {
+            if (current[from].fixedPosition) {
+                from++;
+                continue;
+            }
+            int to = from;
+            while (to < current.length && !current[to].fixedPosition) to++;
+            Arrays.sort(positions, from, to, (i, j) -> Double.compare(scores[j], scores[i]));
+            for (int k = from; k < to; k++) reordered[k] = current[positions[k]];
+            from = to;
+        }
+        //forget old statistics gradually such that the order can follow a changing search
+        for (Entry e : reordered) {
+            e.evaluations /= 2;
+            e.rejections /= 2;
+            e.sampledNanos /= 2;
+            e.samples /= 2;
+        }
+        entries = reordered;
+    }
+
+}
@@ -23,77 +23,98 @@ import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 
 class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
-    private final Collection<HardActivityConstraint> criticalConstraints = new ArrayList<>();
+    private final HardActivityConstraintSequence criticalConstraints = new HardActivityConstraintSequence(false);
 
-    private final Collection<HardActivityConstraint> highPrioConstraints = new ArrayList<>();
+    private final HardActivityConstraintSequence highPrioConstraints = new HardActivityConstraintSequence(false);
 
-    private final Collection<HardActivityConstraint> lowPrioConstraints = new ArrayList<>();
+    private final HardActivityConstraintSequence lowPrioConstraints = new HardActivityConstraintSequence(true);
+
+    private final HardActivityConstraintSequence[] criticalAndHighPrioConstraints = {criticalConstraints, highPrioConstraints};
 
     public void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
+        addConstraint(constraint, priority, false);
+    }
+
+    public void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority, boolean fixedPosition) {
         if (priority == ConstraintManager.Priority.CRITICAL) {
-            criticalConstraints.add(constraint);
+            criticalConstraints.add(constraint, fixedPosition);
         } else if (priority == ConstraintManager.Priority.HIGH) {
-            highPrioConstraints.add(constraint);
+            highPrioConstraints.add(constraint, fixedPosition);
         } else {
-            lowPrioConstraints.add(constraint);
+            lowPrioConstraints.add(constraint, fixedPosition);
         }
     }
 
+    void setAdaptiveOrdering(boolean adaptiveOrdering) {
+        criticalConstraints.setAdaptive(adaptiveOrdering);
+        highPrioConstraints.setAdaptive(adaptiveOrdering);
+        lowPrioConstraints.setAdaptive(adaptiveOrdering);
+    }
+
     Collection<HardActivityConstraint> getCriticalConstraints() {
-        return /*Collections.unmodifiableCollection*/(criticalConstraints);
+        return criticalConstraints.getConstraints();
     }
 
     Collection<HardActivityConstraint> getHighPrioConstraints() {
-        return /*Collections.unmodifiableCollection*/(highPrioConstraints);
+        return highPrioConstraints.getConstraints();
     }
 
     Collection<HardActivityConstraint> getLowPrioConstraints() {
-        return /*Collections.unmodifiableCollection*/(lowPrioConstraints);
+        return lowPrioConstraints.getConstraints();
     }
 
     Collection<HardActivityConstraint> getAllConstraints() {
         Collection<HardActivityConstraint> c = new ArrayList<>();
-        c.addAll(criticalConstraints);
-        c.addAll(highPrioConstraints);
-        c.addAll(lowPrioConstraints);
+        c.addAll(criticalConstraints.getConstraints());
+        c.addAll(highPrioConstraints.getConstraints());
+        c.addAll(lowPrioConstraints.getConstraints());
         return Collections.unmodifiableCollection(c);
     }
 
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, AbstractActivity prevAct, AbstractActivity newAct, AbstractActivity nextAct, double prevActDepTime) {
+        return fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, null);
+    }
+
+    /**
+     * Same as fulfilled(...), but adds the names of the constraints that are not fulfilled to failedConstraintNames (if not null).
+     */
+    ConstraintsStatus fulfilled(JobInsertionContext iFacts, AbstractActivity prevAct, AbstractActivity newAct, AbstractActivity nextAct, double prevActDepTime, Collection<String> failedConstraintNames) {
         ConstraintsStatus notFulfilled = null;
-        for (HardActivityConstraint c : criticalConstraints) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status == ConstraintsStatus.NOT_FULFILLED_BREAK) {
-                return status;
-            } else {
-                if (status == ConstraintsStatus.NOT_FULFILLED) {
-                    notFulfilled = status;
+        Set<Class> failed = null;
+        for (HardActivityConstraintSequence sequence : criticalAndHighPrioConstraints) {
+            if (notFulfilled != null) break;
+            for (HardActivityConstraintSequence.Entry e : sequence.entries()) {
+                ConstraintsStatus status = sequence.evaluate(e, iFacts, prevAct, newAct, nextAct, prevActDepTime);
+                if (status == ConstraintsStatus.NOT_FULFILLED_BREAK) {
+                    if (failedConstraintNames != null) failedConstraintNames.add(e.constraint.getClass().getSimpleName());
+                    return status;
+                } else {
+                    if (status == ConstraintsStatus.NOT_FULFILLED) {
+                        if (failed == null) failed = new HashSet<>();
+                        failed.add(e.constraint.getClass());
+                        notFulfilled = status;
+                    }
                 }
             }
         }
-        if (notFulfilled != null) return notFulfilled;
-
-        for (HardActivityConstraint c : highPrioConstraints) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status == ConstraintsStatus.NOT_FULFILLED_BREAK) {
-                return status;
-            } else {
-                if (status == ConstraintsStatus.NOT_FULFILLED) {
-                    notFulfilled = status;
-                }
+        if (notFulfilled != null) {
+            if (failedConstraintNames != null) {
+                for (Class c : failed) failedConstraintNames.add(c.getSimpleName());
             }
+            return notFulfilled;
         }
-        if (notFulfilled != null) return notFulfilled;
 
-        for (HardActivityConstraint constraint : lowPrioConstraints) {
-            ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+        for (HardActivityConstraintSequence.Entry e : lowPrioConstraints.entries()) {
+            ConstraintsStatus status = lowPrioConstraints.evaluate(e, iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status == ConstraintsStatus.NOT_FULFILLED_BREAK || status == ConstraintsStatus.NOT_FULFILLED) {
+                if (failedConstraintNames != null) failedConstraintNames.add(e.constraint.getClass().getSimpleName());
                 return status;
             }
         }
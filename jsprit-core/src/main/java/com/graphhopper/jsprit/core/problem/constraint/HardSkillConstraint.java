@@ -19,38 +19,48 @@
 package com.graphhopper.jsprit.core.problem.constraint;
 
 import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
-import com.graphhopper.jsprit.core.problem.Skills;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.SkillIndex;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
 /**
  * SkillConstraint that ensures that only vehicles with according skills can serve route and job to be inserted.
  */
 public class HardSkillConstraint implements HardRouteConstraint {
 
-    private static final Skills defaultSkills = Skills.Builder.newInstance().build();
-
     private final RouteAndActivityStateGetter states;
 
+    private final SkillIndex skillIndex;
+
+    /**
+     * Takes the skill index from states if these are managed by a {@link StateManager}. Otherwise, route skills are not checked.
+     *
+     * @param states state getter providing the skills required by routes
+     */
     public HardSkillConstraint(RouteAndActivityStateGetter states) {
+        this(states, states instanceof StateManager ? ((StateManager) states).skillIndex() : null);
+    }
+
+    /**
+     * Checks job and route skills by the bitsets of skillIndex, i.e. of the problem to be solved.
+     *
+     * @param states     state getter providing the skills required by routes
+     * @param skillIndex skill index of the problem
+     */
+    public HardSkillConstraint(RouteAndActivityStateGetter states, SkillIndex skillIndex) {
         this.states = states;
+        this.skillIndex = skillIndex;
     }
 
     @Override
     public boolean fulfilled(JobInsertionContext insertionContext) {
-        for (String skill : insertionContext.getJob().skillsRequired().values()) {
-            if (!insertionContext.getNewVehicle().skills().containsSkill(skill)) {
-                return false;
-            }
-        }
-        Skills requiredSkillsForRoute = states.getRouteState(insertionContext.getRoute(), InternalStates.SKILLS, Skills.class);
-        if (requiredSkillsForRoute == null) requiredSkillsForRoute = defaultSkills;
-        for (String skill : requiredSkillsForRoute.values()) {
-            if (!insertionContext.getNewVehicle().skills().containsSkill(skill)) {
-                return false;
-            }
-        }
-        return true;
+        Vehicle newVehicle = insertionContext.getNewVehicle();
+        if (skillIndex == null) return newVehicle.skills().containsAll(insertionContext.getJob().skillsRequired());
+        if (!skillIndex.hasAllSkills(newVehicle, insertionContext.getJob())) return false;
+        long[] requiredSkillsForRoute = states.getRouteState(insertionContext.getRoute(), InternalStates.SKILLS, long[].class);
+        return requiredSkillsForRoute == null || skillIndex.hasAllSkills(newVehicle, requiredSkillsForRoute);
     }
 
 }
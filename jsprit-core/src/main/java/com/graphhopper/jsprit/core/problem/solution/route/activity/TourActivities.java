@@ -67,7 +67,17 @@ public class TourActivities {
 
     private final ArrayList<AbstractActivity> tourActivities = new ArrayList<>();
 
-    private final Set<Job> jobs = new HashSet<>();
+    /**
+     * Maps each job to its activities in this tour. Its key set is the set of jobs served by this tour.
+     */
+    private final Map<Job, List<AbstractActivity>> jobs = new HashMap<>();
+
+    /**
+     * Maps the index of an activity to its position. Positions from validPositions on are outdated and are updated on demand.
+     */
+    private final PositionIndex positions = new PositionIndex();
+
+    private int validPositions;
 
     private ReverseActivityIterator backward;
 
@@ -87,8 +97,13 @@ public class TourActivities {
         return Collections.unmodifiableList(tourActivities);
     }
 
+    /**
+     * Returns an iterator over all activities. It does not support removal, i.e. use removeActivity(...) or removeJob(...) instead.
+     *
+     * @return iterator over activities
+     */
     public Iterator<AbstractActivity> iterator() {
-        return tourActivities.iterator();
+        return activities().iterator();
     }
 
     public boolean isEmpty() {
@@ -96,7 +111,7 @@ public class TourActivities {
     }
 
     public Collection<Job> jobs() {
-        return Collections.unmodifiableSet(jobs);
+        return Collections.unmodifiableSet(jobs.keySet());
     }
 
     /**
@@ -104,7 +119,76 @@ public class TourActivities {
      * @return true if job is in jobList, otherwise false.
      */
     public boolean servesJob(Job job) {
-        return jobs.contains(job);
+        return jobs.containsKey(job);
+    }
+
+    /**
+     * Returns the activities of the specified job in the order they occur in this tour. The list is a snapshot, i.e. activities
+     * can be removed from this tour while iterating it.
+     *
+     * @param job the job
+     * @return activities of job or an empty list if job is not served
+     */
+    public List<AbstractActivity> activitiesOf(Job job) {
+        List<AbstractActivity> acts = jobs.get(job);
+        if (acts == null) return Collections.emptyList();
+        if (acts.size() == 1) return Collections.singletonList(acts.get(0));
+        acts.sort(Comparator.comparingInt(this::positionOf));
+        return Collections.unmodifiableList(new ArrayList<>(acts));
+    }
+
+    /**
+     * Returns the position of the specified activity (compared by identity) in this tour.
+     *
+     * @param activity the activity
+     * @return its position or -1 if it is not part of this tour
+     */
+    public int positionOf(AbstractActivity activity) {
+        int position = indexedPosition(activity.index());
+        if (position >= 0 && tourActivities.get(position) == activity) return position;
+        for (int i = 0; i < tourActivities.size(); i++) {
+            if (tourActivities.get(i) == activity) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position of the activity with the specified activity index in this tour.
+     *
+     * @param activityIndex index of the activity, i.e. activity.index()
+     * @return its position or -1 if there is no such activity
+     */
+    public int positionOf(int activityIndex) {
+        int position = indexedPosition(activityIndex);
+        if (position >= 0 && tourActivities.get(position).index() == activityIndex) return position;
+        for (int i = 0; i < tourActivities.size(); i++) {
+            if (tourActivities.get(i).index() == activityIndex) return i;
+        }
+        return -1;
+    }
+
+    private int indexedPosition(int activityIndex) {
+        if (activityIndex < 0) return -1;
+        if (validPositions < tourActivities.size()) updatePositions();
+        int position = positions.get(activityIndex);
+        return position < tourActivities.size() ? position : -1;
+    }
+
+    private void updatePositions() {
+        //entries of removed activities are never deleted, i.e. the index is rebuilt once they dominate
+        if (positions.size() > 2 * tourActivities.size() + 16) {
+            positions.clear(tourActivities.size());
+            validPositions = 0;
+        }
+        for (int i = validPositions; i < tourActivities.size(); i++) {
+            int activityIndex = tourActivities.get(i).index();
+            if (activityIndex >= 0) positions.put(activityIndex, i);
+        }
+        validPositions = tourActivities.size();
+    }
+
+    private void invalidatePositions(int from) {
+        if (from < validPositions) validPositions = from;
     }
 
     @Override
@@ -113,34 +197,20 @@ public class TourActivities {
     }
 
     /**
-     * Removes job AND belonging activity from tour. Note that if job is a Service, it is assumed that there is only one belonging activity,
-     * thus, it stops trying to remove activities once the first is found.
-     * If you want to always look for belonging activities to be removed in the entire route, use removeJob(Job job, boolean enforceEntireRoute)
+     * Removes job AND belonging activity from tour.
      *
      * @param job to be removed
      * @return true if job has been removed, otherwise false.
      */
     public boolean removeJob(Job job) {
-        boolean jobRemoved = false;
-        if (!jobs.contains(job)) {
-            return false;
-        } else {
-            jobRemoved = jobs.remove(job);
-        }
-        boolean activityRemoved = false;
-        Iterator<AbstractActivity> iterator = tourActivities.iterator();
-        while (iterator.hasNext()) {
-            AbstractActivity c = iterator.next();
-            if (c instanceof JobActivity) {
-                Job underlyingJob = ((JobActivity) c).job();
-                if (job.equals(underlyingJob)) {
-                    iterator.remove();
-                    activityRemoved = true;
-                }
-            }
+        List<AbstractActivity> acts = jobs.remove(job);
+        if (acts == null) return false;
+        for (AbstractActivity act : acts) {
+            int position = positionOf(act);
+            tourActivities.remove(position);
+            invalidatePositions(position);
         }
-        assert jobRemoved == activityRemoved : "job removed, but belonging activity not.";
-        return activityRemoved;
+        return !acts.isEmpty();
     }
 
 
@@ -153,29 +223,19 @@ public class TourActivities {
      * @return true if activity has been removed, false otherwise
      */
     public boolean removeActivity(AbstractActivity activity) {
-        Job job = null;
+        int position = positionOf(activity);
+        if (position < 0) return false;
+        tourActivities.remove(position);
+        invalidatePositions(position);
         if (activity instanceof JobActivity) {
-            job = ((JobActivity) activity).job();
-        }
-        boolean jobIsAlsoAssociateToOtherActs = false;
-        boolean actRemoved = false;
-        Iterable<AbstractActivity> acts = new ArrayList<>(tourActivities);
-        for (AbstractActivity act : acts) {
-            if (act == activity) {
-                tourActivities.remove(act);
-                actRemoved = true;
-            } else {
-                if (act instanceof JobActivity && job != null) {
-                    if (((JobActivity) act).job().equals(job)) {
-                        jobIsAlsoAssociateToOtherActs = true;
-                    }
-                }
+            Job job = ((JobActivity) activity).job();
+            List<AbstractActivity> acts = jobs.get(job);
+            if (acts != null) {
+                acts.removeIf(act -> act == activity);
+                if (acts.isEmpty()) jobs.remove(job);
             }
         }
-        if (!jobIsAlsoAssociateToOtherActs && actRemoved) {
-            jobs.remove(job);
-        }
-        return actRemoved;
+        return true;
     }
 
 
@@ -202,6 +262,7 @@ public class TourActivities {
 		 */
         if (insertionIndex < tourActivities.size()) {
             tourActivities.add(insertionIndex, act);
+            invalidatePositions(insertionIndex);
         } else if (insertionIndex >= tourActivities.size()) {
             tourActivities.add(act);
         }
@@ -216,17 +277,26 @@ public class TourActivities {
      * @throws IllegalArgumentException if activity-list already contains act.
      */
     public void addActivity(AbstractActivity act) {
-        if (tourActivities.contains(act))
+        if (contains(act))
             throw new IllegalArgumentException("act " + act + " already in tour. cannot add act twice.");
         tourActivities.add(act);
         addJob(act);
     }
 
+    /**
+     * Activities that are equal belong to the same job, i.e. only the activities of its job need to be compared.
+     */
+    private boolean contains(AbstractActivity act) {
+        if (!(act instanceof JobActivity)) return tourActivities.contains(act);
+        List<AbstractActivity> acts = jobs.get(((JobActivity) act).job());
+        return acts != null && acts.contains(act);
+    }
+
     private void addJob(AbstractActivity act) {
         if (act instanceof JobActivity) {
             Job job = ((JobActivity) act).job();
 //            if(job instanceof Service) assert !jobs.contains(job);
-            jobs.add(job);
+            jobs.computeIfAbsent(job, j -> new ArrayList<>(2)).add(act);
         }
     }
 
@@ -245,5 +315,71 @@ public class TourActivities {
         return backward;
     }
 
+    /**
+     * Open addressing hash map from (non-negative) activity indices to positions, i.e. its memory is proportional to the number of
+     * activities of this tour rather than to the number of activities of the problem.
+     */
+    private static final class PositionIndex {
+
+        private static final int EMPTY = -1;
+
+        private int[] keys = new int[0];
+
+        private int[] values = new int[0];
+
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int key) {
+            if (keys.length == 0) return -1;
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+                if (keys[slot] == EMPTY) return -1;
+            }
+        }
+
+        void put(int key, int value) {
+            if (2 * (size + 1) > keys.length) resize(Math.max(16, 2 * keys.length));
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        void clear(int expectedSize) {
+            int capacity = 16;
+            while (capacity < 2 * expectedSize) capacity <<= 1;
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            values = new int[capacity];
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            values = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
 
 }
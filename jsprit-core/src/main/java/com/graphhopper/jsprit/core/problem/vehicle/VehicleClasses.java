@@ -0,0 +1,176 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.vehicle;
+
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.Skills;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Equivalence classes of vehicles.
+ * <p>
+ * <p>Two vehicles are in the same class if they share start- and end-location, earliest departure and latest arrival,
+ * skills, capacity, profile and max velocity, return to depot and fixed costs, and if their variable cost parameters are
+ * proportional. Thus they can serve exactly the same routes and the costs of a route served by one vehicle can be derived
+ * from the costs of the same route served by the other vehicle by multiplying the variable costs with
+ * costScale(other) / costScale(one). Vehicles with breaks always form a class of their own.
+ * <p>
+ * <p>Classes are determined when they are first requested from the problem. Vehicles are identified by their index.
+ *
+ * @author schroeder
+ */
+public final class VehicleClasses {
+
+    public static final int NO_CLASS = -1;
+
+    private static final class ClassKey {
+
+        private final Location start;
+        private final Location end;
+        private final double earliestDeparture;
+        private final double latestArrival;
+        private final Skills skills;
+        private final Capacity capacity;
+        private final String profile;
+        private final double maxVelocity;
+        private final boolean returnToDepot;
+        private final double fix;
+        private final double[] normalizedCosts;
+        private final int hash;
+
+        private ClassKey(Vehicle vehicle, double[] normalizedCosts) {
+            this.start = vehicle.start();
+            this.end = vehicle.end();
+            this.earliestDeparture = vehicle.earliestDeparture();
+            this.latestArrival = vehicle.latestArrival();
+            this.skills = vehicle.skills();
+            this.capacity = vehicle.type().getCapacityDimensions();
+            this.profile = vehicle.type().profile();
+            this.maxVelocity = vehicle.type().getMaxVelocity();
+            this.returnToDepot = vehicle.isReturnToDepot();
+            this.fix = vehicle.type().getVehicleCostParams().fix;
+            this.normalizedCosts = normalizedCosts;
+            this.hash = Objects.hash(start, end, earliestDeparture, latestArrival, skills, capacity, profile, maxVelocity, returnToDepot, fix,
+                normalizedCosts[0], normalizedCosts[1], normalizedCosts[2], normalizedCosts[3]);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClassKey) || hash != o.hashCode()) return false;
+            ClassKey that = (ClassKey) o;
+            return Double.compare(that.earliestDeparture, earliestDeparture) == 0 && Double.compare(that.latestArrival, latestArrival) == 0
+                && Double.compare(that.maxVelocity, maxVelocity) == 0 && returnToDepot == that.returnToDepot && Double.compare(that.fix, fix) == 0
+                && Objects.equals(start, that.start) && Objects.equals(end, that.end) && Objects.equals(skills, that.skills)
+                && Objects.equals(capacity, that.capacity) && Objects.equals(profile, that.profile)
+                && Arrays.equals(normalizedCosts, that.normalizedCosts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Determines the equivalence classes of the specified vehicles.
+     *
+     * @param vehicles vehicles with index set
+     * @return vehicle classes
+     */
+    public static VehicleClasses of(Collection<Vehicle> vehicles) {
+        int maxIndex = 0;
+        for (Vehicle v : vehicles) maxIndex = Math.max(maxIndex, v.index());
+        int[] classes = new int[maxIndex + 1];
+        double[] costScales = new double[maxIndex + 1];
+        Arrays.fill(classes, NO_CLASS);
+        Map<ClassKey, Integer> classIndices = new HashMap<>();
+        int classCounter = 0;
+        for (Vehicle v : vehicles) {
+            if (v.type() == null) continue;
+            VehicleTypeImpl.VehicleCostParams costParams = v.type().getVehicleCostParams();
+            double[] costs = {costParams.perDistanceUnit, costParams.perTransportTimeUnit, costParams.perWaitingTimeUnit, costParams.perServiceTimeUnit};
+            double scale = 0.;
+            for (double c : costs) scale = Math.max(scale, Math.abs(c));
+            Integer classIndex = null;
+            if (scale > 0. && v.aBreak() == null) {
+                for (int i = 0; i < costs.length; i++) costs[i] = costs[i] / scale;
+                ClassKey key = new ClassKey(v, costs);
+                classIndex = classIndices.get(key);
+                if (classIndex == null) {
+                    classIndex = classCounter++;
+                    classIndices.put(key, classIndex);
+                }
+            } else {
+                classIndex = classCounter++;
+                scale = 1.;
+            }
+            classes[v.index()] = classIndex;
+            costScales[v.index()] = scale;
+        }
+        return new VehicleClasses(classes, costScales, classCounter);
+    }
+
+    private final int[] classes;
+
+    private final double[] costScales;
+
+    private final int noClasses;
+
+    private VehicleClasses(int[] classes, double[] costScales, int noClasses) {
+        this.classes = classes;
+        this.costScales = costScales;
+        this.noClasses = noClasses;
+    }
+
+    /**
+     * @return number of classes
+     */
+    public int size() {
+        return noClasses;
+    }
+
+    /**
+     * @param vehicle the vehicle
+     * @return class index of vehicle or NO_CLASS if the vehicle is unknown
+     */
+    public int classOf(Vehicle vehicle) {
+        int index = vehicle.index();
+        if (index < 0 || index >= classes.length) return NO_CLASS;
+        return classes[index];
+    }
+
+    /**
+     * Variable costs of a vehicle relative to the other vehicles of its class.
+     *
+     * @param vehicle the vehicle
+     * @return cost scale
+     */
+    public double costScale(Vehicle vehicle) {
+        int index = vehicle.index();
+        if (index < 0 || index >= costScales.length) return 1.;
+        return costScales[index];
+    }
+
+}
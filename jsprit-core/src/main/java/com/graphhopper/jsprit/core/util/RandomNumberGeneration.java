@@ -45,4 +45,33 @@ public class RandomNumberGeneration {
         random.setSeed(DEFAULT_SEED);
     }
 
+    /**
+     * Derives the seed of an independent stream of random numbers from seed and stream (as SplittableRandom does), e.g. one
+     * stream per iteration and job. Since the result only depends on its arguments, it does not matter in which order or by
+     * which thread streams are derived.
+     *
+     * @param seed   seed of parent stream
+     * @param stream id of stream
+     * @return seed of the stream
+     */
+    public static long split(long seed, long stream) {
+        return mix64(seed + (stream + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @param seed seed, e.g. derived with split(...)
+     * @return uniformly distributed double in [0,1) that only depends on seed
+     */
+    public static double toDouble(long seed) {
+        return (mix64(seed) >>> 11) * 0x1.0p-53;
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
 }
@@ -43,7 +43,6 @@ public class UnassignedJobReasonTracker implements JobUnassignedListener {
                 mostLikely = entry.getKey();
             }
         }
-        java.util.
         return mostLikely.toString();
     }
 
@@ -17,21 +17,41 @@
  */
 package com.graphhopper.jsprit.core.algorithm;
 
+import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
 import com.graphhopper.jsprit.core.algorithm.termination.PrematureAlgorithmTermination;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.util.Solutions;
 import org.junit.Test;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static com.graphhopper.jsprit.core.util.TestUtils.randomProblem;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.*;
 
 public class VehicleRoutingAlgorithmTest {
 
+    @Test
+    public void whenClosingTwice_closeHandlersShouldRunOnce() {
+        VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class),
+            mock(SearchStrategyManager.class));
+        final AtomicInteger closed = new AtomicInteger();
+        algorithm.addCloseHandler(closed::incrementAndGet);
+        algorithm.close();
+        algorithm.close();
+        assertEquals(1, closed.get());
+    }
+
     @Test
     public void whenSettingIterations_itIsSetCorrectly() {
         VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class),
@@ -182,4 +202,152 @@ public class VehicleRoutingAlgorithmTest {
         assertEquals(25, counter.getCountIterations());
     }
 
+    private static SearchStrategy strategy(String id, VehicleRoutingProblemSolution newSolution, SolutionAcceptor acceptor) {
+        SearchStrategy strategy = mock(SearchStrategy.class);
+        when(strategy.getId()).thenReturn(id);
+        when(strategy.getSolutionAcceptor()).thenReturn(acceptor);
+        when(strategy.searchSolution(any(VehicleRoutingProblem.class), anyCollectionOf(VehicleRoutingProblemSolution.class))).thenReturn(newSolution);
+        return strategy;
+    }
+
+    @Test
+    public void whenSearchingSpeculatively_bestSolutionShouldBeAcceptedByStrategyWithSameId() {
+        VehicleRoutingProblemSolution worse = new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 10.);
+        VehicleRoutingProblemSolution better = new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 5.);
+        SolutionAcceptor acceptorA = mock(SolutionAcceptor.class);
+        SolutionAcceptor acceptorB = mock(SolutionAcceptor.class);
+        SearchStrategy a = strategy("a", worse, acceptorA);
+        SearchStrategy b = strategy("b", null, acceptorB);
+        SearchStrategyManager stratManager = mock(SearchStrategyManager.class);
+        when(stratManager.getRandomStrategy()).thenReturn(a);
+        when(stratManager.getStrategy("b")).thenReturn(b);
+        Collection<VehicleRoutingProblemSolution> initialSolutions = new ArrayList<>();
+        initialSolutions.add(new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 20.));
+        VehicleRoutingAlgorithm algorithm = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class), initialSolutions, stratManager);
+
+        SearchStrategyManager speculativeManager = mock(SearchStrategyManager.class);
+        SearchStrategy speculativeB = strategy("b", better, mock(SolutionAcceptor.class));
+        when(speculativeManager.getRandomStrategy()).thenReturn(speculativeB);
+        VehicleRoutingAlgorithm speculative = new VehicleRoutingAlgorithm(mock(VehicleRoutingProblem.class), speculativeManager);
+        CountIterations speculativeCounter = new CountIterations();
+        speculative.addListener(speculativeCounter);
+
+        final List<String> selected = new ArrayList<>();
+        algorithm.addListener((StrategySelectedListener) (discoveredSolution, problem, solutions) -> selected.add(discoveredSolution.getStrategyId()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        algorithm.setSpeculativeSearch(executor, Collections.singletonList(speculative));
+        algorithm.setMaxIterations(3);
+        algorithm.searchSolutions();
+        executor.shutdown();
+
+        assertEquals(Arrays.asList("b", "b", "b"), selected);
+        assertEquals(3, speculativeCounter.getCountIterations());
+        verify(acceptorB, times(3)).acceptSolution(anyCollectionOf(VehicleRoutingProblemSolution.class), same(better));
+        verify(acceptorA, never()).acceptSolution(anyCollectionOf(VehicleRoutingProblemSolution.class), any(VehicleRoutingProblemSolution.class));
+    }
+
+    private static VehicleRoutingAlgorithm jsprit() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(randomProblem(30, 30).build()).setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(100);
+        return vra;
+    }
+
+    /**
+     * Returns the best solution ever found, which is added to the returned solutions last. Solutions.bestOf(...) may return another
+     * solution with equal costs.
+     */
+    private static VehicleRoutingProblemSolution bestEver(Collection<VehicleRoutingProblemSolution> solutions) {
+        VehicleRoutingProblemSolution bestEver = null;
+        for (VehicleRoutingProblemSolution solution : solutions) bestEver = solution;
+        assertNotNull(bestEver);
+        assertEquals(Solutions.bestOf(solutions).cost(), bestEver.cost(), 0.);
+        return bestEver;
+    }
+
+    private static class CollectSolutions implements Flow.Subscriber<VehicleRoutingProblemSolution> {
+
+        private final List<VehicleRoutingProblemSolution> solutions = Collections.synchronizedList(new ArrayList<VehicleRoutingProblemSolution>());
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(VehicleRoutingProblemSolution solution) {
+            solutions.add(solution);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    public void bestSolutionShouldBePublishedWhileAndAfterSearching() {
+        final VehicleRoutingAlgorithm vra = jsprit();
+        assertNull(vra.getBestSolution());
+        final List<VehicleRoutingProblemSolution> bestDuringSearch = new ArrayList<>();
+        vra.addListener((IterationStartsListener) (i, problem, solutions) -> bestDuringSearch.add(vra.getBestSolution()));
+        VehicleRoutingProblemSolution best = bestEver(vra.searchSolutions());
+        vra.close();
+        assertEquals(100, bestDuringSearch.size());
+        for (int i = 0; i < bestDuringSearch.size(); i++) {
+            assertNotNull(bestDuringSearch.get(i));
+            if (i > 0) assertTrue(bestDuringSearch.get(i).cost() <= bestDuringSearch.get(i - 1).cost());
+        }
+        assertSame(best, vra.getBestSolution());
+    }
+
+    @Test
+    public void subscribersShouldReceiveImprovingSolutionsAndCompletion() throws InterruptedException {
+        VehicleRoutingAlgorithm vra = jsprit();
+        CollectSolutions subscriber = new CollectSolutions();
+        vra.getBestSolutionPublisher().subscribe(subscriber);
+        VehicleRoutingProblemSolution best = bestEver(vra.searchSolutions());
+        vra.close();
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertTrue(subscriber.solutions.size() > 1);
+        for (int i = 1; i < subscriber.solutions.size(); i++) {
+            assertTrue(subscriber.solutions.get(i).cost() < subscriber.solutions.get(i - 1).cost());
+        }
+        assertSame(best, subscriber.solutions.get(subscriber.solutions.size() - 1));
+    }
+
+    @Test
+    public void whenClosingWhileSearching_publicationShouldStopWithoutFailingTheSearch() throws InterruptedException {
+        final VehicleRoutingAlgorithm vra = jsprit();
+        CollectSolutions subscriber = new CollectSolutions();
+        vra.getBestSolutionPublisher().subscribe(subscriber);
+        vra.addListener((IterationStartsListener) (i, problem, solutions) -> {
+            if (i == 10) vra.close();
+        });
+        VehicleRoutingProblemSolution best = bestEver(vra.searchSolutions());
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertSame(best, vra.getBestSolution());
+        int noPublished = subscriber.solutions.size();
+        vra.searchSolutions();
+        assertEquals(noPublished, subscriber.solutions.size());
+    }
+
+    @Test
+    public void whenThrottlingByImprovement_onlyLargeImprovementsAndFinalSolutionShouldBePublished() throws InterruptedException {
+        VehicleRoutingAlgorithm vra = jsprit();
+        vra.setBestSolutionPublication(2., Long.MAX_VALUE);
+        CollectSolutions subscriber = new CollectSolutions();
+        vra.getBestSolutionPublisher().subscribe(subscriber);
+        VehicleRoutingProblemSolution best = bestEver(vra.searchSolutions());
+        vra.close();
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(2, subscriber.solutions.size());
+        assertSame(best, subscriber.solutions.get(1));
+    }
+
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.box;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.graphhopper.jsprit.core.util.TestUtils.randomProblem;
+
+public class BatchSolverTest {
+
+    private static VehicleRoutingProblem vrp(int noJobs, Random random) {
+        return randomProblem(noJobs, noJobs, random).build();
+    }
+
+    private static List<VehicleRoutingProblem> problems(int noProblems) {
+        Random random = new Random(4711);
+        List<VehicleRoutingProblem> problems = new ArrayList<>();
+        for (int i = 0; i < noProblems; i++) problems.add(vrp(5 + i, random));
+        return problems;
+    }
+
+    @Test
+    public void whenSolvingStream_eachProblemShouldBeSolvedOnce() {
+        List<VehicleRoutingProblem> problems = problems(12);
+        Set<VehicleRoutingProblem> solved = Collections.newSetFromMap(new IdentityHashMap<VehicleRoutingProblem, Boolean>());
+        try (BatchSolver solver = BatchSolver.Builder.newInstance().setNoThreads(3).setMaxIterations(20).build()) {
+            Iterator<BatchSolver.Result> results = solver.solve(problems.stream());
+            while (results.hasNext()) {
+                BatchSolver.Result result = results.next();
+                Assert.assertTrue(result.solution().jobsUnassigned.isEmpty());
+                Assert.assertTrue(solved.add(result.problem()));
+            }
+        }
+        Assert.assertEquals(12, solved.size());
+    }
+
+    @Test
+    public void whenSolvingStream_problemsShouldBeTakenLazily() {
+        final Random random = new Random(4711);
+        final AtomicInteger noTaken = new AtomicInteger();
+        Stream<VehicleRoutingProblem> problems = Stream.generate(() -> {
+            noTaken.incrementAndGet();
+            return vrp(5, random);
+        });
+        try (BatchSolver solver = BatchSolver.Builder.newInstance().setNoThreads(2).setMaxProblemsInFlight(3).setMaxIterations(10).build()) {
+            Iterator<BatchSolver.Result> results = solver.solve(problems);
+            for (int i = 0; i < 5; i++) Assert.assertTrue(results.next().solution().jobsUnassigned.isEmpty());
+            Assert.assertTrue(noTaken.get() <= 5 + 3);
+        }
+    }
+
+    @Test
+    public void sameSeedShouldReproduceSolutions() throws Exception {
+        List<VehicleRoutingProblem> problems = problems(4);
+        double[] first = solve(problems);
+        double[] second = solve(problems);
+        Assert.assertArrayEquals(first, second, 0.);
+    }
+
+    @Test
+    public void sharedDefaultsShouldLeadToSameSolutionsAsDefaultsOfBuilder() {
+        for (VehicleRoutingProblem vrp : problems(3)) {
+            Properties defaults = Jsprit.Builder.createDefaultProperties(vrp.jobs().size());
+            double withSharedDefaults = Solutions.bestOf(Jsprit.Builder.newInstance(vrp, defaults).setRandom(new Random(42))
+                .setProperty(Jsprit.Parameter.ITERATIONS, "20").buildAlgorithm().searchSolutions()).cost();
+            double withOwnDefaults = Solutions.bestOf(Jsprit.Builder.newInstance(vrp).setRandom(new Random(42))
+                .setProperty(Jsprit.Parameter.ITERATIONS, "20").buildAlgorithm().searchSolutions()).cost();
+            Assert.assertEquals(withOwnDefaults, withSharedDefaults, 0.);
+        }
+    }
+
+    private static double[] solve(List<VehicleRoutingProblem> problems) throws Exception {
+        try (BatchSolver solver = BatchSolver.Builder.newInstance().setNoThreads(2).setMaxIterations(20)
+            .setProperty(Jsprit.Parameter.INSERTION_NOISE_PROB, "1.").setRandom(new Random(42)).build()) {
+            List<Future<VehicleRoutingProblemSolution>> futures = new ArrayList<>();
+            for (VehicleRoutingProblem vrp : problems) futures.add(solver.submit(vrp));
+            double[] costs = new double[futures.size()];
+            for (int i = 0; i < costs.length; i++) costs[i] = futures.get(i).get().cost();
+            return costs;
+        }
+    }
+
+    @Test
+    public void whenTimeBudgetIsSet_problemShouldBeSolvedWithinBudget() throws Exception {
+        try (BatchSolver solver = BatchSolver.Builder.newInstance().setNoThreads(1).setMaxIterations(Integer.MAX_VALUE).setMaxTime(100).build()) {
+            long start = System.currentTimeMillis();
+            VehicleRoutingProblemSolution solution = solver.submit(vrp(10, new Random(1))).get();
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+            Assert.assertTrue(solution.jobsUnassigned.isEmpty());
+        }
+    }
+
+    @Test
+    public void whenClosingSolver_callerProvidedExecutorShouldNotBeShutDown() {
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        BatchSolver solver = BatchSolver.Builder.newInstance().setExecutorService(es).setMaxIterations(10).build();
+        solver.submit(vrp(5, new Random(1))).join();
+        solver.close();
+        Assert.assertFalse(es.isShutdown());
+        es.shutdown();
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.box;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.graphhopper.jsprit.core.util.TestUtils.randomProblem;
+
+public class IslandModelTest {
+
+    private static VehicleRoutingProblem vrp() {
+        return randomProblem(30, 8).build();
+    }
+
+    @Test
+    public void islandsShouldReturnSolutionsOfAllIslands() {
+        VehicleRoutingProblem vrp = vrp();
+        IslandModel islands = IslandModel.Builder.newInstance(vrp).setNoIslands(3).setMaxIterations(20)
+            .setMigrationInterval(5).setRandom(new Random(1)).build();
+        Collection<VehicleRoutingProblemSolution> solutions = islands.searchSolutions();
+        Assert.assertTrue(solutions.size() >= 3);
+        Assert.assertTrue(Solutions.bestOf(solutions).jobsUnassigned.isEmpty());
+    }
+
+    @Test
+    public void sameSeedShouldReproduceBestSolution() {
+        VehicleRoutingProblem vrp = vrp();
+        double first = Solutions.bestOf(IslandModel.Builder.newInstance(vrp).setNoIslands(4).setMaxIterations(30)
+            .setMigrationInterval(5).setRandom(new Random(42)).build().searchSolutions()).cost();
+        double second = Solutions.bestOf(IslandModel.Builder.newInstance(vrp).setNoIslands(4).setMaxIterations(30)
+            .setMigrationInterval(5).setRandom(new Random(42)).build().searchSolutions()).cost();
+        Assert.assertEquals(first, second, 0.);
+    }
+
+    @Test
+    public void whenIslandsRunDifferentNumbersOfIterations_migrationShouldNotBlock() {
+        VehicleRoutingProblem vrp = vrp();
+        final AtomicInteger created = new AtomicInteger();
+        IslandModel islands = IslandModel.Builder.newInstance(vrp).setNoIslands(3).setMigrationInterval(2)
+            .setIslandFactory(new IslandModel.IslandFactory() {
+
+                @Override
+                public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, Random random) {
+                    VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandom(random).buildAlgorithm();
+                    vra.setMaxIterations(5 + 10 * created.getAndIncrement());
+                    return vra;
+                }
+
+            }).build();
+        Collection<VehicleRoutingProblemSolution> solutions = islands.searchSolutions();
+        Assert.assertEquals(3, created.get());
+        Assert.assertTrue(Solutions.bestOf(solutions).jobsUnassigned.isEmpty());
+    }
+
+}
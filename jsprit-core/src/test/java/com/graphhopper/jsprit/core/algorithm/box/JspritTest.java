@@ -20,10 +20,13 @@ package com.graphhopper.jsprit.core.algorithm.box;
 
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.BeforeJobInsertionListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.algorithm.ruin.AdaptiveRuinShareFactory;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
@@ -33,10 +36,16 @@ import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolutio
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.Solutions;
 import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.graphhopper.jsprit.core.util.TestUtils.randomProblem;
 
 /**
  * Created by schroeder on 06/03/15.
@@ -102,6 +111,58 @@ public class JspritTest {
         Assert.assertTrue(counts.containsKey(Jsprit.Strategy.RADIAL_BEST.toString()));
     }
 
+    @Test
+    public void whenActivatingStringBlink_itShouldFindSolutionWithoutUnassignedJobs() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(randomProblem(40, 8).build())
+            .setProperty(Jsprit.Strategy.STRING_BLINK, "100.")
+            .setProperty(Jsprit.Parameter.STRING_BLINK_RATE, "0.1")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(100);
+        final Map<String, Integer> counts = new HashMap<String, Integer>();
+        vra.addListener(new StrategySelectedListener() {
+
+            @Override
+            public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+                Integer count = counts.get(discoveredSolution.getStrategyId());
+                counts.put(discoveredSolution.getStrategyId(), count == null ? 1 : count + 1);
+            }
+
+        });
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(counts.get(Jsprit.Strategy.STRING_BLINK.toString()) > 50);
+        Assert.assertTrue(solution.jobsUnassigned.isEmpty());
+    }
+
+    @Test
+    public void whenSwitchingOnAdaptiveRuinShares_ruinsShouldNotExceedMaxJobs() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(randomProblem(40, 40).build())
+            .setProperty(Jsprit.Parameter.ADAPTIVE_RUIN_SHARE, "true")
+            .setProperty(Jsprit.Parameter.RUIN_MAX_JOBS, "3")
+            .setProperty(Jsprit.Strategy.CLUSTER_REGRET, "0.")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(100);
+        final List<Integer> ruinSizes = new ArrayList<Integer>();
+        vra.addListener(new RuinListener() {
+            @Override
+            public void ruinStarts(Collection<VehicleRoute> routes) {
+
+            }
+
+            @Override
+            public void ruinEnds(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+                ruinSizes.add(unassignedJobs.size());
+            }
+
+            @Override
+            public void removed(Job job, VehicleRoute fromRoute) {
+
+            }
+        });
+        vra.searchSolutions();
+        Assert.assertFalse(ruinSizes.isEmpty());
+        for (int ruinSize : ruinSizes) Assert.assertTrue(ruinSize <= 3);
+    }
+
     @Test
     public void whenActivatingStrat_itShouldBeReflectedV2() {
         Service s = Service.Builder.newInstance("s1").location(Location.the(1, 1)).build();
@@ -477,6 +538,138 @@ public class JspritTest {
         Assert.assertTrue(true);
     }
 
+    @Test
+    public void whenUsingCommonPool_itShouldWork() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(twoCustomers())
+            .setExecutorStrategy(Jsprit.ExecutorStrategy.COMMON_POOL)
+            .setProperty(Jsprit.Parameter.THREADS, "2").buildAlgorithm();
+        vra.setMaxIterations(20);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        vra.close();
+        Assert.assertTrue(solution.jobsUnassigned.isEmpty());
+        Assert.assertFalse(ForkJoinPool.commonPool().isShutdown());
+    }
+
+    @Test
+    public void whenUsingVirtualThreads_itShouldWorkWithOrWithoutVirtualThreadSupport() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(twoCustomers())
+            .setExecutorStrategy(Jsprit.ExecutorStrategy.VIRTUAL_THREADS)
+            .setProperty(Jsprit.Parameter.THREADS, "2").buildAlgorithm();
+        vra.setMaxIterations(20);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        vra.close();
+        Assert.assertTrue(solution.jobsUnassigned.isEmpty());
+    }
+
+    @Test
+    public void whenClosingAlgorithm_callerProvidedExecutorShouldNotBeShutDown() {
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        try (VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(twoCustomers()).setExecutorService(es, 2).buildAlgorithm()) {
+            vra.setMaxIterations(20);
+            vra.searchSolutions();
+        }
+        Assert.assertFalse(es.isShutdown());
+        es.shutdown();
+    }
+
+    @Test
+    public void whenRunningConcurrentlyWithNoise_sameSeedShouldReproduceInsertions() {
+        VehicleRoutingProblem vrp = randomProblem(40, 8).build();
+
+        List<String> first = recordConcurrentInsertions(vrp);
+        List<String> second = recordConcurrentInsertions(vrp);
+        Assert.assertFalse(first.isEmpty());
+        Assert.assertEquals(first, second);
+    }
+
+    @Test
+    public void whenRunningStrategiesSpeculatively_sameSeedShouldReproduceSolution() {
+        VehicleRoutingProblem vrp = randomProblem(40, 8).build();
+
+        VehicleRoutingProblemSolution first = searchSpeculatively(vrp);
+        VehicleRoutingProblemSolution second = searchSpeculatively(vrp);
+        Assert.assertTrue(first.jobsUnassigned.isEmpty());
+        Assert.assertEquals(first.cost(), second.cost(), 0.);
+    }
+
+    @Test
+    public void whenSwitchingOnSpeculativeInsertion_allJobsShouldBeAssigned() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(randomProblem(40, 8).build())
+            .setProperty(Jsprit.Parameter.THREADS, "2")
+            .setProperty(Jsprit.Parameter.SPECULATIVE_INSERTION, "true")
+            .setProperty(Jsprit.Strategy.WORST_BEST, "1.")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(20);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        vra.close();
+        Assert.assertTrue(solution.jobsUnassigned.isEmpty());
+    }
+
+    @Test
+    public void whenSwitchingOnLowerBoundPruning_allJobsShouldBeAssigned() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(twoCustomers())
+            .setProperty(Jsprit.Parameter.LOWER_BOUND_PRUNING, "true")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(20);
+        Assert.assertTrue(Solutions.bestOf(vra.searchSolutions()).jobsUnassigned.isEmpty());
+    }
+
+    @Test
+    public void whenRunningStrategiesSpeculativelyWithAdaptiveRuinShares_speculativeAlgorithmsShouldBeStarted() {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(twoCustomers())
+            .setProperty(Jsprit.Parameter.SPECULATIVE_STRATEGIES, "3")
+            .setProperty(Jsprit.Parameter.ADAPTIVE_RUIN_SHARE, "true")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(20);
+        Assert.assertEquals(2, vra.getSpeculativeAlgorithms().size());
+        final List<Integer> maxIterations = new ArrayList<>();
+        for (VehicleRoutingAlgorithm speculative : vra.getSpeculativeAlgorithms()) {
+            boolean adaptive = false;
+            for (VehicleRoutingAlgorithmListener l : speculative.getAlgorithmListeners().getAlgorithmListeners()) {
+                if (l instanceof AdaptiveRuinShareFactory) adaptive = true;
+            }
+            Assert.assertTrue(adaptive);
+            speculative.addListener((AlgorithmStartsListener) (problem, algorithm, solutions) -> maxIterations.add(algorithm.getMaxIterations()));
+        }
+        vra.searchSolutions();
+        vra.close();
+        Assert.assertEquals(Arrays.asList(20, 20), maxIterations);
+    }
+
+    private static VehicleRoutingProblemSolution searchSpeculatively(VehicleRoutingProblem vrp) {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.SPECULATIVE_STRATEGIES, "4")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(50);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        vra.close();
+        return solution;
+    }
+
+    private static List<String> recordConcurrentInsertions(VehicleRoutingProblem vrp) {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.THREADS, "4")
+            .setProperty(Jsprit.Parameter.INSERTION_NOISE_PROB, "1.")
+            .setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(50);
+        final List<String> record = new ArrayList<String>();
+        vra.addListener(new BeforeJobInsertionListener() {
+            @Override
+            public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+                record.add(job.id() + "@" + data.getInsertionCost());
+            }
+        });
+        vra.searchSolutions();
+        return record;
+    }
+
+    private static VehicleRoutingProblem twoCustomers() {
+        Service s = Service.Builder.newInstance("s1").location(Location.the(1, 1)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(1, 2)).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        return VehicleRoutingProblem.Builder.get().addVehicle(v).addJob(s).addJob(s2).build();
+    }
+
     @Test
     public void compare() {
         String s1 = "s2234";
@@ -0,0 +1,94 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.JobActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.graphhopper.jsprit.core.util.TestUtils.randomProblem;
+
+public class BestInsertionConcurrentTest {
+
+    @Test
+    public void speculativeJobsShouldLeadToSameRoutesAsBestInsertion() {
+        assertSameRoutesAsBestInsertion(randomProblem(60, 60).build());
+    }
+
+    @Test
+    public void whenInsertionCostsTie_speculativeJobsShouldLeadToSameRoutesAsBestInsertion() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 60; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(4) * 10, random.nextInt(4) * 10)).build());
+        }
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(15, 15)).build());
+        assertSameRoutesAsBestInsertion(vrpBuilder.build());
+    }
+
+    private static void assertSameRoutesAsBestInsertion(VehicleRoutingProblem vrp) {
+        Vehicle v = vrp.vehicles().iterator().next();
+        List<VehicleRoute> serialRoutes = RegretInsertionTest.routes(v, 4);
+        List<Job> serialSequence = new ArrayList<Job>();
+        BestInsertion serial = new BestInsertion(RegretInsertionTest.getCalculator(vrp), vrp);
+        serial.setRandom(new Random(1));
+        serial.addListener(new RegretInsertionTest.RecordJobSequence(serialSequence));
+        serial.insertJobs(serialRoutes, vrp.jobs().values());
+
+        List<VehicleRoute> speculativeRoutes = RegretInsertionTest.routes(v, 4);
+        List<Job> speculativeSequence = new ArrayList<Job>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        BestInsertionConcurrent speculative = new BestInsertionConcurrent(RegretInsertionTest.getCalculator(vrp), executor, 4, vrp);
+        speculative.setSpeculativeJobs(8);
+        speculative.setRandom(new Random(1));
+        speculative.addListener(new RegretInsertionTest.RecordJobSequence(speculativeSequence));
+        speculative.insertJobs(speculativeRoutes, vrp.jobs().values());
+        executor.shutdown();
+
+        Assert.assertEquals(vrp.jobs().size(), speculativeSequence.size());
+        Assert.assertEquals(serialSequence, speculativeSequence);
+        Assert.assertEquals(jobIds(serialRoutes), jobIds(speculativeRoutes));
+    }
+
+    private static List<List<String>> jobIds(List<VehicleRoute> routes) {
+        List<List<String>> jobIds = new ArrayList<List<String>>();
+        for (VehicleRoute route : routes) {
+            List<String> ids = new ArrayList<String>();
+            for (AbstractActivity act : route.activities()) {
+                ids.add(((JobActivity) act).job().id());
+            }
+            jobIds.add(ids);
+        }
+        return jobIds;
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.CostFactory;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class InsertionCostLowerBoundTest {
+
+    private final EuclideanCosts costs = new EuclideanCosts();
+
+    private final VehicleType type = VehicleTypeImpl.Builder.the("t").setCostPerDistance(2.).build();
+
+    @Test
+    public void whenCostsAreNotEuclidean_itShouldNotProvideBound() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().setRoutingCost(CostFactory.createManhattanCosts()).build();
+        Assert.assertNull(InsertionCostLowerBound.of(vrp));
+    }
+
+    @Test
+    public void whenCostsAreEuclidean_itShouldProvideBound() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().setRoutingCost(costs).build();
+        Assert.assertNotNull(InsertionCostLowerBound.of(vrp));
+    }
+
+    @Test
+    public void whenJobIsWithinRouteBox_boundShouldBeZero() {
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).setType(type).build();
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(10, 0)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(10, 10)).build();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).addService(s1).addService(s2).build();
+        Service s3 = Service.Builder.newInstance("s3").location(Location.the(5, 5)).build();
+        InsertionCostLowerBound bound = InsertionCostLowerBound.of(vrp());
+        Assert.assertEquals(0., bound.getLowerBound(route, s3, v), 0.01);
+    }
+
+    @Test
+    public void whenRouteIsEmpty_boundShouldBeRoundTripCosts() {
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).setType(type).build();
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).build();
+        InsertionCostLowerBound bound = InsertionCostLowerBound.of(vrp());
+        Assert.assertEquals(40., bound.getLowerBound(VehicleRoute.emptyRoute(), s, v), 0.01);
+    }
+
+    @Test
+    public void whenRouteBoxStatesAreUpdated_boundShouldBeBasedOnRouteBoxState() {
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(10, 0)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(10, 10)).build();
+        Service s3 = Service.Builder.newInstance("s3").location(Location.the(30, 5)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().setRoutingCost(costs)
+            .addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).setType(type).build())
+            .addJob(s1).addJob(s2).addJob(s3).build();
+        Vehicle v = vrp.vehicles().iterator().next();
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.updateRouteBoxStates();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).setJobActivityFactory(vrp.jobActivityFactory())
+            .addService(s1).addService(s2).build();
+        stateManager.informInsertionStarts(Collections.singletonList(route), Collections.<Job>emptyList());
+        Assert.assertArrayEquals(new double[]{0., 0., 10., 10.}, stateManager.getRouteState(route, InternalStates.ROUTE_BOX, double[].class), 0.01);
+        double bound = InsertionCostLowerBound.of(vrp, stateManager).getLowerBound(route, s3, v);
+        Assert.assertEquals(InsertionCostLowerBound.of(vrp).getLowerBound(route, s3, v), bound, 0.01);
+        Assert.assertTrue(bound > 0.);
+    }
+
+    @Test
+    public void boundShouldNeverExceedCheapestDetour() {
+        Random random = new Random(4711);
+        InsertionCostLowerBound bound = InsertionCostLowerBound.of(vrp());
+        for (int run = 0; run < 200; run++) {
+            boolean returnToDepot = random.nextBoolean();
+            VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(random.nextInt(100), random.nextInt(100)))
+                .setReturnToDepot(returnToDepot).setType(type).build();
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v);
+            int noServices = 1 + random.nextInt(8);
+            for (int i = 0; i < noServices; i++) {
+                routeBuilder.addService(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(100), random.nextInt(100))).build());
+            }
+            VehicleRoute route = routeBuilder.build();
+            Service newService = Service.Builder.newInstance("new").location(Location.the(random.nextInt(300) - 100, random.nextInt(300) - 100)).build();
+            double lowerBound = bound.getLowerBound(route, newService, v);
+            Assert.assertTrue(lowerBound <= cheapestDetour(route, newService, v) + 1e-9);
+        }
+    }
+
+    private double cheapestDetour(VehicleRoute route, Service service, VehicleImpl v) {
+        List<Location> stops = new ArrayList<>();
+        stops.add(route.start.location());
+        for (AbstractActivity act : route.activities()) stops.add(act.location());
+        double best = costs.transportCost(stops.get(stops.size() - 1), service.location, 0., null, v);
+        if (v.isReturnToDepot()) {
+            stops.add(route.end.location());
+            best = Double.MAX_VALUE;
+        }
+        for (int i = 0; i < stops.size() - 1; i++) {
+            double detour = costs.transportCost(stops.get(i), service.location, 0., null, v) + costs.transportCost(service.location, stops.get(i + 1), 0., null, v)
+                - costs.transportCost(stops.get(i), stops.get(i + 1), 0., null, v);
+            best = Math.min(best, detour);
+        }
+        return best;
+    }
+
+    private VehicleRoutingProblem vrp() {
+        return VehicleRoutingProblem.Builder.get().setRoutingCost(costs).build();
+    }
+
+}
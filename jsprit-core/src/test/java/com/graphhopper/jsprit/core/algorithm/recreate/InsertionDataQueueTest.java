@@ -0,0 +1,98 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class InsertionDataQueueTest {
+
+    private static InsertionData iData(double costs) {
+        return new InsertionData(costs, -1, 0, null, null);
+    }
+
+    @Test
+    public void cursorShouldVisitEntriesInAscendingOrder() {
+        Random random = new Random(4711);
+        InsertionDataQueue queue = new InsertionDataQueue();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        List<Double> costs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            double c = random.nextInt(1000);
+            costs.add(c);
+            queue.add(iData(c), 0, route);
+        }
+        Collections.sort(costs);
+        InsertionDataQueue.Cursor cursor = queue.cursor();
+        int index = 0;
+        while (cursor.hasNext()) {
+            Assert.assertEquals(costs.get(index++), queue.insertionData(cursor.next()).getInsertionCost(), 0.);
+        }
+        Assert.assertEquals(100, index);
+    }
+
+    @Test
+    public void whenCostsAreEqual_firstAddedShouldComeFirst() {
+        InsertionDataQueue queue = new InsertionDataQueue();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        InsertionData first = iData(10.);
+        InsertionData second = iData(10.);
+        queue.add(iData(20.), 0, route);
+        queue.add(first, 0, route);
+        queue.add(second, 0, route);
+        InsertionDataQueue.Cursor cursor = queue.cursor();
+        Assert.assertSame(first, queue.insertionData(cursor.next()));
+        Assert.assertSame(second, queue.insertionData(cursor.next()));
+    }
+
+    @Test
+    public void whenRouteGetsNewVersion_olderEntriesShouldBeStale() {
+        InsertionDataQueue queue = new InsertionDataQueue();
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        queue.add(iData(10.), 0, route);
+        queue.add(iData(20.), 1, route);
+        InsertionDataQueue.Cursor cursor = queue.cursor();
+        Assert.assertTrue(queue.isStale(cursor.next()));
+        Assert.assertFalse(queue.isStale(cursor.next()));
+    }
+
+    @Test
+    public void staleEntriesShouldNotAccumulate() {
+        InsertionDataQueue queue = new InsertionDataQueue();
+        VehicleRoute r1 = VehicleRoute.emptyRoute();
+        VehicleRoute r2 = VehicleRoute.emptyRoute();
+        for (int version = 0; version < 1000; version++) {
+            queue.add(iData(version), version, r1);
+            queue.add(iData(1000 - version), version, r2);
+        }
+        Assert.assertTrue(queue.size() <= 20);
+        InsertionDataQueue.Cursor cursor = queue.cursor();
+        int live = 0;
+        while (cursor.hasNext()) {
+            if (!queue.isStale(cursor.next())) live++;
+        }
+        Assert.assertEquals(2, live);
+    }
+
+}
@@ -47,6 +47,13 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.graphhopper.jsprit.core.util.TestUtils.randomProblem;
 
 public class RegretInsertionTest {
 
@@ -318,6 +325,103 @@ public class RegretInsertionTest {
         Assert.assertTrue(position.isCorrect());
     }
 
+    @Test
+    public void s1ShouldBeAddedFirstWithForkJoin() {
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(0, 10)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(0, 5)).build();
+
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        final VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).addVehicle(v).build();
+
+        VehicleFleetManager fm = new FiniteFleetManagerFactory(vrp.vehicles()).createFleetManager();
+        JobInsertionCostsCalculator calculator = getCalculator(vrp);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        RegretInsertionForkJoin regretInsertion = new RegretInsertionForkJoin(calculator, vrp, pool, fm);
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+
+        CkeckJobSequence position = new CkeckJobSequence(2, s1);
+        regretInsertion.addListener(position);
+        regretInsertion.insertJobs(routes, vrp.jobs().values());
+        pool.shutdown();
+        Assert.assertTrue(position.isCorrect());
+    }
+
+    @Test
+    public void forkJoinShouldInsertJobsInSameSequenceAsFastRegret() {
+        final VehicleRoutingProblem vrp = randomProblem(60, 60).build();
+
+        List<Job> serialSequence = new ArrayList<Job>();
+        RegretInsertionFast serial = new RegretInsertionFast(getCalculator(vrp), vrp, new InfiniteFleetManagerFactory(vrp.vehicles()).createFleetManager());
+        serial.addListener(new RecordJobSequence(serialSequence));
+        serial.insertJobs(new ArrayList<VehicleRoute>(), vrp.jobs().values());
+
+        List<Job> forkJoinSequence = new ArrayList<Job>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RegretInsertionForkJoin forkJoin = new RegretInsertionForkJoin(getCalculator(vrp), vrp, pool, new InfiniteFleetManagerFactory(vrp.vehicles()).createFleetManager());
+        forkJoin.addListener(new RecordJobSequence(forkJoinSequence));
+        forkJoin.insertJobs(new ArrayList<VehicleRoute>(), vrp.jobs().values());
+        pool.shutdown();
+
+        Assert.assertEquals(60, forkJoinSequence.size());
+        Assert.assertEquals(serialSequence, forkJoinSequence);
+    }
+
+    @Test
+    public void concurrentRegretShouldInsertJobsInSameSequenceWithFewerEvaluations() {
+        final VehicleRoutingProblem vrp = randomProblem(40, 40).build();
+        Vehicle v = vrp.vehicles().iterator().next();
+
+        final AtomicInteger serialEvaluations = new AtomicInteger();
+        List<Job> serialSequence = new ArrayList<Job>();
+        RegretInsertion serial = new RegretInsertion(countEvaluations(getCalculator(vrp), serialEvaluations), vrp);
+        serial.addListener(new RecordJobSequence(serialSequence));
+        serial.insertJobs(routes(v, 4), vrp.jobs().values());
+
+        final AtomicInteger concurrentEvaluations = new AtomicInteger();
+        List<Job> concurrentSequence = new ArrayList<Job>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        RegretInsertionConcurrent concurrent = new RegretInsertionConcurrent(countEvaluations(getCalculator(vrp), concurrentEvaluations), vrp, executor);
+        concurrent.addListener(new RecordJobSequence(concurrentSequence));
+        concurrent.insertJobs(routes(v, 4), vrp.jobs().values());
+        executor.shutdown();
+
+        Assert.assertEquals(serialSequence, concurrentSequence);
+        Assert.assertTrue(concurrentEvaluations.get() < serialEvaluations.get());
+    }
+
+    static List<VehicleRoute> routes(Vehicle vehicle, int noRoutes) {
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        for (int i = 0; i < noRoutes; i++) {
+            routes.add(VehicleRoute.Builder.newInstance(vehicle).build());
+        }
+        return routes;
+    }
+
+    private static JobInsertionCostsCalculator countEvaluations(final JobInsertionCostsCalculator calculator, final AtomicInteger counter) {
+        return new JobInsertionCostsCalculator() {
+
+            @Override
+            public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+                counter.incrementAndGet();
+                return calculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+            }
+        };
+    }
+
+    static class RecordJobSequence implements BeforeJobInsertionListener {
+
+        private final List<Job> sequence;
+
+        RecordJobSequence(List<Job> sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+            sequence.add(job);
+        }
+    }
+
     private JobInsertionCostsCalculator getShipmentCalculator(final VehicleRoutingProblem vrp) {
         return new JobInsertionCostsCalculator() {
 
@@ -362,7 +466,7 @@ public class RegretInsertionTest {
         }
     }
 
-    private JobInsertionCostsCalculator getCalculator(final VehicleRoutingProblem vrp) {
+    static JobInsertionCostsCalculator getCalculator(final VehicleRoutingProblem vrp) {
         return new JobInsertionCostsCalculator() {
 
             @Override
@@ -0,0 +1,91 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveRuinShareFactoryTest {
+
+    private static AdaptiveRuinShareFactory started(int minShare, int maxShare, int maxIterations) {
+        AdaptiveRuinShareFactory factory = new AdaptiveRuinShareFactory(minShare, maxShare, new Random(42));
+        VehicleRoutingAlgorithm vra = mock(VehicleRoutingAlgorithm.class);
+        when(vra.getMaxIterations()).thenReturn(maxIterations);
+        factory.informAlgorithmStarts(null, vra, null);
+        return factory;
+    }
+
+    private static List<VehicleRoutingProblemSolution> solutionWithCost(double cost) {
+        return Collections.singletonList(new VehicleRoutingProblemSolution(Collections.emptyList(), cost));
+    }
+
+    private static int max(AdaptiveRuinShareFactory factory) {
+        int max = 0;
+        for (int i = 0; i < 1000; i++) max = Math.max(max, factory.createNumberToBeRemoved());
+        return max;
+    }
+
+    @Test
+    public void numberToBeRemovedShouldShrinkWithProgress() {
+        AdaptiveRuinShareFactory factory = started(10, 110, 100);
+        int atStart = max(factory);
+        for (int i = 1; i <= 100; i++) factory.informIterationEnds(i, null, solutionWithCost(100.));
+        int atEnd = max(factory);
+        Assert.assertEquals(1., factory.progress(), 0.);
+        Assert.assertTrue(atEnd < atStart);
+        Assert.assertTrue(atEnd >= 10);
+    }
+
+    @Test
+    public void numberToBeRemovedShouldBeSmallerWhileSearchImproves() {
+        AdaptiveRuinShareFactory improving = started(10, 110, 1000);
+        AdaptiveRuinShareFactory stagnating = started(10, 110, 1000);
+        for (int i = 1; i <= 50; i++) {
+            improving.informIterationEnds(i, null, solutionWithCost(1000. - i));
+            stagnating.informIterationEnds(i, null, solutionWithCost(1000.));
+        }
+        Assert.assertTrue(max(improving) < max(stagnating));
+    }
+
+    @Test
+    public void whenSearchStagnatesAtStart_numberToBeRemovedShouldNotExceedMaxShare() {
+        AdaptiveRuinShareFactory factory = started(10, 110, Integer.MAX_VALUE);
+        for (int i = 1; i <= 200; i++) factory.informIterationEnds(i, null, solutionWithCost(100.));
+        Assert.assertEquals(0., factory.progress(), 1e-6);
+        int max = max(factory);
+        Assert.assertTrue(max <= 110);
+        Assert.assertTrue(max >= 100);
+    }
+
+    @Test
+    public void numberToBeRemovedShouldNeverExceedMaxJobs() {
+        AdaptiveRuinShareFactory factory = started(10, 500, 100);
+        factory.setMaxJobs(50);
+        for (int i = 0; i < 1000; i++) Assert.assertTrue(factory.createNumberToBeRemoved() <= 50);
+    }
+
+}
@@ -19,15 +19,18 @@
 package com.graphhopper.jsprit.core.algorithm.ruin;
 
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.util.EuclideanCosts;
 import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by schroeder on 06/03/15.
@@ -86,4 +89,34 @@ public class DBSCANClustererTest {
         Assert.assertEquals(3, cluster.size());
 
     }
+
+    @Test
+    public void whenClusteringCopyOfRoute_distancesShouldNotBeCalculatedAgain() {
+        Service s0 = Service.Builder.newInstance("s0").location(Location.the(9, 0)).build();
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(9, 1)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(9, 10)).build();
+        Service s3 = Service.Builder.newInstance("s3").location(Location.the(9, 9)).build();
+
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        VehicleRoute r = VehicleRoute.Builder.newInstance(v).addService(s0).addService(s1).addService(s2).addService(s3).build();
+
+        final AtomicInteger noCalculations = new AtomicInteger();
+        DBSCANClusterer c = new DBSCANClusterer(new EuclideanCosts() {
+            @Override
+            public double transportCost(Location from, Location to, double time, Driver driver, Vehicle vehicle) {
+                noCalculations.incrementAndGet();
+                return super.transportCost(from, to, time, driver, vehicle);
+            }
+        });
+        c.setEpsDistance(2);
+        List<List<Job>> clusters = c.getClusters(r);
+        int calculations = noCalculations.get();
+        Assert.assertEquals(2, clusters.size());
+        Assert.assertEquals(clusters, c.getClusters(VehicleRoute.copyOf(r)));
+        Assert.assertEquals(calculations, noCalculations.get());
+
+        r.tourActivities().removeJob(s3);
+        Assert.assertEquals(1, c.getClusters(r).size());
+        Assert.assertTrue(noCalculations.get() > calculations);
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class JobNeighborhoodsLazyTest {
+
+    private final JobDistance jobDistance = new EuclideanServiceDistance();
+
+    private static VehicleRoutingProblem vrp(int noJobs) {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < noJobs; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(30), random.nextInt(30))).build());
+        }
+        return builder.build();
+    }
+
+    private static List<Job> toList(Iterator<Job> iter) {
+        List<Job> jobs = new ArrayList<Job>();
+        while (iter.hasNext()) jobs.add(iter.next());
+        return jobs;
+    }
+
+    @Test
+    public void neighborsShouldBeEqualToThoseOfPrecalculatedNeighborhoods() {
+        VehicleRoutingProblem vrp = vrp(200);
+        JobNeighborhoodsOptimized optimized = new JobNeighborhoodsOptimized(vrp, jobDistance, 20);
+        optimized.initialise();
+        JobNeighborhoodsLazy lazy = new JobNeighborhoodsLazy(vrp, jobDistance, 20, 1000000);
+        lazy.initialise();
+        for (Job job : vrp.jobs().values()) {
+            assertEquals(toList(optimized.getNearestNeighborsIterator(15, job)), toList(lazy.getNearestNeighborsIterator(15, job)));
+        }
+        assertTrue(lazy.getMaxDistance() <= optimized.getMaxDistance());
+        assertTrue(lazy.getMaxDistance() >= optimized.getMaxDistance() / 2);
+    }
+
+    @Test
+    public void whenRequestingNeighborsTwice_secondRequestShouldBeAHit() {
+        VehicleRoutingProblem vrp = vrp(50);
+        JobNeighborhoodsLazy lazy = new JobNeighborhoodsLazy(vrp, jobDistance, 10, 1000);
+        lazy.initialise();
+        Job job = vrp.jobs().get("s1");
+        List<Job> first = toList(lazy.getNearestNeighborsIterator(10, job));
+        List<Job> second = toList(lazy.getNearestNeighborsIterator(10, job));
+        assertEquals(first, second);
+        assertEquals(1, lazy.misses());
+        assertEquals(1, lazy.hits());
+    }
+
+    @Test
+    public void whenCacheIsFull_leastRecentlyRequestedNeighborsShouldBeEvicted() {
+        VehicleRoutingProblem vrp = vrp(50);
+        //16 stripes with room for one list of 10 neighbors each
+        JobNeighborhoodsLazy lazy = new JobNeighborhoodsLazy(vrp, jobDistance, 10, 16 * 10);
+        lazy.initialise();
+        Job job = vrp.jobs().get("s1");
+        Job sameStripe = null;
+        for (Job other : vrp.jobs().values()) {
+            if (other != job && other.index() % 16 == job.index() % 16) sameStripe = other;
+        }
+        lazy.getNearestNeighborsIterator(10, job);
+        lazy.getNearestNeighborsIterator(10, sameStripe);
+        lazy.getNearestNeighborsIterator(10, job);
+        assertEquals(3, lazy.misses());
+        assertEquals(0, lazy.hits());
+    }
+
+}
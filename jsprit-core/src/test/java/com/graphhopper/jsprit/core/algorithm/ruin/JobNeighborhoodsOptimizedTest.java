@@ -27,9 +27,9 @@ import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -141,6 +141,73 @@ public class JobNeighborhoodsOptimizedTest {
         assertEquals(2, services.size());
     }
 
+    @Test
+    public void neighborsShouldBeEqualToNearestJobsOfFullySortedDistances() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 300; i++) {
+            //integer coordinates to get ties
+            builder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(30), random.nextInt(30))).build());
+        }
+        final VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoodsOptimized jn = new JobNeighborhoodsOptimized(vrp, jobDistance, 20);
+        jn.initialise();
+        double maxDistance = 0.;
+        for (final Job job : vrp.jobs().values()) {
+            List<Job> others = new ArrayList<Job>();
+            for (Job other : vrp.jobs().values()) {
+                if (other != job) others.add(other);
+                maxDistance = Math.max(maxDistance, jobDistance.getDistance(job, other));
+            }
+            Collections.sort(others, new Comparator<Job>() {
+                @Override
+                public int compare(Job o1, Job o2) {
+                    return Double.compare(jobDistance.getDistance(job, o1), jobDistance.getDistance(job, o2));
+                }
+            });
+            List<Job> neighbors = new ArrayList<Job>();
+            Iterator<Job> iter = jn.getNearestNeighborsIterator(100, job);
+            while (iter.hasNext()) neighbors.add(iter.next());
+            assertEquals(others.subList(0, 20), neighbors);
+        }
+        assertEquals(maxDistance, jn.getMaxDistance(), 0.);
+    }
 
+    @Test
+    public void whenInitialisedOnExecutor_neighborsShouldBeEqualToSerialNeighbors() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 300; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(30), random.nextInt(30))).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoodsOptimized serial = new JobNeighborhoodsOptimized(vrp, jobDistance, 20);
+        serial.initialise();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        JobNeighborhoodsOptimized concurrent = new JobNeighborhoodsOptimized(vrp, jobDistance, 20);
+        concurrent.setExecutor(executor);
+        concurrent.initialise();
+        executor.shutdown();
+        for (Job job : vrp.jobs().values()) {
+            List<Job> serialNeighbors = new ArrayList<Job>();
+            Iterator<Job> iter = serial.getNearestNeighborsIterator(100, job);
+            while (iter.hasNext()) serialNeighbors.add(iter.next());
+            List<Job> concurrentNeighbors = new ArrayList<Job>();
+            iter = concurrent.getNearestNeighborsIterator(100, job);
+            while (iter.hasNext()) concurrentNeighbors.add(iter.next());
+            assertEquals(serialNeighbors, concurrentNeighbors);
+        }
+        assertEquals(serial.getMaxDistance(), concurrent.getMaxDistance(), 0.);
+    }
+
+    @Test
+    public void whenCapacityExceedsNumberOfOtherJobs_allOtherJobsShouldBeNeighbors() {
+        JobNeighborhoodsOptimized jn = new JobNeighborhoodsOptimized(vrp, jobDistance, 10);
+        jn.initialise();
+        Iterator<Job> iter = jn.getNearestNeighborsIterator(10, s7);
+        List<Job> neighbors = new ArrayList<Job>();
+        while (iter.hasNext()) neighbors.add(iter.next());
+        assertEquals(Arrays.<Job>asList(s6, s5, target, s2, s3, s4), neighbors);
+    }
 
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+
+public class JobNeighborhoodsSpatialTest {
+
+    private final JobDistance jobDistance = new EuclideanServiceDistance();
+
+    @Test
+    public void neighborsShouldBeEqualToNearestJobsOfFullySortedDistances() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 500; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoodsSpatial jn = new JobNeighborhoodsSpatial(vrp, jobDistance);
+        jn.initialise();
+        double maxDistance = 0.;
+        for (Job job : vrp.jobs().values()) {
+            List<Double> distances = new ArrayList<Double>();
+            for (Job other : vrp.jobs().values()) {
+                if (other != job) distances.add(jobDistance.getDistance(job, other));
+                maxDistance = Math.max(maxDistance, jobDistance.getDistance(job, other));
+            }
+            Collections.sort(distances);
+            List<Double> neighborDistances = new ArrayList<Double>();
+            Iterator<Job> iter = jn.getNearestNeighborsIterator(15, job);
+            while (iter.hasNext()) {
+                Job neighbor = iter.next();
+                assertNotSame(job, neighbor);
+                neighborDistances.add(jobDistance.getDistance(job, neighbor));
+            }
+            assertEquals(distances.subList(0, 15), neighborDistances);
+        }
+        assertEquals(maxDistance, jn.getMaxDistance(), 1e-9);
+    }
+
+    @Test
+    public void whenCoordinatesAreRepeated_neighborsShouldBeNearestJobs() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 2000; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(i % 3, (i / 3) % 2)).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobNeighborhoodsSpatial jn = new JobNeighborhoodsSpatial(vrp, jobDistance);
+        jn.initialise();
+        for (Job job : Arrays.asList(vrp.jobs().get("s0"), vrp.jobs().get("s4"), vrp.jobs().get("s1999"))) {
+            List<Double> distances = new ArrayList<Double>();
+            for (Job other : vrp.jobs().values()) {
+                if (other != job) distances.add(jobDistance.getDistance(job, other));
+            }
+            Collections.sort(distances);
+            List<Double> neighborDistances = new ArrayList<Double>();
+            Iterator<Job> iter = jn.getNearestNeighborsIterator(500, job);
+            while (iter.hasNext()) neighborDistances.add(jobDistance.getDistance(job, iter.next()));
+            assertEquals(distances.subList(0, 500), neighborDistances);
+        }
+    }
+
+    @Test
+    public void whenRequestingMoreNeighborsThanExisting_itShouldReturnAllOtherJobs() {
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(0, 5)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(0, 4)).build();
+        Service s3 = Service.Builder.newInstance("s3").location(Location.the(0, 1)).build();
+        Service s4 = Service.Builder.newInstance("s4").location(Location.the(0, 8)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).addJob(s3).addJob(s4).build();
+        JobNeighborhoodsSpatial jn = new JobNeighborhoodsSpatial(vrp, jobDistance);
+        jn.initialise();
+        Iterator<Job> iter = jn.getNearestNeighborsIterator(10, s1);
+        List<Job> neighbors = new ArrayList<Job>();
+        while (iter.hasNext()) neighbors.add(iter.next());
+        assertEquals(Arrays.<Job>asList(s2, s4, s3), neighbors);
+    }
+
+    @Test
+    public void whenThereAreShipments_maxDistanceShouldBeExact() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 200; i++) {
+            builder.addJob(Shipment.Builder.newInstance("sh" + i).setPickupLocation(Location.the(random.nextDouble() * 100, random.nextDouble() * 100))
+                .setDeliveryLocation(Location.the(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+            builder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        VehicleRoutingProblem vrp = builder.build();
+        JobDistance shipmentDistance = new AvgServiceAndShipmentDistance(vrp);
+        JobNeighborhoodsSpatial jn = new JobNeighborhoodsSpatial(vrp, shipmentDistance);
+        jn.initialise();
+        double maxDistance = 0.;
+        for (Job job : vrp.jobs().values()) {
+            for (Job other : vrp.jobs().values()) maxDistance = Math.max(maxDistance, shipmentDistance.getDistance(job, other));
+        }
+        assertEquals(maxDistance, jn.getMaxDistance(), 1e-9);
+    }
+
+    @Test
+    public void whenLocationHasNoCoordinate_factoryShouldFallBackToDefaultNeighborhoods() {
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(0, 5)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).build();
+        assertFalse(JobNeighborhoodsFactory.createSpatialNeighborhoods(vrp, jobDistance, 1) instanceof JobNeighborhoodsSpatial);
+    }
+
+}
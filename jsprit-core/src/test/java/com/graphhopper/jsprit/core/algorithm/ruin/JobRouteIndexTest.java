@@ -0,0 +1,91 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class JobRouteIndexTest {
+
+    private Service s1, s2, s3, s4;
+
+    private VehicleRoute vr1, vr2;
+
+    private List<VehicleRoute> routes;
+
+    @Before
+    public void doBefore() {
+        s1 = Service.Builder.newInstance("s1").location(Location.the(0, 1)).build();
+        s2 = Service.Builder.newInstance("s2").location(Location.the(0, 2)).build();
+        s3 = Service.Builder.newInstance("s3").location(Location.the(0, 3)).build();
+        s4 = Service.Builder.newInstance("s4").location(Location.the(0, 4)).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).addJob(s3).addJob(s4).addVehicle(v).build();
+        vr1 = VehicleRoute.Builder.newInstance(v).addService(s1).addService(s2).setJobActivityFactory(vrp.jobActivityFactory()).build();
+        vr2 = VehicleRoute.Builder.newInstance(v).addService(s3).setJobActivityFactory(vrp.jobActivityFactory()).build();
+        routes = Arrays.asList(vr1, vr2);
+    }
+
+    @Test
+    public void routeOfJobShouldBeTheRouteServingIt() {
+        JobRouteIndex index = new JobRouteIndex(routes);
+        Assert.assertSame(vr1, index.routeOf(s1));
+        Assert.assertSame(vr1, index.routeOf(s2));
+        Assert.assertSame(vr2, index.routeOf(s3));
+        Assert.assertNull(index.routeOf(s4));
+    }
+
+    @Test
+    public void whenJobHasBeenRemoved_itShouldNotHaveARoute() {
+        JobRouteIndex index = new JobRouteIndex(routes);
+        vr1.tourActivities().removeJob(s1);
+        index.removed(s1);
+        Assert.assertNull(index.routeOf(s1));
+    }
+
+    @Test
+    public void whenJobHasBeenMovedWithoutInformingIndex_itsNewRouteShouldBeFound() {
+        JobRouteIndex index = new JobRouteIndex(routes);
+        AbstractActivity act = vr1.tourActivities().activities().get(1);
+        vr1.tourActivities().removeJob(s2);
+        vr2.tourActivities().addActivity(act);
+        Assert.assertSame(vr2, index.routeOf(s2));
+    }
+
+    @Test
+    public void whenJobsShareAnIndex_routesShouldStillBeFound() {
+        Service other = Service.Builder.newInstance("other").location(Location.the(0, 5)).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.the(0, 0)).build();
+        VehicleRoutingProblem otherVrp = VehicleRoutingProblem.Builder.get().addJob(other).addVehicle(v).build();
+        VehicleRoute vr3 = VehicleRoute.Builder.newInstance(v).addService(other).setJobActivityFactory(otherVrp.jobActivityFactory()).build();
+        JobRouteIndex index = new JobRouteIndex(Arrays.asList(vr1, vr2, vr3));
+        Assert.assertSame(vr1, index.routeOf(s1));
+        Assert.assertSame(vr3, index.routeOf(other));
+    }
+
+}
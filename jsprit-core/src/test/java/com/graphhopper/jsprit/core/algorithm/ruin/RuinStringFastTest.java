@@ -0,0 +1,139 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class RuinStringFastTest {
+
+    private static List<Service> services(int noServices) {
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < noServices; i++) {
+            services.add(Service.Builder.newInstance("s" + i).location(Location.the(i, 0)).build());
+        }
+        return services;
+    }
+
+    private static RuinStringFast ruin(VehicleRoutingProblem vrp, int seed) {
+        JobNeighborhoods neighborhoods = JobNeighborhoodsFactory.createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp), 50);
+        neighborhoods.initialise();
+        RuinStringFast ruin = new RuinStringFast(vrp, neighborhoods);
+        ruin.setRandom(new Random(seed));
+        return ruin;
+    }
+
+    @Test
+    public void whenRemovingString_removedJobsShouldBeConsecutive() {
+        List<Service> services = services(20);
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addAllJobs(services).addVehicle(v).build();
+        for (int seed = 0; seed < 20; seed++) {
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v).setJobActivityFactory(vrp.jobActivityFactory());
+            for (Service s : services) routeBuilder.addService(s);
+            VehicleRoute route = routeBuilder.build();
+            RuinStringFast ruin = ruin(vrp, seed);
+            ruin.setNoRoutes(1, 1);
+            ruin.setStringLength(5, 5);
+            ruin.setSplitRate(0.);
+            Collection<Job> unassigned = ruin.ruin(new ArrayList<>(Collections.singletonList(route)));
+            Assert.assertEquals(5, unassigned.size());
+            Assert.assertEquals(15, route.activities().size());
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (Job job : unassigned) {
+                int position = services.indexOf(job);
+                min = Math.min(min, position);
+                max = Math.max(max, position);
+            }
+            Assert.assertEquals(4, max - min);
+        }
+    }
+
+    @Test
+    public void whenRemovingSplitString_substringShouldBePreserved() {
+        List<Service> services = services(20);
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addAllJobs(services).addVehicle(v).build();
+        for (int seed = 0; seed < 20; seed++) {
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v).setJobActivityFactory(vrp.jobActivityFactory());
+            for (Service s : services) routeBuilder.addService(s);
+            VehicleRoute route = routeBuilder.build();
+            RuinStringFast ruin = ruin(vrp, seed);
+            ruin.setNoRoutes(1, 1);
+            ruin.setStringLength(5, 5);
+            ruin.setSplitRate(1.);
+            Collection<Job> unassigned = ruin.ruin(new ArrayList<>(Collections.singletonList(route)));
+            Assert.assertEquals(5, unassigned.size());
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (Job job : unassigned) {
+                int position = services.indexOf(job);
+                min = Math.min(min, position);
+                max = Math.max(max, position);
+            }
+            Assert.assertTrue(max - min > 4);
+        }
+    }
+
+    @Test
+    public void stringsShouldBeRemovedFromDifferentRoutesAndOnlyOnce() {
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.the(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get().addVehicle(v);
+        List<List<Shipment>> shipmentsOfRoutes = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            List<Shipment> shipments = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Shipment shipment = Shipment.Builder.newInstance("sh" + r + "_" + i)
+                    .setPickupLocation(Location.the(i, r)).setDeliveryLocation(Location.the(i + 1, r)).build();
+                shipments.add(shipment);
+                vrpBuilder.addJob(shipment);
+            }
+            shipmentsOfRoutes.add(shipments);
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        for (int seed = 0; seed < 20; seed++) {
+            List<VehicleRoute> routes = new ArrayList<>();
+            for (List<Shipment> shipments : shipmentsOfRoutes) {
+                VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v).setJobActivityFactory(vrp.jobActivityFactory());
+                for (Shipment shipment : shipments) routeBuilder.addPickup(shipment).addDelivery(shipment);
+                routes.add(routeBuilder.build());
+            }
+            RuinStringFast ruin = ruin(vrp, seed);
+            ruin.setNoRoutes(3, 3);
+            ruin.setStringLength(4, 4);
+            Collection<Job> unassigned = ruin.ruin(routes);
+            Assert.assertEquals(unassigned.size(), new HashSet<>(unassigned).size());
+            int noRuinedRoutes = 0;
+            for (VehicleRoute route : routes) {
+                if (route.activities().size() < 10) noRuinedRoutes++;
+                for (Job job : unassigned) Assert.assertFalse(route.tourActivities().servesJob(job));
+            }
+            Assert.assertEquals(3, noRuinedRoutes);
+        }
+    }
+
+}
@@ -18,18 +18,20 @@
 
 package com.graphhopper.jsprit.core.algorithm.ruin;
 
+import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.JobActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
 import com.graphhopper.jsprit.core.util.v2;
 import org.junit.Test;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -214,4 +216,58 @@ public class RuinWorstTest {
     }
 
 
+    @Test
+    public void removalOrderShouldBeEqualToRecalculatingAllSavingsAfterEachRemoval() {
+        Random random = new Random(4711);
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v")
+            .setStartLocation(Location.Builder.the().setCoord(v2.the(50, 50)).build()).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get().addVehicle(v);
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Service s = Service.Builder.newInstance("s" + i)
+                .location(Location.Builder.the().setCoord(v2.the(random.nextDouble() * 100, random.nextDouble() * 100)).build()).build();
+            services.add(s);
+            vrpBuilder.addJob(s);
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        List<VehicleRoute> routes = new ArrayList<>();
+        List<VehicleRoute> referenceRoutes = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v).setJobActivityFactory(vrp.jobActivityFactory());
+            for (Service s : services.subList(r * 20, (r + 1) * 20)) routeBuilder.addService(s);
+            VehicleRoute route = routeBuilder.build();
+            routes.add(route);
+            referenceRoutes.add(VehicleRoute.copyOf(route));
+        }
+        RuinWorst worst = new RuinWorst(vrp, 25);
+        List<Job> unassigned = new ArrayList<>(worst.ruinRoutes(routes));
+
+        List<Job> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Job worstJob = null;
+            VehicleRoute worstRoute = null;
+            double maxSavings = Double.NEGATIVE_INFINITY;
+            for (VehicleRoute route : referenceRoutes) {
+                List<AbstractActivity> acts = route.activities();
+                for (int p = 0; p < acts.size(); p++) {
+                    AbstractActivity before = p == 0 ? route.start : acts.get(p - 1);
+                    AbstractActivity after = p == acts.size() - 1 ? route.end : acts.get(p + 1);
+                    double savings = Math.max(0, distance(before, acts.get(p)) + distance(acts.get(p), after) - distance(before, after));
+                    if (savings > maxSavings) {
+                        maxSavings = savings;
+                        worstJob = ((JobActivity) acts.get(p)).job();
+                        worstRoute = route;
+                    }
+                }
+            }
+            worstRoute.tourActivities().removeJob(worstJob);
+            expected.add(worstJob);
+        }
+        assertEquals(expected, unassigned);
+    }
+
+    private static double distance(AbstractActivity from, AbstractActivity to) {
+        return EuclideanDistanceCalculator.calculateDistance(from.location().coord, to.location().coord);
+    }
+
 }
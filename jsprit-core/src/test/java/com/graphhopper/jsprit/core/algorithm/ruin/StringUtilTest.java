@@ -22,6 +22,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by schroeder on 13/01/17.
@@ -84,4 +85,20 @@ public class StringUtilTest {
         Assert.assertEquals(5, (int) bounds.get(0));
         Assert.assertEquals(6, (int) bounds.get(1));
     }
+
+    @Test
+    public void randomLowerBoundShouldDrawTheSameBoundsAsListOfAllBounds() {
+        for (int noActivities = 1; noActivities <= 8; noActivities++) {
+            for (int stringLength = 1; stringLength <= noActivities + 1; stringLength++) {
+                for (int seedIndex = 0; seedIndex < noActivities; seedIndex++) {
+                    List<Integer> bounds = StringUtil.getLowerBoundsOfAllStrings(stringLength, seedIndex, noActivities);
+                    Random expectedRandom = new Random(seedIndex);
+                    Random random = new Random(seedIndex);
+                    int lowerBound = StringUtil.randomLowerBound(stringLength, seedIndex, noActivities, random);
+                    if (bounds.isEmpty()) Assert.assertEquals(-1, lowerBound);
+                    else Assert.assertEquals((int) bounds.get(expectedRandom.nextInt(bounds.size())), lowerBound);
+                }
+            }
+        }
+    }
 }
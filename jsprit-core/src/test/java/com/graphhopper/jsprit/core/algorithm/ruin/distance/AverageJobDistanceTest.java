@@ -18,14 +18,19 @@
 package com.graphhopper.jsprit.core.algorithm.ruin.distance;
 
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.util.v2;
 import com.graphhopper.jsprit.core.util.CrowFlyCosts;
+import com.graphhopper.jsprit.core.util.FastVehicleRoutingTransportCostsMatrix;
 import com.graphhopper.jsprit.core.util.Locations;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -78,4 +83,61 @@ public class AverageJobDistanceTest {
         double dist = new AvgServiceAndShipmentDistance(routingCosts).getDistance(s1, s2);
         assertEquals(0.0, dist, 0.01);
     }
+
+    @Test
+    public void distancesFromJobTableShouldBeEqualToDistancesOfJobTypes() {
+        Random random = new Random(4711);
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(50), random.nextInt(50))).build());
+            vrpBuilder.addJob(Shipment.Builder.newInstance("sh" + i).setPickupLocation(Location.the(random.nextInt(50), random.nextInt(50)))
+                .setDeliveryLocation(Location.the(random.nextInt(50), random.nextInt(50))).build());
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        AvgServiceAndShipmentDistance byType = new AvgServiceAndShipmentDistance(vrp.transportCosts());
+        AvgServiceAndShipmentDistance byTable = new AvgServiceAndShipmentDistance(vrp);
+        Job[] jobs = vrp.jobs().values().toArray(new Job[0]);
+        double[] distances = new double[jobs.length];
+        for (Job i : jobs) {
+            byTable.getDistances(i, jobs, distances);
+            for (int k = 0; k < jobs.length; k++) {
+                assertEquals(byType.getDistance(i, jobs[k]), byTable.getDistance(i, jobs[k]), 0.);
+                assertEquals(byType.getDistance(i, jobs[k]), distances[k], 0.);
+            }
+        }
+    }
+
+    @Test
+    public void whenCostsAreFastMatrix_distancesFromJobTableShouldBeEqualToDistancesOfJobTypes() {
+        Random random = new Random(4711);
+        int noLocations = 30;
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.get(noLocations, false);
+        for (int from = 0; from < noLocations; from++) {
+            for (int to = 0; to < noLocations; to++) {
+                if (from != to) matrixBuilder.addTransportDistance(from, to, random.nextInt(100));
+            }
+        }
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get().setRoutingCost(matrixBuilder.build());
+        for (int i = 0; i < 10; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).location(Location.the(random.nextInt(noLocations))).build());
+            vrpBuilder.addJob(Shipment.Builder.newInstance("sh" + i).setPickupLocation(Location.the(random.nextInt(noLocations)))
+                .setDeliveryLocation(Location.the(random.nextInt(noLocations))).build());
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        AvgServiceAndShipmentDistance byType = new AvgServiceAndShipmentDistance(vrp.transportCosts());
+        AvgServiceAndShipmentDistance byTable = new AvgServiceAndShipmentDistance(vrp);
+        for (Job i : vrp.jobs().values()) {
+            for (Job j : vrp.jobs().values()) {
+                assertEquals(byType.getDistance(i, j), byTable.getDistance(i, j), 0.);
+            }
+        }
+    }
+
+    @Test
+    public void whenJobIsNotPartOfProblem_distanceShouldStillBeCalculated() {
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the(0, 0)).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the(3, 4)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).build();
+        assertEquals(5., new AvgServiceAndShipmentDistance(vrp).getDistance(s1, s2), 0.01);
+    }
 }
@@ -44,6 +44,8 @@ public class UpdateRequiredSkillsTest {
 
     private StateManager stateManager;
 
+    private VehicleRoutingProblem vrp;
+
     @Before
     public void doBefore() {
         VehicleType type = VehicleTypeImpl.Builder.the("t").build();
@@ -51,7 +53,7 @@ public class UpdateRequiredSkillsTest {
         Service service = Service.Builder.newInstance("s").location(Location.the("loc")).skillRequired("skill1").build();
         Service service2 = Service.Builder.newInstance("s2").location(Location.the("loc")).skillRequired("skill1").skillRequired("skill2").skillRequired("skill3").build();
         Service service3 = Service.Builder.newInstance("s3").location(Location.the("loc")).skillRequired("skill4").skillRequired("skill5").build();
-        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(vehicle).addJob(service)
+        vrp = VehicleRoutingProblem.Builder.get().addVehicle(vehicle).addJob(service)
             .addJob(service2).addJob(service3).build();
         route = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.jobActivityFactory()).addService(service).addService(service2).addService(service3).build();
 
@@ -62,8 +64,9 @@ public class UpdateRequiredSkillsTest {
 
     @Test
     public void whenUpdatingRoute_skillsAtRouteLevelShouldContainAllSkills() {
-        Skills skills = stateManager.getRouteState(route, InternalStates.SKILLS, Skills.class);
-        assertNotNull(skills);
+        long[] skillSet = stateManager.getRouteState(route, InternalStates.SKILLS, long[].class);
+        assertNotNull(skillSet);
+        Skills skills = vrp.skillIndex().skillsOf(skillSet);
         Assert.assertEquals(5, skills.values().size());
         assertTrue(skills.containsSkill("skill1"));
         assertTrue(skills.containsSkill("skill2"));
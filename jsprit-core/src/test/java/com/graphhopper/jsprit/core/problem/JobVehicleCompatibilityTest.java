@@ -0,0 +1,116 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.JobVehicleCompatibility.Criterion;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JobVehicleCompatibilityTest {
+
+    private final VehicleType small = VehicleTypeImpl.Builder.the("small").addCapacityDimension(0, 5).build();
+
+    private final VehicleType large = VehicleTypeImpl.Builder.the("large").addCapacityDimension(0, 20).build();
+
+    private final VehicleImpl smallVehicle = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.the(0, 0))
+        .setType(small).addSkill("cooling").setLatestArrival(100.).build();
+
+    private final VehicleImpl largeVehicle = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.the(0, 0))
+        .setType(large).build();
+
+    @Test
+    public void whenJobRequiresSkill_onlyVehiclesWithSkillShouldBeCompatible() {
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).skillRequired("cooling").build();
+        JobVehicleCompatibility compatibility = vrp(s).compatibility();
+        Assert.assertTrue(compatibility.isCompatible(s, smallVehicle, Criterion.SKILLS));
+        Assert.assertFalse(compatibility.isCompatible(s, largeVehicle, Criterion.SKILLS));
+    }
+
+    @Test
+    public void whenJobExceedsCapacity_vehicleShouldBeIncompatible() {
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).sizeDimension(0, 10).build();
+        JobVehicleCompatibility compatibility = vrp(s).compatibility();
+        Assert.assertFalse(compatibility.isCompatible(s, smallVehicle, Criterion.CAPACITY));
+        Assert.assertTrue(compatibility.isCompatible(s, largeVehicle, Criterion.CAPACITY));
+    }
+
+    @Test
+    public void whenAllTimeWindowsOpenAfterLatestArrival_vehicleShouldBeIncompatible() {
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).timeWindowAdd(150., 200.).timeWindowAdd(300., 400.).build();
+        JobVehicleCompatibility compatibility = vrp(s).compatibility();
+        Assert.assertFalse(compatibility.isCompatible(s, smallVehicle, Criterion.TIME_WINDOW));
+        Assert.assertTrue(compatibility.isCompatible(s, largeVehicle, Criterion.TIME_WINDOW));
+    }
+
+    @Test
+    public void whenOneTimeWindowOpensBeforeLatestArrival_vehicleShouldBeCompatible() {
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).timeWindowAdd(50., 60.).timeWindowAdd(300., 400.).build();
+        Assert.assertTrue(vrp(s).compatibility().isCompatible(s, smallVehicle, Criterion.TIME_WINDOW));
+    }
+
+    @Test
+    public void whenShipmentDeliveryOpensAfterLatestArrival_vehicleShouldBeIncompatible() {
+        Shipment s = Shipment.Builder.newInstance("s").setPickupLocation(Location.the(10, 0)).setDeliveryLocation(Location.the(20, 0))
+            .addDeliveryTimeWindow(150., 200.).build();
+        Assert.assertFalse(vrp(s).compatibility().isCompatible(s, smallVehicle, Criterion.TIME_WINDOW));
+    }
+
+    @Test
+    public void whenVehiclesOfSameTypeDifferInSkills_compatibilityShouldBeDeterminedPerVehicleTypeKey() {
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).skillRequired("cooling").build();
+        VehicleImpl sameType = VehicleImpl.Builder.newInstance("v3").setStartLocation(Location.the(0, 0))
+            .setType(small).setLatestArrival(100.).build();
+        VehicleImpl sameTypeKey = VehicleImpl.Builder.newInstance("v4").setStartLocation(Location.the(0, 0))
+            .setType(small).addSkill("cooling").setLatestArrival(100.).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(smallVehicle).addVehicle(sameType)
+            .addVehicle(sameTypeKey).addJob(s).build();
+        JobVehicleCompatibility compatibility = vrp.compatibility();
+        Assert.assertSame(compatibility, vrp.compatibility());
+        Assert.assertTrue(compatibility.isCompatible(s, smallVehicle, Criterion.SKILLS));
+        Assert.assertFalse(compatibility.isCompatible(s, sameType, Criterion.SKILLS));
+        Assert.assertTrue(compatibility.isCompatible(s, sameTypeKey, Criterion.SKILLS));
+    }
+
+    @Test
+    public void constraintManagerShouldOnlyConsiderAddedConstraints() {
+        Service s = Service.Builder.newInstance("s").location(Location.the(10, 0)).skillRequired("cooling").sizeDimension(0, 10).build();
+        VehicleRoutingProblem vrp = vrp(s);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, new StateManager(vrp));
+        Assert.assertTrue(constraintManager.isCompatible(s, smallVehicle));
+        Assert.assertTrue(constraintManager.isCompatible(s, largeVehicle));
+        constraintManager.addSkillsConstraint();
+        Assert.assertTrue(constraintManager.isCompatible(s, smallVehicle));
+        Assert.assertFalse(constraintManager.isCompatible(s, largeVehicle));
+        Assert.assertEquals("HardSkillConstraint", constraintManager.getIncompatibleConstraintName(s, largeVehicle));
+        constraintManager.addLoadConstraint();
+        Assert.assertFalse(constraintManager.isCompatible(s, smallVehicle));
+        Assert.assertEquals("ServiceLoadRouteLevelConstraint", constraintManager.getIncompatibleConstraintName(s, smallVehicle));
+    }
+
+    private VehicleRoutingProblem vrp(com.graphhopper.jsprit.core.problem.job.Job job) {
+        return VehicleRoutingProblem.Builder.get().addVehicle(smallVehicle).addVehicle(largeVehicle).addJob(job).build();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SkillIndexTest {
+
+    private static Service service(String id, String... skills) {
+        Service.Builder builder = Service.Builder.newInstance(id).location(Location.the(0, 0));
+        for (String skill : skills) builder.skillRequired(skill);
+        return builder.build();
+    }
+
+    private static VehicleImpl vehicle(String id, String... skills) {
+        VehicleImpl.Builder builder = VehicleImpl.Builder.newInstance(id).setStartLocation(Location.the(0, 0));
+        for (String skill : skills) builder.addSkill(skill);
+        return builder.build();
+    }
+
+    @Test
+    public void vehicleShouldHaveAllSkillsOfJobIfItsSkillsIncludeThem() {
+        Service s1 = service("s1", "skill1");
+        Service s2 = service("s2", "skill1", "skill3");
+        Service s3 = service("s3");
+        VehicleImpl v = vehicle("v", "skill1", "skill2");
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).addJob(s3).addVehicle(v).build();
+        SkillIndex skillIndex = vrp.skillIndex();
+        assertTrue(skillIndex.hasAllSkills(v, s1));
+        assertFalse(skillIndex.hasAllSkills(v, s2));
+        assertTrue(skillIndex.hasAllSkills(v, s3));
+    }
+
+    @Test
+    public void whenJobDoesNotBelongToProblem_skillSetsShouldBeCompared() {
+        VehicleImpl v = vehicle("v", "skill1");
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(service("s1", "skill1")).addVehicle(v).build();
+        assertTrue(vrp.skillIndex().hasAllSkills(v, service("other", "SKILL1")));
+        assertFalse(vrp.skillIndex().hasAllSkills(v, service("other", "unknownSkill")));
+    }
+
+    @Test
+    public void whenProblemsShareVehicle_theirSkillIndicesShouldNotInterfere() {
+        VehicleImpl v = vehicle("v", "skill1", "skill2");
+        Service s1 = service("s1", "skill2");
+        Service s2 = service("s2", "skill3", "skill1");
+        VehicleRoutingProblem vrp1 = VehicleRoutingProblem.Builder.get().addJob(s1).addVehicle(v).build();
+        VehicleRoutingProblem vrp2 = VehicleRoutingProblem.Builder.get().addJob(s2).addVehicle(v).build();
+        assertFalse(vrp2.skillIndex().hasAllSkills(v, s2));
+        assertTrue(vrp1.skillIndex().hasAllSkills(v, s1));
+        assertTrue(v.skills().containsSkill("skill1"));
+        assertTrue(v.skills().containsSkill("skill2"));
+    }
+
+    @Test
+    public void vehicleShouldHaveAllSkillsOfSkillSetIfItsSkillsIncludeThem() {
+        Service s1 = service("s1", "skill1");
+        Service s2 = service("s2", "skill2");
+        VehicleImpl v = vehicle("v", "skill1", "skill2");
+        VehicleImpl v2 = vehicle("v2", "skill1");
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).addVehicle(v).addVehicle(v2).build();
+        SkillIndex skillIndex = vrp.skillIndex();
+        long[] skillSet = skillIndex.emptySkillSet();
+        skillIndex.addRequiredSkills(skillSet, s1);
+        assertTrue(skillIndex.hasAllSkills(v2, skillSet));
+        skillIndex.addRequiredSkills(skillSet, s2);
+        assertTrue(skillIndex.hasAllSkills(v, skillSet));
+        assertFalse(skillIndex.hasAllSkills(v2, skillSet));
+        assertTrue(skillIndex.hasAllSkills(vehicle("other", "skill1", "skill2"), skillSet));
+        skillIndex.addRequiredSkills(skillSet, service("other", "unknownSkill"));
+        assertFalse(skillIndex.hasAllSkills(v, skillSet));
+        assertFalse(skillIndex.hasAllSkills(vehicle("other", "skill1", "skill2", "unknownSkill"), skillSet));
+    }
+
+}
@@ -23,6 +23,7 @@ import org.junit.Test;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -107,4 +108,23 @@ public class SkillsTest {
         assertTrue(skills.containsSkill("skill1"));
     }
 
+    @Test
+    public void containsAllShouldCompareSkillSets() {
+        Skills provided = Skills.Builder.newInstance().addSkill("skill1").addSkill("skill2").build();
+        assertTrue(provided.containsAll(Skills.Builder.newInstance().addSkill("Skill2").build()));
+        assertFalse(provided.containsAll(Skills.Builder.newInstance().addSkill("skill3").build()));
+        assertTrue(provided.containsAll(Skills.Builder.newInstance().build()));
+    }
+
+    @Test
+    public void whenSkillContainersAreMerged_resultShouldContainAllSkills() {
+        Skills s1 = Skills.Builder.newInstance().addSkill("skill1").build();
+        Skills s2 = Skills.Builder.newInstance().addSkill("skill2").build();
+        Skills merged = Skills.Builder.newInstance().addAllSkills(s1).addAllSkills(s2).build();
+        assertTrue(merged.containsSkill("skill1"));
+        assertTrue(merged.containsSkill("skill2"));
+        assertFalse(s1.containsAll(merged));
+        assertTrue(merged.containsAll(s1));
+    }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HardActivityConstraintSequenceTest {
+
+    private final HardActivityConstraint alwaysFulfilled = (iFacts, prevAct, newAct, nextAct, prevActDepTime) -> ConstraintsStatus.FULFILLED;
+
+    private final HardActivityConstraint alwaysRejecting = (iFacts, prevAct, newAct, nextAct, prevActDepTime) -> ConstraintsStatus.NOT_FULFILLED_BREAK;
+
+    private void evaluateAll(HardActivityConstraintSequence sequence, int times) {
+        for (int i = 0; i < times; i++) {
+            for (HardActivityConstraintSequence.Entry e : sequence.entries()) {
+                if (sequence.evaluate(e, null, null, null, null, 0.) == ConstraintsStatus.NOT_FULFILLED_BREAK) break;
+            }
+        }
+    }
+
+    @Test
+    public void whenNotAdaptive_orderShouldNotChange() {
+        HardActivityConstraintSequence sequence = new HardActivityConstraintSequence(false);
+        sequence.add(alwaysFulfilled, false);
+        sequence.add(alwaysRejecting, false);
+        evaluateAll(sequence, 3 * HardActivityConstraintSequence.REORDER_INTERVAL);
+        Assert.assertSame(alwaysFulfilled, sequence.entries()[0].constraint);
+    }
+
+    @Test
+    public void whenAdaptive_rejectingConstraintShouldMoveToFront() {
+        HardActivityConstraintSequence sequence = new HardActivityConstraintSequence(false);
+        sequence.setAdaptive(true);
+        sequence.add(alwaysFulfilled, false);
+        sequence.add(alwaysRejecting, false);
+        evaluateAll(sequence, 3 * HardActivityConstraintSequence.REORDER_INTERVAL);
+        Assert.assertSame(alwaysRejecting, sequence.entries()[0].constraint);
+        Assert.assertEquals(2, sequence.getConstraints().size());
+    }
+
+    @Test
+    public void whenAdaptive_constraintsShouldNotMoveAcrossFixedOnes() {
+        HardActivityConstraintSequence sequence = new HardActivityConstraintSequence(false);
+        sequence.setAdaptive(true);
+        HardActivityConstraint fixed = (iFacts, prevAct, newAct, nextAct, prevActDepTime) -> ConstraintsStatus.FULFILLED;
+        sequence.add(alwaysFulfilled, false);
+        sequence.add(fixed, true);
+        sequence.add(alwaysRejecting, false);
+        evaluateAll(sequence, 3 * HardActivityConstraintSequence.REORDER_INTERVAL);
+        Assert.assertSame(alwaysFulfilled, sequence.entries()[0].constraint);
+        Assert.assertSame(fixed, sequence.entries()[1].constraint);
+        Assert.assertSame(alwaysRejecting, sequence.entries()[2].constraint);
+    }
+
+}
@@ -19,11 +19,17 @@ package com.graphhopper.jsprit.core.problem.solution.route.activity;
 
 import com.graphhopper.jsprit.core.problem.AbstractActivity;
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.job.Shipment;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 
@@ -236,4 +242,83 @@ public class TestTourActivities {
         assertTrue(copiedTour.servesJob(s));
     }
 
+    @Test
+    public void positionsShouldBeMaintainedWhenInsertingAndRemovingActivities() {
+        Service s1 = Service.Builder.newInstance("s1").location(Location.the("loc")).build();
+        Service s2 = Service.Builder.newInstance("s2").location(Location.the("loc")).build();
+        Service s3 = Service.Builder.newInstance("s3").location(Location.the("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addJob(s1).addJob(s2).addJob(s3).build();
+        AbstractActivity a1 = vrp.activities(s1).get(0).clone();
+        AbstractActivity a2 = vrp.activities(s2).get(0).clone();
+        AbstractActivity a3 = vrp.activities(s3).get(0).clone();
+        tour.addActivity(a1);
+        tour.addActivity(a3);
+        tour.addActivity(1, a2);
+        assertEquals(0, tour.positionOf(a1));
+        assertEquals(1, tour.positionOf(a2));
+        assertEquals(2, tour.positionOf(a3.index()));
+
+        tour.removeJob(s1);
+        assertEquals(-1, tour.positionOf(a1));
+        assertEquals(0, tour.positionOf(a2.index()));
+        assertEquals(1, tour.positionOf(a3));
+    }
+
+    @Test
+    public void activitiesOfShipmentShouldBeInTourOrder() {
+        Shipment s = Shipment.Builder.newInstance("s").addSizeDimension(0, 1)
+            .setDeliveryLocation(Location.the("delLoc"))
+            .setPickupLocation(Location.Builder.the().setId("pickLoc").build()).build();
+        TourShipmentActivityFactory fac = new DefaultShipmentActivityFactory();
+        AbstractActivity pickupShipment = fac.createPickup(s);
+        AbstractActivity deliverShipment = fac.createDelivery(s);
+        tour.addActivity(act);
+        tour.addActivity(deliverShipment);
+        tour.addActivity(0, pickupShipment);
+
+        assertEquals(Arrays.asList(pickupShipment, deliverShipment), tour.activitiesOf(s));
+        assertEquals(2, tour.positionOf(deliverShipment));
+        assertTrue(tour.activitiesOf(Service.Builder.newInstance("other").location(Location.the("loc")).build()).isEmpty());
+    }
+
+    @Test
+    public void removingActivitiesWhileIteratingActivitiesOfJob_shouldWork() {
+        Shipment s = Shipment.Builder.newInstance("s").addSizeDimension(0, 1)
+            .setDeliveryLocation(Location.the("delLoc"))
+            .setPickupLocation(Location.Builder.the().setId("pickLoc").build()).build();
+        TourShipmentActivityFactory fac = new DefaultShipmentActivityFactory();
+        tour.addActivity(fac.createPickup(s));
+        tour.addActivity(act);
+        tour.addActivity(fac.createDelivery(s));
+        for (AbstractActivity shipmentAct : tour.activitiesOf(s)) {
+            assertTrue(tour.removeActivity(shipmentAct));
+        }
+        assertFalse(tour.servesJob(s));
+        assertEquals(Arrays.asList((AbstractActivity) act), tour.activities());
+    }
+
+    @Test
+    public void positionsShouldBeMaintainedWhenRepeatedlyRemovingAndReinsertingActivities() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get();
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Service s = Service.Builder.newInstance("s" + i).location(Location.the("loc")).build();
+            services.add(s);
+            vrpBuilder.addJob(s);
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        Random random = new Random(42);
+        for (Service s : services) tour.addActivity(vrp.activities(s).get(0).clone());
+        for (int i = 0; i < 500; i++) {
+            Service s = services.get(random.nextInt(services.size()));
+            if (tour.servesJob(s)) tour.removeJob(s);
+            else tour.addActivity(random.nextInt(tour.activities().size() + 1), vrp.activities(s).get(0).clone());
+            for (int position = 0; position < tour.activities().size(); position++) {
+                AbstractActivity tourAct = tour.activities().get(position);
+                assertEquals(position, tour.positionOf(tourAct));
+                assertEquals(position, tour.positionOf(tourAct.index()));
+            }
+        }
+    }
+
 }
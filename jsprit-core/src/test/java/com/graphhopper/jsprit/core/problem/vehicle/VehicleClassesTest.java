@@ -0,0 +1,89 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.vehicle;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VehicleClassesTest {
+
+    private static VehicleImpl vehicle(String id, VehicleType type, Location start) {
+        return VehicleImpl.Builder.newInstance(id).setStartLocation(start).setType(type).build();
+    }
+
+    @Test
+    public void whenVehiclesOnlyDifferInProportionalCosts_theyShouldBeInSameClass() {
+        VehicleType cheap = VehicleTypeImpl.Builder.the("cheap").addCapacityDimension(0, 10).setCostPerDistance(1.).setCostPerTransportTime(2.).build();
+        VehicleType expensive = VehicleTypeImpl.Builder.the("expensive").addCapacityDimension(0, 10).setCostPerDistance(2.).setCostPerTransportTime(4.).build();
+        VehicleImpl v1 = vehicle("v1", cheap, Location.the(0, 0));
+        VehicleImpl v2 = vehicle("v2", expensive, Location.the(0, 0));
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(v1).addVehicle(v2).build();
+        VehicleClasses classes = vrp.vehicleClasses();
+        Assert.assertEquals(1, classes.size());
+        Assert.assertEquals(classes.classOf(v1), classes.classOf(v2));
+        Assert.assertEquals(2., classes.costScale(v2) / classes.costScale(v1), 0.001);
+    }
+
+    @Test
+    public void whenCostsAreNotProportional_vehiclesShouldBeInDifferentClasses() {
+        VehicleType t1 = VehicleTypeImpl.Builder.the("t1").addCapacityDimension(0, 10).setCostPerDistance(1.).setCostPerTransportTime(2.).build();
+        VehicleType t2 = VehicleTypeImpl.Builder.the("t2").addCapacityDimension(0, 10).setCostPerDistance(1.).setCostPerTransportTime(4.).build();
+        VehicleImpl v1 = vehicle("v1", t1, Location.the(0, 0));
+        VehicleImpl v2 = vehicle("v2", t2, Location.the(0, 0));
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(v1).addVehicle(v2).build();
+        Assert.assertNotEquals(vrp.vehicleClasses().classOf(v1), vrp.vehicleClasses().classOf(v2));
+    }
+
+    @Test
+    public void whenFixedCostsDiffer_vehiclesShouldBeInDifferentClasses() {
+        VehicleType t1 = VehicleTypeImpl.Builder.the("t1").addCapacityDimension(0, 10).setCostPerDistance(2.).setFixedCost(100.).build();
+        VehicleType t2 = VehicleTypeImpl.Builder.the("t2").addCapacityDimension(0, 10).setCostPerDistance(1.).setFixedCost(200.).build();
+        VehicleImpl v1 = vehicle("v1", t1, Location.the(0, 0));
+        VehicleImpl v2 = vehicle("v2", t2, Location.the(0, 0));
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(v1).addVehicle(v2).build();
+        Assert.assertNotEquals(vrp.vehicleClasses().classOf(v1), vrp.vehicleClasses().classOf(v2));
+    }
+
+    @Test
+    public void whenCapacitiesDiffer_vehiclesShouldBeInDifferentClasses() {
+        VehicleType t1 = VehicleTypeImpl.Builder.the("t1").addCapacityDimension(0, 10).build();
+        VehicleType t2 = VehicleTypeImpl.Builder.the("t2").addCapacityDimension(0, 20).build();
+        VehicleImpl v1 = vehicle("v1", t1, Location.the(0, 0));
+        VehicleImpl v2 = vehicle("v2", t2, Location.the(0, 0));
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(v1).addVehicle(v2).build();
+        Assert.assertNotEquals(vrp.vehicleClasses().classOf(v1), vrp.vehicleClasses().classOf(v2));
+    }
+
+    @Test
+    public void whenStartLocationsDiffer_vehiclesShouldBeInDifferentClasses() {
+        VehicleType t = VehicleTypeImpl.Builder.the("t").addCapacityDimension(0, 10).build();
+        VehicleImpl v1 = vehicle("v1", t, Location.the(0, 0));
+        VehicleImpl v2 = vehicle("v2", t, Location.the(1, 0));
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().addVehicle(v1).addVehicle(v2).build();
+        Assert.assertNotEquals(vrp.vehicleClasses().classOf(v1), vrp.vehicleClasses().classOf(v2));
+    }
+
+    @Test
+    public void unknownVehicleShouldHaveNoClass() {
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.get().build();
+        Assert.assertEquals(VehicleClasses.NO_CLASS, vrp.vehicleClasses().classOf(VehicleImpl.get()));
+    }
+
+}
@@ -19,6 +19,12 @@
 package com.graphhopper.jsprit.core.util;
 
 import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.util.Random;
 
 /**
  * Created by schroeder on 19/12/14.
@@ -36,4 +42,25 @@ public class TestUtils {
     public static Location loc(v2 coordinate) {
         return Location.Builder.the().setCoord(coordinate).build();
     }
+
+    /**
+     * Returns a problem with noServices services of size 1 at random integer coordinates in [0,100)x[0,100) and a vehicle with
+     * the specified capacity at (50,50). Services are named s0, s1, ... The coordinates are drawn with seed 4711.
+     */
+    public static VehicleRoutingProblem.Builder randomProblem(int noServices, int capacity) {
+        return randomProblem(noServices, capacity, new Random(4711));
+    }
+
+    /**
+     * Returns a problem as {@link #randomProblem(int, int)} whose coordinates are drawn from the specified random number generator.
+     */
+    public static VehicleRoutingProblem.Builder randomProblem(int noServices, int capacity, Random random) {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.get();
+        for (int i = 0; i < noServices; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).sizeDimension(0, 1).location(Location.the(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.the("type").addCapacityDimension(0, capacity).build();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.the(50, 50)).build());
+        return vrpBuilder;
+    }
 }
@@ -842,7 +842,7 @@ public class VehicleRoutingAlgorithms {
                 String shareToRuinString = moduleConfig.getString("ruin.share");
                 if (shareToRuinString == null) throw new IllegalStateException("module.ruin.share is missing.");
                 double shareToRuin = Double.valueOf(shareToRuinString);
-                JobDistance jobDistance = new AvgServiceAndShipmentDistance(vrp.transportCosts());
+                JobDistance jobDistance = new AvgServiceAndShipmentDistance(vrp);
                 ruin = getRadialRuin(vrp, routeStates, definedClasses, ruinKey, shareToRuin, jobDistance);
             } else if (ruin_name.equals("clusterRuin")) {
                 String initialNumberJobsToRemoveString = moduleConfig.getString("ruin.initRemoveJobs");
@@ -891,7 +891,7 @@ public class VehicleRoutingAlgorithms {
     }
 
     private static RuinStrategy getClusterRuin(final VehicleRoutingProblem vrp, final StateManager routeStates, TypedMap definedClasses, ModKey modKey, int initialNumberJobsToRemove) {
-    	JobNeighborhoods jobNeighborhoods = JobNeighborhoodsFactory.createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.transportCosts()));
+    	JobNeighborhoods jobNeighborhoods = JobNeighborhoodsFactory.createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp));
     	RuinStrategyKey stratKey = new RuinStrategyKey(modKey);
         RuinStrategy ruin = definedClasses.get(stratKey);
         if (ruin == null) {